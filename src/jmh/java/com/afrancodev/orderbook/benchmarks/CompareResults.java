@@ -0,0 +1,76 @@
+package com.afrancodev.orderbook.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CompareResults {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults <baseline.csv> <current.csv>");
+            System.exit(2);
+        }
+
+        Map<String, Double> baseline = load(args[0]);
+        Map<String, Double> current = load(args[1]);
+
+        System.out.printf("%-60s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Double> entry : current.entrySet()) {
+            Double before = baseline.get(entry.getKey());
+            double after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-60s %14s %14.3f %9s%n", entry.getKey(), "-", after, "new");
+                continue;
+            }
+            double change = (after - before) / before * 100.0;
+            boolean higherIsBetter = entry.getKey().contains(" thrpt");
+            String verdict = Math.abs(change) < 5.0 ? "" : ((change > 0) == higherIsBetter ? " better" : " WORSE");
+            System.out.printf("%-60s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(), before, after, change, verdict);
+        }
+    }
+
+    private static Map<String, Double> load(String path) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8);
+        List<String> header = parse(lines.get(0));
+        int scoreColumn = header.indexOf("Score");
+
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> row = parse(line);
+            String benchmark = row.get(0).substring(row.get(0).lastIndexOf('.', row.get(0).lastIndexOf('.') - 1) + 1);
+            StringBuilder key = new StringBuilder(benchmark).append(' ').append(row.get(1));
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith("Param: ") && !row.get(i).isEmpty()) {
+                    key.append(' ').append(header.get(i).substring(7)).append('=').append(row.get(i));
+                }
+            }
+            scores.put(key.toString(), Double.parseDouble(row.get(scoreColumn)));
+        }
+        return scores;
+    }
+
+    private static List<String> parse(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,101 @@
+package com.afrancodev.orderbook.benchmarks;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import com.afrancodev.orderbook.OffHeapOrderBook;
+import com.afrancodev.orderbook.OrderBook;
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.OrderPool;
+
+// Fills a book with resting orders, then reports heap after a full GC, the full GC's duration, and
+// GC time during a churn phase of add/match/cancel. Run each mode in its own JVM
+// (arguments: heap|offheap, resting orders, churn operations).
+public class DeepBook {
+
+    private static final int LEVELS = 1000;
+    private static final long MID = 100_000;
+
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "offheap";
+        int resting = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int churn = args.length > 2 ? Integer.parseInt(args[2]) : 2_000_000;
+        Instrument instrument = new Instrument("DEEP", 0.01);
+
+        Book book;
+        if (mode.equals("heap")) {
+            OrderBook orderBook = new OrderBook(instrument, new OrderPool(resting + 1024));
+            book = new Book() {
+                public long add(boolean isBuy, long priceTicks, int quantity) {
+                    return orderBook.addOrder(orderBook.createOrder(isBuy, priceTicks, quantity, false, 1 << 30));
+                }
+                public void match() {
+                    orderBook.matchOrders();
+                }
+                public void cancel(long id) {
+                    orderBook.cancelOrder(id);
+                }
+            };
+        } else {
+            OffHeapOrderBook orderBook = new OffHeapOrderBook(instrument, resting + 1024);
+            book = new Book() {
+                public long add(boolean isBuy, long priceTicks, int quantity) {
+                    return orderBook.addOrder(isBuy, priceTicks, quantity, false, 1 << 30);
+                }
+                public void match() {
+                    orderBook.matchOrders();
+                }
+                public void cancel(long id) {
+                    orderBook.cancelOrder(id);
+                }
+            };
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < resting; i++) {
+            boolean isBuy = (i & 1) == 0;
+            long offset = 1 + (i >>> 1) % LEVELS;
+            book.add(isBuy, isBuy ? MID - offset : MID + offset, 1 + i % 100);
+        }
+        System.out.printf("%s: %,d resting orders in %.2f s%n", mode, resting, (System.nanoTime() - start) / 1e9);
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long gcStart = System.nanoTime();
+        System.gc();
+        System.out.printf("Full GC:     %,d ms%n", (System.nanoTime() - gcStart) / 1_000_000);
+        System.out.printf("Heap used:   %,d MB%n", memory.getHeapMemoryUsage().getUsed() >> 20);
+        System.out.printf("Off-heap:    %,d MB (direct buffers and other non-heap)%n",
+                ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                        .filter(pool -> pool.getName().equals("direct"))
+                        .mapToLong(BufferPoolMXBean::getMemoryUsed).sum() >> 20);
+
+        long gcBefore = gcMillis();
+        start = System.nanoTime();
+        for (int i = 0; i < churn; i++) {
+            boolean isBuy = (i & 1) == 0;
+            long id = book.add(isBuy, isBuy ? MID - 1 - i % LEVELS : MID + 1 + i % LEVELS, 1 + i % 100);
+            book.match();
+            book.cancel(id);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Churn:       %,.0f add+match+cancel/s, %,d ms in GC%n", churn / seconds, gcMillis() - gcBefore);
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private interface Book {
+        long add(boolean isBuy, long priceTicks, int quantity);
+
+        void match();
+
+        void cancel(long id);
+    }
+}
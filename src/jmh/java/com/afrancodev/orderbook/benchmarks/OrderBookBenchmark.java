@@ -0,0 +1,233 @@
+package com.afrancodev.orderbook.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.afrancodev.orderbook.OrderBook;
+import com.afrancodev.orderbook.OrderGenerator;
+import com.afrancodev.orderbook.flow.Distributions;
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.LevelBuffer;
+import com.afrancodev.orderbook.models.Order;
+import com.afrancodev.orderbook.models.OrderBuffer;
+import com.afrancodev.orderbook.models.OrderPool;
+import com.afrancodev.orderbook.models.PriceLevelData;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class OrderBookBenchmark {
+
+    private static final Instrument INSTRUMENT = new Instrument("BENCH", 0.01);
+    private static final double FAIR_PRICE = 100.0;
+    private static final int RESTING_AGE = Integer.MAX_VALUE - 1;
+    // Seeded bids stay at or below FAIR_PRICE - MIN_OFFSET and asks at or above FAIR_PRICE + MIN_OFFSET,
+    // so the resting book starts neither locked nor crossed.
+    private static final double MIN_OFFSET = 0.05;
+    private static final double MAX_OFFSET = 10.0;
+    private static final int EXPIRY_TICKS = 1_000;
+    private static final int EXPIRING_ORDERS = 50_000;
+    private static final int BATCH_SIZE = 256;
+    private static final int SNAPSHOT_DEPTH = 20;
+
+    public enum Flow {
+        PASSIVE(0.0),
+        BALANCED(0.15),
+        AGGRESSIVE(0.5);
+
+        private final double marketOrderProbability;
+
+        Flow(double marketOrderProbability) {
+            this.marketOrderProbability = marketOrderProbability;
+        }
+
+        OrderGenerator generator() {
+            return new OrderGenerator(FAIR_PRICE, marketOrderProbability, 10, 100);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RestingBook {
+
+        @Param({"100", "10000", "1000000"})
+        public int depth;
+
+        OrderBook book;
+        final LevelBuffer levels = new LevelBuffer(SNAPSHOT_DEPTH);
+        final OrderBuffer orders = new OrderBuffer(SNAPSHOT_DEPTH);
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            book = restingBook(depth);
+            book.updatePrices();
+        }
+    }
+
+    // Resting book plus EXPIRING_ORDERS orders due within the next EXPIRY_TICKS ticks, re-added before
+    // every invocation so each one expires real orders.
+    @State(Scope.Thread)
+    public static class ExpiringBook {
+
+        @Param({"100", "10000", "1000000"})
+        public int depth;
+
+        OrderBook book;
+        OrderGenerator generator;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            book = restingBook(depth);
+            generator = seedGenerator(1, EXPIRY_TICKS);
+        }
+
+        @Setup(Level.Invocation)
+        public void addExpiring() {
+            for (int i = 0; i < EXPIRING_ORDERS; i++) {
+                book.addOrder(generator.generateRandomOrder(book));
+            }
+        }
+    }
+
+    // Flow orders live 10 to 100 ticks and the wheel advances one tick before every invocation, so at
+    // most 100 invocations' worth of flow rests on top of the seeded depth and the pool never runs
+    // dry, however many invocations an iteration fits.
+    @State(Scope.Thread)
+    public static class OrderFlow {
+
+        @Param({"100", "10000", "1000000"})
+        public int depth;
+
+        @Param({"PASSIVE", "BALANCED", "AGGRESSIVE"})
+        public Flow flow;
+
+        OrderBook book;
+        OrderGenerator generator;
+        final Order[] batch = new Order[BATCH_SIZE];
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            book = restingBook(depth);
+            generator = flow.generator();
+        }
+
+        @Setup(Level.Invocation)
+        public void expire() {
+            book.expireOldOrders();
+        }
+    }
+
+    @Benchmark
+    public void addOrder(OrderFlow state) {
+        state.book.addOrder(state.generator.generateRandomOrder(state.book));
+    }
+
+    @Benchmark
+    public void matchOrders(OrderFlow state) {
+        state.book.addOrder(state.generator.generateRandomOrder(state.book));
+        state.book.matchOrders();
+    }
+
+    @Benchmark
+    public boolean cancelOrder(OrderFlow state) {
+        long orderId = state.book.addOrder(state.generator.generateRandomOrder(state.book));
+        return state.book.cancelOrder(orderId);
+    }
+
+    @Benchmark
+    public void engineTick(OrderFlow state) {
+        OrderBook book = state.book;
+        book.addOrder(state.generator.generateRandomOrder(book));
+        book.matchOrders();
+        book.updatePrices();
+        book.expireOldOrders();
+    }
+
+    @Benchmark
+    public void addAndSample(OrderFlow state) {
+        OrderBook book = state.book;
+        book.addOrder(state.generator.generateRandomOrder(book));
+        book.matchOrders();
+        book.updatePrices();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void addOrdersBatch(OrderFlow state) {
+        OrderBook book = state.book;
+        Order[] batch = state.batch;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch[i] = state.generator.generateRandomOrder(book);
+        }
+        book.addOrders(batch, 0, BATCH_SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EXPIRY_TICKS)
+    public void expireOldOrders(ExpiringBook state) {
+        OrderBook book = state.book;
+        for (int i = 0; i < EXPIRY_TICKS; i++) {
+            book.expireOldOrders();
+        }
+    }
+
+    @Benchmark
+    public void updatePrices(RestingBook state) {
+        state.book.updatePrices();
+    }
+
+    @Benchmark
+    public PriceLevelData getBidLevels(RestingBook state) {
+        return state.book.getBidLevels();
+    }
+
+    @Benchmark
+    public PriceLevelData getAskLevels(RestingBook state) {
+        return state.book.getAskLevels();
+    }
+
+    @Benchmark
+    public LevelBuffer snapshotLevels(RestingBook state) {
+        state.book.snapshot(SNAPSHOT_DEPTH, state.levels);
+        return state.levels;
+    }
+
+    @Benchmark
+    public OrderBuffer snapshotOrders(RestingBook state) {
+        state.book.snapshot(SNAPSHOT_DEPTH, state.orders);
+        return state.orders;
+    }
+
+    static OrderBook restingBook(int depth) {
+        OrderBook book = new OrderBook(INSTRUMENT, new OrderPool(depth * 2 + 65_536));
+        OrderGenerator generator = seedGenerator(RESTING_AGE, RESTING_AGE + 1);
+        for (int i = 0; i < depth; i++) {
+            book.addOrder(generator.generateRandomOrder(book));
+        }
+        book.matchOrders();
+        return book;
+    }
+
+    // Passive limit orders in non-overlapping bands around a fixed fair price.
+    static OrderGenerator seedGenerator(int minAge, int maxAge) {
+        return OrderGenerator.builder(FAIR_PRICE)
+                .marketOrderProbability(0.0)
+                .priceOffsets(Distributions.uniform(MIN_OFFSET, MAX_OFFSET))
+                .lifetimes(minAge, maxAge)
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.afrancodev.orderbook.benchmarks;
+
+import com.afrancodev.orderbook.OrderGenerator;
+import com.afrancodev.orderbook.ShardedEngine;
+import com.afrancodev.orderbook.models.Instrument;
+
+public class ShardScaling {
+
+    private static final int ORDERS_PER_TICK = 100;
+
+    public static void main(String[] args) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int instruments = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(cores * 4, 16);
+        long warmupMillis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        long measureMillis = args.length > 2 ? Long.parseLong(args[2]) : 5000;
+
+        Instrument[] symbols = new Instrument[instruments];
+        for (int i = 0; i < instruments; i++) {
+            symbols[i] = new Instrument("SYM" + i, 0.01);
+        }
+
+        System.out.printf("%d instruments, %d available cores%n", instruments, cores);
+        System.out.printf("%8s %16s %9s %11s%n", "Workers", "Orders/s", "Speedup", "Efficiency");
+        double single = 0;
+        for (int workers = 1; workers <= Math.min(cores, instruments); workers++) {
+            double rate = run(symbols, workers, warmupMillis, measureMillis);
+            if (workers == 1) {
+                single = rate;
+            }
+            double speedup = rate / single;
+            System.out.printf("%8d %16.0f %8.2fx %10.1f%%%n", workers, rate, speedup, speedup / workers * 100.0);
+        }
+    }
+
+    private static double run(Instrument[] symbols, int workers, long warmupMillis, long measureMillis)
+            throws InterruptedException {
+        ShardedEngine engine = new ShardedEngine(symbols, workers);
+        OrderGenerator[] generators = new OrderGenerator[symbols.length];
+        for (int i = 0; i < generators.length; i++) {
+            generators[i] = new OrderGenerator(100.0);
+        }
+        engine.enableLocalFlow(generators, ORDERS_PER_TICK);
+        engine.start();
+
+        Thread.sleep(warmupMillis);
+        long startOrders = engine.getGeneratedOrders();
+        long start = System.nanoTime();
+        Thread.sleep(measureMillis);
+        long orders = engine.getGeneratedOrders() - startOrders;
+        long elapsed = System.nanoTime() - start;
+        engine.stop();
+        return orders * 1e9 / elapsed;
+    }
+}
@@ -0,0 +1,269 @@
+package com.afrancodev.orderbook;
+
+import com.afrancodev.orderbook.models.Order;
+import com.afrancodev.orderbook.models.OrderSlots;
+import com.afrancodev.orderbook.models.PriceLevel;
+
+// Price ladder indexed by tick offset. PriceLevel objects are created the first time their slot is
+// used and kept for reuse; the occupancy bitset says which ones are live. A ladder stretched past
+// SHRINK_CAPACITY by outlying prices is dropped once the side empties.
+class BookSide implements Ladder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int SHRINK_CAPACITY = 1 << 16;
+    private static final int MAX_CAPACITY = 1 << 24;
+    // grow() keeps the capacity at twice the span of live ticks at least.
+    private static final int MAX_SPAN = MAX_CAPACITY / 2;
+
+    private final boolean bids;
+    private final boolean stops;
+    private final OrderSlots slots;
+
+    private PriceLevel[] levels;
+    private long[] occupied = new long[INITIAL_CAPACITY >>> 6];
+    private long baseTick;
+    private boolean anchored = false;
+
+    private int bestIndex = -1;
+    private int levelCount = 0;
+    private int orderCount = 0;
+    private long totalQuantity = 0;
+
+    BookSide(boolean bids, boolean stops, OrderSlots slots) {
+        this.bids = bids;
+        this.stops = stops;
+        this.slots = slots;
+    }
+
+    private long tickOf(Order order) {
+        return stops ? order.getStopTicks() : order.getPriceTicks();
+    }
+
+    @Override
+    public boolean add(int handle) {
+        Order order = slots.get(handle);
+        long tick = tickOf(order);
+        int index = indexFor(tick);
+        PriceLevel level = levels[index];
+        if (level == null) {
+            level = new PriceLevel(tick);
+            levels[index] = level;
+        }
+        boolean newLevel = level.isEmpty();
+        if (newLevel) {
+            occupied[index >>> 6] |= 1L << index;
+            levelCount++;
+            if (bestIndex < 0 || (bids ? index > bestIndex : index < bestIndex)) {
+                bestIndex = index;
+            }
+        }
+        level.append(order);
+        orderCount++;
+        totalQuantity += order.getQuantity();
+        return newLevel;
+    }
+
+    @Override
+    public void remove(int handle) {
+        Order order = slots.get(handle);
+        int index = (int) (tickOf(order) - baseTick);
+        PriceLevel level = levels[index];
+        orderCount--;
+        totalQuantity -= order.getQuantity();
+        level.remove(order);
+        if (level.isEmpty()) {
+            clearLevel(index);
+        }
+    }
+
+    @Override
+    public void reduce(int handle, int amount) {
+        Order order = slots.get(handle);
+        levels[(int) (tickOf(order) - baseTick)].reduce(order, amount);
+        totalQuantity -= amount;
+    }
+
+    @Override
+    public int firstIndex() {
+        return bestIndex;
+    }
+
+    @Override
+    public int nextIndex(int index) {
+        return bids ? prevSetBit(index - 1) : nextSetBit(index + 1);
+    }
+
+    @Override
+    public long tickAt(int index) {
+        return levels[index].getTick();
+    }
+
+    @Override
+    public long quantityAt(int index) {
+        return levels[index].getTotalQuantity();
+    }
+
+    @Override
+    public long hiddenAt(int index) {
+        return levels[index].getHiddenQuantity();
+    }
+
+    @Override
+    public int orderCountAt(int index) {
+        return levels[index].getOrderCount();
+    }
+
+    @Override
+    public int headAt(int index) {
+        return handleOf(levels[index].peek());
+    }
+
+    @Override
+    public int next(int handle) {
+        Order order = slots.get(handle);
+        return handleOf(levels[(int) (tickOf(order) - baseTick)].next(order));
+    }
+
+    private int handleOf(Order order) {
+        return order == null ? OrderStorage.NONE : slots.handleOf(order);
+    }
+
+    @Override
+    public long levelQuantity(long tick) {
+        PriceLevel level = find(tick);
+        return level == null ? 0 : level.getTotalQuantity();
+    }
+
+    @Override
+    public int levelOrderCount(long tick) {
+        PriceLevel level = find(tick);
+        return level == null ? 0 : level.getOrderCount();
+    }
+
+    private PriceLevel find(long tick) {
+        if (!anchored || tick < baseTick || tick - baseTick >= levels.length) {
+            return null;
+        }
+        return levels[(int) (tick - baseTick)];
+    }
+
+    @Override
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    @Override
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    @Override
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    private void clearLevel(int index) {
+        occupied[index >>> 6] &= ~(1L << index);
+        levelCount--;
+        if (index == bestIndex) {
+            bestIndex = nextIndex(index);
+        }
+        if (levelCount == 0 && levels.length > SHRINK_CAPACITY) {
+            levels = null;
+            occupied = new long[INITIAL_CAPACITY >>> 6];
+            anchored = false;
+        }
+    }
+
+    @Override
+    public boolean fits(long tick) {
+        if (!anchored) {
+            return true;
+        }
+        long offset = tick - baseTick;
+        return (offset >= 0 && offset < levels.length) || (offset >= levels.length - MAX_SPAN && offset < MAX_SPAN);
+    }
+
+    private int indexFor(long tick) {
+        if (!anchored) {
+            baseTick = tick - INITIAL_CAPACITY / 2;
+            levels = new PriceLevel[INITIAL_CAPACITY];
+            anchored = true;
+        }
+        long offset = tick - baseTick;
+        if (offset < 0 || offset >= levels.length) {
+            grow(tick);
+            offset = tick - baseTick;
+        }
+        return (int) offset;
+    }
+
+    private void grow(long tick) {
+        long low = Math.min(baseTick, tick);
+        long high = Math.max(baseTick + levels.length - 1, tick);
+        long span = high - low + 1;
+
+        int capacity = levels.length;
+        while (capacity < span * 2) {
+            capacity <<= 1;
+            if (capacity > MAX_CAPACITY) {
+                throw new IllegalArgumentException("Price " + tick + " is too far from the book (" + low + ".." + high + ")");
+            }
+        }
+
+        long newBase = low - (capacity - span) / 2;
+        int shift = (int) (baseTick - newBase);
+
+        PriceLevel[] newLevels = new PriceLevel[capacity];
+        long[] newOccupied = new long[capacity >>> 6];
+        for (int i = 0; i < levels.length; i++) {
+            PriceLevel level = levels[i];
+            int index = i + shift;
+            newLevels[index] = level;
+            if (level != null && !level.isEmpty()) {
+                newOccupied[index >>> 6] |= 1L << index;
+            }
+        }
+
+        levels = newLevels;
+        occupied = newOccupied;
+        baseTick = newBase;
+        if (bestIndex >= 0) {
+            bestIndex += shift;
+        }
+    }
+
+    private int nextSetBit(int from) {
+        if (from >= occupied.length << 6) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long bits = occupied[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == occupied.length) {
+                return -1;
+            }
+            bits = occupied[word];
+        }
+    }
+
+    private int prevSetBit(int from) {
+        if (from < 0) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long bits = occupied[word] & (-1L >>> (63 - (from & 63)));
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+            }
+            if (word-- == 0) {
+                return -1;
+            }
+            bits = occupied[word];
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.afrancodev.orderbook;
+
+class Command {
+
+    enum Type {
+        ADD, CANCEL, MODIFY, TICK
+    }
+
+    Type type;
+    int book;
+    long orderId;
+    boolean isBuy;
+    long priceTicks;
+    int quantity;
+    boolean marketOrder;
+    int age;
+    boolean batched;
+    boolean endOfBatch;
+
+    void setAdd(int book, long orderId, boolean isBuy, long priceTicks, int quantity, boolean marketOrder, int age) {
+        this.type = Type.ADD;
+        this.book = book;
+        this.orderId = orderId;
+        this.isBuy = isBuy;
+        this.priceTicks = priceTicks;
+        this.quantity = quantity;
+        this.marketOrder = marketOrder;
+        this.age = age;
+        this.batched = false;
+        this.endOfBatch = false;
+    }
+
+    void setCancel(int book, long orderId) {
+        this.type = Type.CANCEL;
+        this.book = book;
+        this.orderId = orderId;
+    }
+
+    void setModify(int book, long orderId, int quantity, long priceTicks) {
+        this.type = Type.MODIFY;
+        this.book = book;
+        this.orderId = orderId;
+        this.quantity = quantity;
+        this.priceTicks = priceTicks;
+    }
+
+    void setTick(int book) {
+        this.type = Type.TICK;
+        this.book = book;
+    }
+}
@@ -0,0 +1,93 @@
+package com.afrancodev.orderbook;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+class CommandRingBuffer {
+
+    interface Handler {
+        void onCommand(long sequence, Command command);
+    }
+
+    private final Command[] slots;
+    private final int mask;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final AtomicLong consumed = new AtomicLong(-1);
+
+    CommandRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.slots = new Command[capacity];
+        this.mask = capacity - 1;
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Command();
+            published.set(i, -1);
+        }
+    }
+
+    long tryClaim() {
+        return tryClaim(1);
+    }
+
+    // Claims count consecutive slots and returns the first sequence, or -1 if they are not all free.
+    long tryClaim(int count) {
+        if (count <= 0 || count > slots.length) {
+            throw new IllegalArgumentException("Cannot claim " + count + " slots from a ring of " + slots.length);
+        }
+        while (true) {
+            long current = claimed.get();
+            long last = current + count;
+            if (last - slots.length > consumed.get()) {
+                return -1;
+            }
+            if (claimed.compareAndSet(current, last)) {
+                return current + 1;
+            }
+        }
+    }
+
+    long claim() {
+        return claim(1);
+    }
+
+    long claim(int count) {
+        long sequence;
+        while ((sequence = tryClaim(count)) < 0) {
+            Thread.onSpinWait();
+        }
+        return sequence;
+    }
+
+    Command get(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    void publish(long sequence) {
+        published.lazySet((int) sequence & mask, sequence);
+    }
+
+    int drain(Handler handler, int limit) {
+        long next = consumed.get() + 1;
+        int count = 0;
+        while (count < limit && published.get((int) next & mask) == next) {
+            handler.onCommand(next, slots[(int) next & mask]);
+            next++;
+            count++;
+        }
+        if (count > 0) {
+            consumed.lazySet(next - 1);
+        }
+        return count;
+    }
+
+    int size() {
+        return (int) (claimed.get() - consumed.get());
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,12 @@
+package com.afrancodev.orderbook;
+
+public interface DepthListener {
+
+    enum Action {
+        ADD, CHANGE, DELETE
+    }
+
+    // Called on the writer thread, under the book lock, once per price-level change. Sequences are
+    // consecutive per book; quantity is the level's new total (0 for DELETE).
+    void onLevelUpdate(long sequence, Action action, boolean isBuy, long priceTicks, long quantity);
+}
@@ -0,0 +1,118 @@
+package com.afrancodev.orderbook;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.afrancodev.orderbook.models.DepthSnapshot;
+import com.afrancodev.orderbook.models.PriceLevelData;
+
+// Local copy of a book's depth kept current from the incremental feed. It takes a full snapshot
+// only at start-up and whenever it sees a sequence gap.
+public class DepthReplica implements DepthListener {
+
+    private final OrderBook source;
+    private final TreeMap<Long, Long> bids = new TreeMap<>(Collections.reverseOrder());
+    private final TreeMap<Long, Long> asks = new TreeMap<>();
+
+    private boolean synced = false;
+    private long sequence = 0;
+    private long appliedUpdates = 0;
+    private long resyncs = 0;
+
+    public DepthReplica(OrderBook source) {
+        this.source = source;
+    }
+
+    public void start() {
+        source.subscribe(this);
+        // Fetched outside our own lock: the writer thread calls in holding the book lock first.
+        DepthSnapshot snapshot = source.getDepthSnapshot();
+        synchronized (this) {
+            load(snapshot);
+        }
+    }
+
+    public void stop() {
+        source.unsubscribe(this);
+    }
+
+    @Override
+    public synchronized void onLevelUpdate(long sequence, Action action, boolean isBuy, long priceTicks, long quantity) {
+        if (!synced || sequence <= this.sequence) {
+            return;
+        }
+        if (sequence != this.sequence + 1) {
+            resyncs++;
+            load(source.getDepthSnapshot());
+            return;
+        }
+        TreeMap<Long, Long> side = isBuy ? bids : asks;
+        if (action == Action.DELETE) {
+            side.remove(priceTicks);
+        } else {
+            side.put(priceTicks, quantity);
+        }
+        this.sequence = sequence;
+        appliedUpdates++;
+    }
+
+    private void load(DepthSnapshot snapshot) {
+        if (synced && snapshot.getSequence() <= sequence) {
+            return;
+        }
+        fill(bids, snapshot.getBids());
+        fill(asks, snapshot.getAsks());
+        sequence = snapshot.getSequence();
+        synced = true;
+    }
+
+    private static void fill(TreeMap<Long, Long> side, PriceLevelData levels) {
+        side.clear();
+        for (int i = 0; i < levels.size(); i++) {
+            side.put(levels.priceTicks[i], (long) levels.quantities[i]);
+        }
+    }
+
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    public synchronized long getAppliedUpdates() {
+        return appliedUpdates;
+    }
+
+    public synchronized long getResyncCount() {
+        return resyncs;
+    }
+
+    public synchronized long getBestBidTicks() {
+        return bids.isEmpty() ? OrderBook.NO_PRICE : bids.firstKey();
+    }
+
+    public synchronized long getBestAskTicks() {
+        return asks.isEmpty() ? OrderBook.NO_PRICE : asks.firstKey();
+    }
+
+    public synchronized PriceLevelData getBidLevels(int maxLevels) {
+        return levels(bids, maxLevels);
+    }
+
+    public synchronized PriceLevelData getAskLevels(int maxLevels) {
+        return levels(asks, maxLevels);
+    }
+
+    private PriceLevelData levels(TreeMap<Long, Long> side, int maxLevels) {
+        int count = Math.min(side.size(), maxLevels);
+        long[] prices = new long[count];
+        int[] quantities = new int[count];
+        Iterator<Map.Entry<Long, Long>> it = side.entrySet().iterator();
+        for (int i = 0; i < count; i++) {
+            Map.Entry<Long, Long> entry = it.next();
+            prices[i] = entry.getKey();
+            quantities[i] = (int) (long) entry.getValue();
+        }
+        return new PriceLevelData(prices, quantities, source.getInstrument());
+    }
+}
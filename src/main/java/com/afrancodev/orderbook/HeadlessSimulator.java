@@ -0,0 +1,262 @@
+package com.afrancodev.orderbook;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.afrancodev.orderbook.analytics.MarketAnalytics;
+import com.afrancodev.orderbook.analytics.WindowStats;
+import com.afrancodev.orderbook.metrics.ConsoleReporter;
+import com.afrancodev.orderbook.metrics.CsvReporter;
+import com.afrancodev.orderbook.metrics.EngineMetrics;
+import com.afrancodev.orderbook.metrics.JmxReporter;
+import com.afrancodev.orderbook.metrics.MetricsPublisher;
+import com.afrancodev.orderbook.metrics.MetricsReporter;
+import com.afrancodev.orderbook.metrics.LatencyHistogram;
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.OrderPool;
+
+public class HeadlessSimulator {
+
+    private static final String USAGE = "Usage: HeadlessSimulator [--orders N | --duration SECONDS] [--rate ORDERS_PER_SEC]"
+            + " [--warmup N] [--orders-per-tick N] [--pool N] [--history N] [--journal FILE]"
+            + " [--seed N] [--stream N] [--metrics SECONDS] [--metrics-csv FILE] [--jmx NAME]"
+            + " [--analytics SECONDS]";
+
+    private long orders = 1_000_000;
+    private long durationNanos = 0;
+    private long rate = 0;
+    private long warmupOrders = 100_000;
+    private int ordersPerTick = 1;
+    private int poolSize = 1 << 16;
+    private int historyCapacity = 1 << 16;
+    private Path journalPath = null;
+    private long seed = System.nanoTime();
+    private int streamSize = 0;
+    private long metricsIntervalMillis = 0;
+    private Path metricsCsv = null;
+    private String jmxName = null;
+    private long analyticsIntervalMillis = 0;
+
+    private OrderGenerator orderGenerator;
+    private OrderStream stream;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public static void main(String[] args) throws IOException {
+        HeadlessSimulator simulator = new HeadlessSimulator();
+        try {
+            simulator.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        simulator.run();
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--orders":
+                    orders = Long.parseLong(value);
+                    durationNanos = 0;
+                    break;
+                case "--duration":
+                    durationNanos = TimeUnit.MILLISECONDS.toNanos((long) (Double.parseDouble(value) * 1000));
+                    orders = Long.MAX_VALUE;
+                    break;
+                case "--rate":
+                    rate = Long.parseLong(value);
+                    break;
+                case "--warmup":
+                    warmupOrders = Long.parseLong(value);
+                    break;
+                case "--orders-per-tick":
+                    ordersPerTick = Integer.parseInt(value);
+                    break;
+                case "--pool":
+                    poolSize = Integer.parseInt(value);
+                    break;
+                case "--history":
+                    historyCapacity = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--stream":
+                    streamSize = Integer.parseInt(value);
+                    break;
+                case "--metrics":
+                    metricsIntervalMillis = (long) (Double.parseDouble(value) * 1000);
+                    break;
+                case "--metrics-csv":
+                    metricsCsv = Paths.get(value);
+                    break;
+                case "--jmx":
+                    jmxName = value;
+                    break;
+                case "--analytics":
+                    analyticsIntervalMillis = (long) (Double.parseDouble(value) * 1000);
+                    break;
+                case "--journal":
+                    journalPath = Paths.get(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i - 1]);
+            }
+        }
+        if (ordersPerTick <= 0 || rate < 0 || warmupOrders < 0) {
+            throw new IllegalArgumentException("--orders-per-tick must be positive, --rate and --warmup non-negative");
+        }
+    }
+
+    private void run() throws IOException {
+        OrderBook orderBook = new OrderBook(new Instrument("SIM", 0.01), new OrderPool(poolSize), historyCapacity);
+        Journal journal = journalPath != null ? new Journal(journalPath) : null;
+        orderBook.setJournal(journal);
+        MetricsPublisher metrics = startMetrics(orderBook);
+        ScheduledExecutorService analytics = startAnalytics(orderBook);
+        orderGenerator = new OrderGenerator(100.0, seed);
+        System.out.println("Seed " + seed);
+        if (streamSize > 0) {
+            System.out.println("Pre-generating " + streamSize + " orders...");
+            stream = orderGenerator.generateStream(orderBook.getInstrument(), streamSize, ordersPerTick);
+        }
+
+        System.out.println("Warming up with " + warmupOrders + " orders...");
+        for (long i = 0; i < warmupOrders; i++) {
+            step(orderBook, i);
+        }
+        latency.reset();
+
+        long tradesBefore = orderBook.getTradeCount();
+        long intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+        long start = System.nanoTime();
+        long deadline = durationNanos > 0 ? start + durationNanos : Long.MAX_VALUE;
+        long sent = 0;
+
+        while (sent < orders) {
+            long intended;
+            if (intervalNanos > 0) {
+                intended = start + sent * intervalNanos;
+                while (System.nanoTime() < intended) {
+                    Thread.onSpinWait();
+                }
+            } else {
+                intended = System.nanoTime();
+            }
+            if (intended >= deadline) {
+                break;
+            }
+
+            step(orderBook, sent);
+            latency.record(System.nanoTime() - intended);
+            sent++;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        if (metrics != null) {
+            metrics.close();
+        }
+        if (analytics != null) {
+            analytics.shutdownNow();
+        }
+        report(orderBook, sent, orderBook.getTradeCount() - tradesBefore, elapsed);
+        if (journal != null) {
+            journal.close();
+            System.out.printf("%nJournal:     %,d records in %s%n", journal.getSequence(), journalPath);
+        }
+    }
+
+    // Metrics are only attached when a reporter is requested, so plain runs measure the bare book.
+    private MetricsPublisher startMetrics(OrderBook orderBook) throws IOException {
+        List<MetricsReporter> reporters = new ArrayList<>();
+        if (metricsIntervalMillis > 0) {
+            reporters.add(new ConsoleReporter());
+        }
+        if (metricsCsv != null) {
+            reporters.add(new CsvReporter(metricsCsv));
+        }
+        if (jmxName != null) {
+            reporters.add(new JmxReporter(jmxName));
+        }
+        if (reporters.isEmpty()) {
+            return null;
+        }
+        orderBook.setMetrics(new EngineMetrics());
+        MetricsPublisher publisher = new MetricsPublisher(orderBook::sampleMetrics,
+                metricsIntervalMillis > 0 ? metricsIntervalMillis : 1000,
+                reporters.toArray(new MetricsReporter[0]));
+        publisher.start();
+        return publisher;
+    }
+
+    // Prints the rolling 1s / 10s / 60s windows from a daemon thread; the book only pays for feeding
+    // the windows on each trade and quote change.
+    private ScheduledExecutorService startAnalytics(OrderBook orderBook) {
+        if (analyticsIntervalMillis <= 0) {
+            return null;
+        }
+        MarketAnalytics marketAnalytics = new MarketAnalytics();
+        orderBook.subscribe(marketAnalytics);
+        WindowStats stats = new WindowStats();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "analytics-printer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            for (int i = 0; i < marketAnalytics.getWindowCount(); i++) {
+                marketAnalytics.sample(i, now, stats);
+                System.out.println(stats);
+            }
+        }, analyticsIntervalMillis, analyticsIntervalMillis, TimeUnit.MILLISECONDS);
+        return scheduler;
+    }
+
+    private void step(OrderBook orderBook, long sequence) {
+        if (stream != null) {
+            orderBook.addOrder(stream.createOrder(orderBook, (int) (sequence % stream.size())));
+        } else {
+            orderBook.addOrder(orderGenerator.generateRandomOrder(orderBook));
+        }
+        orderBook.matchOrders();
+        if ((sequence + 1) % ordersPerTick == 0) {
+            if (stream == null) {
+                orderGenerator.updateFairPrice();
+            }
+            orderBook.updatePrices();
+            orderBook.expireOldOrders();
+        }
+    }
+
+    private void report(OrderBook orderBook, long sent, long trades, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.println();
+        System.out.printf("Orders:      %,d in %.3f s%n", sent, seconds);
+        System.out.printf("Throughput:  %,.0f orders/s (target %s)%n", sent / seconds,
+                rate > 0 ? String.format("%,d", rate) : "max");
+        System.out.printf("Trades:      %,d%n", trades);
+        System.out.printf("Resting:     %,d bids / %,d asks%n",
+                orderBook.getBuyOrdersCount(), orderBook.getSellOrdersCount());
+        System.out.println();
+        System.out.println("Latency per order (ns):");
+        System.out.printf("  min %,d  mean %,.0f  max %,d%n", latency.getMin(), latency.getMean(), latency.getMax());
+        String[] labels = {"p50", "p90", "p99", "p99.9", "p99.99"};
+        double[] percentiles = {50, 90, 99, 99.9, 99.99};
+        for (int i = 0; i < percentiles.length; i++) {
+            System.out.printf("  %-7s %,d%n", labels[i], latency.getValueAtPercentile(percentiles[i]));
+        }
+    }
+}
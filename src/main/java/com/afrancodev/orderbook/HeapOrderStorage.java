@@ -0,0 +1,214 @@
+package com.afrancodev.orderbook;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import com.afrancodev.orderbook.models.ExpiryWheel;
+import com.afrancodev.orderbook.models.Order;
+import com.afrancodev.orderbook.models.OrderPool;
+import com.afrancodev.orderbook.models.OrderSlots;
+import com.afrancodev.orderbook.models.TimeInForce;
+
+// The default storage: the caller's Order objects linked into PriceLevel ladders, the expiry wheel
+// and the id index, with handles issued by OrderSlots. Orders come from and return to the pool
+// when one is given.
+class HeapOrderStorage implements OrderStorage {
+
+    private final OrderPool orderPool;
+    private final OrderSlots slots = new OrderSlots();
+    private final OrderIndex orderIndex = new OrderIndex(1024);
+    private final ExpiryWheel expiryWheel = new ExpiryWheel();
+    private final BookSide bids = new BookSide(true, false, slots);
+    private final BookSide asks = new BookSide(false, false, slots);
+    private final BookSide buyStops = new BookSide(false, true, slots);
+    private final BookSide sellStops = new BookSide(true, true, slots);
+    private long[] arrivals = new long[1024];
+
+    private IntConsumer onExpire;
+    private final Consumer<Order> expireHandler = order -> onExpire.accept(slots.handleOf(order));
+
+    HeapOrderStorage(OrderPool orderPool) {
+        this.orderPool = orderPool;
+    }
+
+    @Override
+    public int add(Order order) {
+        return slots.register(order);
+    }
+
+    @Override
+    public int add(boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age) {
+        return slots.register(orderPool == null ? new Order(isBuy, priceTicks, quantity, isMarketOrder, age)
+                : orderPool.acquire(isBuy, priceTicks, quantity, isMarketOrder, age));
+    }
+
+    @Override
+    public Order toOrder(int handle) {
+        return slots.get(handle);
+    }
+
+    @Override
+    public void release(int handle) {
+        Order order = slots.get(handle);
+        slots.release(handle);
+        if (orderPool != null) {
+            orderPool.release(order);
+        }
+    }
+
+    @Override
+    public long id(int handle) {
+        return slots.get(handle).getId();
+    }
+
+    @Override
+    public void assignId(int handle, long id) {
+        slots.get(handle).assignId(id);
+    }
+
+    @Override
+    public boolean isBuy(int handle) {
+        return slots.get(handle).isBuy();
+    }
+
+    @Override
+    public boolean isMarketOrder(int handle) {
+        return slots.get(handle).isMarketOrder();
+    }
+
+    @Override
+    public long priceTicks(int handle) {
+        return slots.get(handle).getPriceTicks();
+    }
+
+    @Override
+    public int quantity(int handle) {
+        return slots.get(handle).getQuantity();
+    }
+
+    @Override
+    public int hiddenQuantity(int handle) {
+        return slots.get(handle).getHiddenQuantity();
+    }
+
+    @Override
+    public int displayQuantity(int handle) {
+        return slots.get(handle).getDisplayQuantity();
+    }
+
+    @Override
+    public int age(int handle) {
+        return slots.get(handle).getAge();
+    }
+
+    @Override
+    public TimeInForce timeInForce(int handle) {
+        return slots.get(handle).getTimeInForce();
+    }
+
+    @Override
+    public boolean isPostOnly(int handle) {
+        return slots.get(handle).isPostOnly();
+    }
+
+    @Override
+    public boolean isStop(int handle) {
+        return slots.get(handle).isStop();
+    }
+
+    @Override
+    public long stopTicks(int handle) {
+        return slots.get(handle).getStopTicks();
+    }
+
+    @Override
+    public long arrival(int handle) {
+        return arrivals[handle];
+    }
+
+    @Override
+    public void arrival(int handle, long sequence) {
+        if (handle >= arrivals.length) {
+            arrivals = Arrays.copyOf(arrivals, Math.max(arrivals.length * 2, handle + 1));
+        }
+        arrivals[handle] = sequence;
+    }
+
+    @Override
+    public void reduceQuantity(int handle, int amount) {
+        slots.get(handle).reduceQuantity(amount);
+    }
+
+    @Override
+    public int refill(int handle) {
+        return slots.get(handle).refill();
+    }
+
+    @Override
+    public void triggerStop(int handle) {
+        slots.get(handle).triggerStop();
+    }
+
+    @Override
+    public void amend(int handle, long priceTicks, int quantity) {
+        slots.get(handle).amend(priceTicks, quantity);
+    }
+
+    @Override
+    public int find(long orderId) {
+        Order order = orderIndex.get(orderId);
+        return order == null ? NONE : slots.handleOf(order);
+    }
+
+    @Override
+    public void index(long orderId, int handle) {
+        orderIndex.put(orderId, slots.get(handle));
+    }
+
+    @Override
+    public void unindex(long orderId) {
+        orderIndex.remove(orderId);
+    }
+
+    @Override
+    public long getNow() {
+        return expiryWheel.getNow();
+    }
+
+    @Override
+    public void schedule(int handle, long expiryTick) {
+        expiryWheel.schedule(slots.get(handle), expiryTick);
+    }
+
+    @Override
+    public void cancelExpiry(int handle) {
+        expiryWheel.cancel(slots.get(handle));
+    }
+
+    @Override
+    public void advance(IntConsumer onExpire) {
+        this.onExpire = onExpire;
+        expiryWheel.advance(expireHandler);
+    }
+
+    @Override
+    public Ladder bids() {
+        return bids;
+    }
+
+    @Override
+    public Ladder asks() {
+        return asks;
+    }
+
+    @Override
+    public Ladder buyStops() {
+        return buyStops;
+    }
+
+    @Override
+    public Ladder sellStops() {
+        return sellStops;
+    }
+}
@@ -0,0 +1,365 @@
+package com.afrancodev.orderbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+import com.afrancodev.orderbook.models.Order;
+import com.afrancodev.orderbook.models.TimeInForce;
+
+public class Journal implements Closeable {
+
+    static final byte ADD = 1;
+    static final byte CANCEL = 2;
+    static final byte MODIFY = 3;
+    static final byte MATCH = 4;
+    static final byte EXPIRE = 5;
+    static final byte SAMPLE = 6;
+    static final byte TRADE = 7;
+    // precedes an ADD whose order is not a plain GTC limit/market order
+    static final byte ATTRIBUTES = 8;
+
+    private static final int MAGIC = 0x4F424A31; // "OBJ1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 40;
+
+    // sequence(8) type(1) flags(1) pad(2) quantity(4) orderId(8) priceTicks(8) extra(8)
+    private static final int TYPE_OFFSET = 8;
+    private static final int FLAGS_OFFSET = 9;
+    private static final int QUANTITY_OFFSET = 12;
+    private static final int ORDER_ID_OFFSET = 16;
+    private static final int PRICE_OFFSET = 24;
+    private static final int EXTRA_OFFSET = 32;
+
+    private static final int FLAG_BUY = 1;
+    private static final int FLAG_MARKET = 2;
+
+    private static final int ATTR_IOC = 1;
+    private static final int ATTR_FOK = 2;
+    private static final int ATTR_POST_ONLY = 4;
+    private static final int ATTR_STOP = 8;
+
+    private static final int DEFAULT_SEGMENT_RECORDS = 1 << 20;
+    private static final int DEFAULT_FLUSH_EVERY = 1 << 14;
+
+    private final FileChannel channel;
+    private final long segmentSize;
+    private final int flushEvery;
+
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private long position;
+    private long sequence = 0;
+    private int unflushed = 0;
+
+    private final Thread flusher;
+    private volatile MappedByteBuffer pendingFlush;
+    // Every segment rolled past waits here until forced; rolls can outpace the flusher.
+    private final Queue<MappedByteBuffer> retiredSegments = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed = false;
+
+    public Journal(Path path) throws IOException {
+        this(path, DEFAULT_SEGMENT_RECORDS, DEFAULT_FLUSH_EVERY);
+    }
+
+    // The file is mapped in segments of segmentRecords records. Every flushEvery records the writer
+    // hands the segment to a background thread for force(), so msync never runs on the matching path.
+    // Reopening an existing journal resumes after its last record.
+    public Journal(Path path, int segmentRecords, int flushEvery) throws IOException {
+        if (segmentRecords <= 0 || flushEvery <= 0) {
+            throw new IllegalArgumentException("Segment size and flush interval must be positive");
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.segmentSize = (long) segmentRecords * RECORD_SIZE;
+        this.flushEvery = flushEvery;
+
+        if (channel.size() == 0) {
+            map(0);
+            segment.putInt(0, MAGIC);
+            segment.putInt(4, VERSION);
+            segment.putInt(8, RECORD_SIZE);
+            position = HEADER_SIZE;
+        } else {
+            checkHeader(channel);
+            position = HEADER_SIZE + resumeFrom(channel) * RECORD_SIZE;
+            map(position);
+        }
+
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    void add(OrderStorage orders, int handle) {
+        TimeInForce timeInForce = orders.timeInForce(handle);
+        if (timeInForce != TimeInForce.GTC || orders.isPostOnly(handle) || orders.isStop(handle)
+                || orders.displayQuantity(handle) > 0) {
+            attributes(orders, handle, timeInForce);
+        }
+        int offset = next();
+        segment.put(offset + FLAGS_OFFSET, (byte) ((orders.isBuy(handle) ? FLAG_BUY : 0)
+                | (orders.isMarketOrder(handle) ? FLAG_MARKET : 0)));
+        segment.putInt(offset + QUANTITY_OFFSET, orders.quantity(handle) + orders.hiddenQuantity(handle));
+        segment.putLong(offset + ORDER_ID_OFFSET, orders.id(handle));
+        segment.putLong(offset + PRICE_OFFSET, orders.priceTicks(handle));
+        segment.putLong(offset + EXTRA_OFFSET, orders.age(handle));
+        commit(offset, ADD);
+    }
+
+    private void attributes(OrderStorage orders, int handle, TimeInForce timeInForce) {
+        int offset = next();
+        int flags = (timeInForce == TimeInForce.IOC ? ATTR_IOC : 0)
+                | (timeInForce == TimeInForce.FOK ? ATTR_FOK : 0)
+                | (orders.isPostOnly(handle) ? ATTR_POST_ONLY : 0)
+                | (orders.isStop(handle) ? ATTR_STOP : 0);
+        segment.put(offset + FLAGS_OFFSET, (byte) flags);
+        segment.putInt(offset + QUANTITY_OFFSET, orders.displayQuantity(handle));
+        segment.putLong(offset + PRICE_OFFSET, orders.stopTicks(handle));
+        commit(offset, ATTRIBUTES);
+    }
+
+    void cancel(long orderId) {
+        int offset = next();
+        segment.putLong(offset + ORDER_ID_OFFSET, orderId);
+        commit(offset, CANCEL);
+    }
+
+    void modify(long orderId, int quantity, long priceTicks) {
+        int offset = next();
+        segment.putInt(offset + QUANTITY_OFFSET, quantity);
+        segment.putLong(offset + ORDER_ID_OFFSET, orderId);
+        segment.putLong(offset + PRICE_OFFSET, priceTicks);
+        commit(offset, MODIFY);
+    }
+
+    void match() {
+        commit(next(), MATCH);
+    }
+
+    void expire() {
+        commit(next(), EXPIRE);
+    }
+
+    void sample() {
+        commit(next(), SAMPLE);
+    }
+
+    void trade(long buyOrderId, long sellOrderId, long priceTicks, int quantity) {
+        int offset = next();
+        segment.putInt(offset + QUANTITY_OFFSET, quantity);
+        segment.putLong(offset + ORDER_ID_OFFSET, buyOrderId);
+        segment.putLong(offset + PRICE_OFFSET, priceTicks);
+        segment.putLong(offset + EXTRA_OFFSET, sellOrderId);
+        commit(offset, TRADE);
+    }
+
+    private int next() {
+        if (position + RECORD_SIZE > segmentStart + segmentSize) {
+            retiredSegments.add(segment);
+            LockSupport.unpark(flusher);
+            map(position);
+        }
+        int offset = (int) (position - segmentStart);
+        segment.putLong(offset, sequence + 1);
+        segment.put(offset + FLAGS_OFFSET, (byte) 0);
+        segment.putInt(offset + QUANTITY_OFFSET, 0);
+        segment.putLong(offset + ORDER_ID_OFFSET, 0);
+        segment.putLong(offset + PRICE_OFFSET, 0);
+        segment.putLong(offset + EXTRA_OFFSET, 0);
+        return offset;
+    }
+
+    // The type byte goes in last so a reader never sees a half-written record as valid.
+    private void commit(int offset, byte type) {
+        segment.put(offset + TYPE_OFFSET, type);
+        position += RECORD_SIZE;
+        sequence++;
+        if (++unflushed >= flushEvery) {
+            pendingFlush = segment;
+            unflushed = 0;
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    // Synchronous force of everything written so far, for callers that need a durability point.
+    public void flush() {
+        forceRetired();
+        segment.force();
+        unflushed = 0;
+    }
+
+    private void flushLoop() {
+        while (!closed) {
+            LockSupport.park(this);
+            forceRetired();
+            MappedByteBuffer pending = pendingFlush;
+            if (pending != null) {
+                pendingFlush = null;
+                pending.force();
+            }
+        }
+    }
+
+    private void forceRetired() {
+        MappedByteBuffer retired;
+        while ((retired = retiredSegments.poll()) != null) {
+            retired.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        forceRetired();
+        flush();
+        channel.close();
+    }
+
+    private void map(long from) {
+        try {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, from, segmentSize);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot map journal segment at " + from, e);
+        }
+        segmentStart = from;
+    }
+
+    private long resumeFrom(FileChannel existing) throws IOException {
+        long[] last = new long[2];
+        scan(existing, Long.MAX_VALUE, (type, buffer, offset) -> {
+            last[0]++;
+            last[1] = buffer.getLong(offset);
+        });
+        sequence = last[1];
+        return last[0];
+    }
+
+    private interface RecordVisitor {
+        void visit(byte type, MappedByteBuffer buffer, int offset);
+    }
+
+    // Walks committed records in windows of DEFAULT_SEGMENT_RECORDS so files past 2 GB stay readable.
+    private static long scan(FileChannel channel, long upToSequence, RecordVisitor visitor) throws IOException {
+        long records = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+        long last = 0;
+        for (long first = 0; first < records; first += DEFAULT_SEGMENT_RECORDS) {
+            long count = Math.min(DEFAULT_SEGMENT_RECORDS, records - first);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE + first * RECORD_SIZE, count * RECORD_SIZE);
+            for (int i = 0; i < count; i++) {
+                int offset = i * RECORD_SIZE;
+                byte type = buffer.get(offset + TYPE_OFFSET);
+                long recordSequence = buffer.getLong(offset);
+                if (type == 0 || recordSequence > upToSequence) {
+                    return last;
+                }
+                visitor.visit(type, buffer, offset);
+                last = recordSequence;
+            }
+        }
+        return last;
+    }
+
+    private static void applyAttributes(Order order, long[] attributes) {
+        int flags = (int) attributes[0];
+        if ((flags & ATTR_IOC) != 0) {
+            order.setTimeInForce(TimeInForce.IOC);
+        } else if ((flags & ATTR_FOK) != 0) {
+            order.setTimeInForce(TimeInForce.FOK);
+        }
+        order.setPostOnly((flags & ATTR_POST_ONLY) != 0);
+        if ((flags & ATTR_STOP) != 0) {
+            order.setStop(attributes[2]);
+        }
+        order.setDisplayQuantity((int) attributes[1]);
+    }
+
+    private static void checkHeader(FileChannel channel) throws IOException {
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != RECORD_SIZE) {
+            throw new IOException("Not an order book journal");
+        }
+    }
+
+    // Rebuilds a book by re-issuing every recorded call with sequence <= upToSequence, in order.
+    // The target book must be empty and must not itself be journaling. Returns the last sequence applied.
+    public static long replay(Path path, OrderBook orderBook, long upToSequence) throws IOException {
+        if (orderBook.getJournal() != null) {
+            throw new IllegalStateException("Cannot replay into a book that is writing a journal");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            checkHeader(channel);
+            // flags, display quantity and stop price of a pending ATTRIBUTES record; it may sit in the
+            // previous scan window, so it is decoded rather than referenced
+            long[] attributes = new long[3];
+            boolean[] pending = new boolean[1];
+            return scan(channel, upToSequence, (type, buffer, offset) -> {
+                if (type == ATTRIBUTES) {
+                    attributes[0] = buffer.get(offset + FLAGS_OFFSET);
+                    attributes[1] = buffer.getInt(offset + QUANTITY_OFFSET);
+                    attributes[2] = buffer.getLong(offset + PRICE_OFFSET);
+                    pending[0] = true;
+                } else {
+                    apply(orderBook, type, buffer, offset, pending[0] ? attributes : null);
+                    pending[0] = false;
+                }
+            });
+        }
+    }
+
+    private static void apply(OrderBook orderBook, byte type, MappedByteBuffer buffer, int offset, long[] attributes) {
+        int quantity = buffer.getInt(offset + QUANTITY_OFFSET);
+        long orderId = buffer.getLong(offset + ORDER_ID_OFFSET);
+        long priceTicks = buffer.getLong(offset + PRICE_OFFSET);
+        switch (type) {
+            case ADD:
+                int flags = buffer.get(offset + FLAGS_OFFSET);
+                Order order = orderBook.createOrder((flags & FLAG_BUY) != 0, priceTicks, quantity,
+                        (flags & FLAG_MARKET) != 0, (int) buffer.getLong(offset + EXTRA_OFFSET));
+                order.assignId(orderId);
+                if (attributes != null) {
+                    applyAttributes(order, attributes);
+                }
+                orderBook.addOrder(order);
+                break;
+            case CANCEL:
+                orderBook.cancelOrder(orderId);
+                break;
+            case MODIFY:
+                orderBook.modifyOrder(orderId, quantity, priceTicks);
+                break;
+            case MATCH:
+                orderBook.matchOrders();
+                break;
+            case EXPIRE:
+                orderBook.expireOldOrders();
+                break;
+            case SAMPLE:
+                orderBook.updatePrices();
+                break;
+            case TRADE:
+                // output of the preceding MATCH, regenerated by the replay itself
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal record type " + type + " at offset " + offset);
+        }
+    }
+}
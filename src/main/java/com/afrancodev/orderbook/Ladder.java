@@ -0,0 +1,47 @@
+package com.afrancodev.orderbook;
+
+// One side of a book as seen by the matching code: FIFO price levels of order handles, walked best
+// first by ladder index. Stop ladders key their orders by stop price instead of limit price.
+interface Ladder {
+
+    // Appends the order at the back of its level; returns true if the level was empty. Throws if the
+    // order's tick does not fit (see fits).
+    boolean add(int handle);
+
+    // Whether an order at tick can be added without stretching the ladder past its maximum span.
+    boolean fits(long tick);
+
+    void remove(int handle);
+
+    // Takes amount off the visible quantity of an order resting here.
+    void reduce(int handle, int amount);
+
+    int firstIndex();
+
+    int nextIndex(int index);
+
+    long tickAt(int index);
+
+    long quantityAt(int index);
+
+    // Iceberg reserve at the level, not included in quantityAt().
+    long hiddenAt(int index);
+
+    int orderCountAt(int index);
+
+    int headAt(int index);
+
+    // The order queued behind handle at the same level, or OrderStorage.NONE.
+    int next(int handle);
+
+    // Level lookups by price; both are 0 when nothing rests at tick.
+    long levelQuantity(long tick);
+
+    int levelOrderCount(long tick);
+
+    int getLevelCount();
+
+    int getOrderCount();
+
+    long getTotalQuantity();
+}
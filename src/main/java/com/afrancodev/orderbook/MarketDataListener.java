@@ -0,0 +1,14 @@
+package com.afrancodev.orderbook;
+
+public interface MarketDataListener {
+
+    // Called on the writer thread, under the book lock, once per fill. isBuy is the aggressor's side;
+    // sequence is the trade's sequence in the book's TradeHistory.
+    void onTrade(long sequence, long timestampNanos, boolean isBuy, long priceTicks, int quantity,
+            long makerOrderId, long takerOrderId);
+
+    // Called on the writer thread, under the book lock, whenever the published top of book changes.
+    // sequence is the depth feed sequence; an empty side has price OrderBook.NO_PRICE and quantity 0.
+    void onQuote(long sequence, long timestampNanos, long bidTicks, long bidQuantity, long askTicks,
+            long askQuantity);
+}
@@ -0,0 +1,291 @@
+package com.afrancodev.orderbook;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.afrancodev.orderbook.models.Order;
+
+public class MatchingEngine implements Runnable {
+
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final int BATCH_LIMIT = 1024;
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long SNAPSHOT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final OrderBook[] books;
+    private final boolean[] dirty;
+    private final CommandRingBuffer commands;
+    private final CommandRingBuffer.Handler handler = this::apply;
+    private final AtomicLong nextOrderId = new AtomicLong(1);
+
+    private OrderGenerator[] localFlow;
+    private int localOrdersPerTick;
+    private long localOrders = 0;
+
+    private volatile boolean running = true;
+    private volatile long processedCommands = 0;
+    private volatile long rejectedCommands = 0;
+    private volatile long generatedOrders = 0;
+    private Order[] pendingBatch = new Order[0];
+    private int pendingCount = 0;
+    private long lastSequence = -1;
+    private long lastSnapshotNanos = 0;
+
+    public MatchingEngine(OrderBook orderBook) {
+        this(orderBook, DEFAULT_CAPACITY);
+    }
+
+    public MatchingEngine(OrderBook orderBook, int capacity) {
+        this(new OrderBook[] {orderBook}, capacity);
+    }
+
+    public MatchingEngine(OrderBook[] books, int capacity) {
+        this.books = books.clone();
+        this.dirty = new boolean[books.length];
+        this.commands = new CommandRingBuffer(capacity);
+    }
+
+    public OrderBook getOrderBook() {
+        return books[0];
+    }
+
+    public OrderBook getOrderBook(int book) {
+        return books[book];
+    }
+
+    public int getBookCount() {
+        return books.length;
+    }
+
+    public void setLocalFlow(OrderGenerator[] generators, int ordersPerTick) {
+        if (generators.length != books.length || ordersPerTick <= 0) {
+            throw new IllegalArgumentException("Need one generator per book and a positive orders-per-tick");
+        }
+        this.localFlow = generators.clone();
+        this.localOrdersPerTick = ordersPerTick;
+    }
+
+    public long submitOrder(boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age) {
+        return submitOrder(0, isBuy, priceTicks, quantity, isMarketOrder, age);
+    }
+
+    public long submitOrder(int book, boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age) {
+        long sequence = commands.claim();
+        long orderId = nextOrderId.getAndIncrement();
+        commands.get(sequence).setAdd(book, orderId, isBuy, priceTicks, quantity, isMarketOrder, age);
+        commands.publish(sequence);
+        return orderId;
+    }
+
+    public long trySubmitOrder(boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age) {
+        return trySubmitOrder(0, isBuy, priceTicks, quantity, isMarketOrder, age);
+    }
+
+    public long trySubmitOrder(int book, boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age) {
+        long sequence = commands.tryClaim();
+        if (sequence < 0) {
+            return -1;
+        }
+        long orderId = nextOrderId.getAndIncrement();
+        commands.get(sequence).setAdd(book, orderId, isBuy, priceTicks, quantity, isMarketOrder, age);
+        commands.publish(sequence);
+        return orderId;
+    }
+
+    public long submitBatch(OrderBatch batch) {
+        return submitBatch(0, batch);
+    }
+
+    // Publishes the whole batch as one contiguous run of ring slots; the matcher applies it with
+    // OrderBook.addOrders. Returns the id of the first order, the rest follow consecutively.
+    public long submitBatch(int book, OrderBatch batch) {
+        int count = batch.size();
+        if (count == 0) {
+            return -1;
+        }
+        long first = commands.claim(count);
+        long firstId = nextOrderId.getAndAdd(count);
+        for (int i = 0; i < count; i++) {
+            Command command = commands.get(first + i);
+            command.setAdd(book, firstId + i, batch.isBuy(i), batch.getPriceTicks(i), batch.getQuantity(i),
+                    batch.isMarketOrder(i), batch.getAge(i));
+            command.batched = true;
+            command.endOfBatch = i == count - 1;
+        }
+        for (int i = 0; i < count; i++) {
+            commands.publish(first + i);
+        }
+        return firstId;
+    }
+
+    public void submitCancel(long orderId) {
+        submitCancel(0, orderId);
+    }
+
+    public void submitCancel(int book, long orderId) {
+        long sequence = commands.claim();
+        commands.get(sequence).setCancel(book, orderId);
+        commands.publish(sequence);
+    }
+
+    public void submitModify(long orderId, int newQuantity, long newPriceTicks) {
+        submitModify(0, orderId, newQuantity, newPriceTicks);
+    }
+
+    public void submitModify(int book, long orderId, int newQuantity, long newPriceTicks) {
+        long sequence = commands.claim();
+        commands.get(sequence).setModify(book, orderId, newQuantity, newPriceTicks);
+        commands.publish(sequence);
+    }
+
+    public void submitTick() {
+        submitTick(0);
+    }
+
+    public void submitTick(int book) {
+        long sequence = commands.claim();
+        commands.get(sequence).setTick(book);
+        commands.publish(sequence);
+    }
+
+    public int getQueuedCommands() {
+        return commands.size();
+    }
+
+    public long getProcessedCommands() {
+        return processedCommands;
+    }
+
+    public long getRejectedCommands() {
+        return rejectedCommands;
+    }
+
+    public long getGeneratedOrders() {
+        return generatedOrders;
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        int idle = 0;
+        while (running) {
+            int drained = drain();
+            if (localFlow != null) {
+                driveLocalFlow();
+            } else if (drained > 0) {
+                idle = 0;
+            } else if (idle < SPIN_TRIES) {
+                idle++;
+                Thread.onSpinWait();
+            } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+                idle++;
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+        while (drain() > 0) {
+            // flush whatever producers managed to publish before stop()
+        }
+        publishSnapshots(true);
+    }
+
+    private int drain() {
+        int count = commands.drain(handler, BATCH_LIMIT);
+        if (count > 0) {
+            processedCommands += count;
+            publishSnapshots(false);
+        }
+        return count;
+    }
+
+    private void driveLocalFlow() {
+        localOrders++;
+        boolean tick = localOrders % localOrdersPerTick == 0;
+        for (int book = 0; book < books.length; book++) {
+            OrderBook orderBook = books[book];
+            OrderGenerator generator = localFlow[book];
+            Order order = generator.generateRandomOrder(orderBook);
+            order.assignId(nextOrderId.getAndIncrement());
+            orderBook.addOrder(order);
+            orderBook.matchOrders();
+            if (tick) {
+                generator.updateFairPrice();
+                orderBook.expireOldOrders();
+                orderBook.updatePrices();
+            }
+            dirty[book] = true;
+        }
+        generatedOrders += books.length;
+        publishSnapshots(false);
+    }
+
+    private void publishSnapshots(boolean force) {
+        long now = System.nanoTime();
+        if (!force && now - lastSnapshotNanos < SNAPSHOT_INTERVAL_NANOS) {
+            return;
+        }
+        for (int book = 0; book < books.length; book++) {
+            if (dirty[book] || force) {
+                books[book].publishSnapshot(lastSequence);
+                dirty[book] = false;
+            }
+        }
+        lastSnapshotNanos = now;
+    }
+
+    private void stage(OrderBook orderBook, Order order, boolean endOfBatch) {
+        if (pendingCount == pendingBatch.length) {
+            pendingBatch = Arrays.copyOf(pendingBatch, Math.max(16, pendingCount * 2));
+        }
+        pendingBatch[pendingCount++] = order;
+        if (endOfBatch) {
+            orderBook.addOrders(pendingBatch, 0, pendingCount);
+            Arrays.fill(pendingBatch, 0, pendingCount, null);
+            pendingCount = 0;
+        }
+    }
+
+    private void apply(long sequence, Command command) {
+        OrderBook orderBook = books[command.book];
+        switch (command.type) {
+            case ADD:
+                Order order = orderBook.createOrder(command.isBuy, command.priceTicks, command.quantity,
+                        command.marketOrder, command.age);
+                order.assignId(command.orderId);
+                if (command.batched) {
+                    stage(orderBook, order, command.endOfBatch);
+                } else if (orderBook.addOrder(order) == OrderBook.REJECTED) {
+                    rejectedCommands++;
+                } else {
+                    orderBook.matchOrders();
+                }
+                break;
+            case CANCEL:
+                if (!orderBook.cancelOrder(command.orderId)) {
+                    rejectedCommands++;
+                }
+                break;
+            case MODIFY:
+                if (orderBook.modifyOrder(command.orderId, command.quantity, command.priceTicks)) {
+                    orderBook.matchOrders();
+                } else {
+                    rejectedCommands++;
+                }
+                break;
+            case TICK:
+                orderBook.expireOldOrders();
+                orderBook.updatePrices();
+                break;
+        }
+        dirty[command.book] = true;
+        lastSequence = sequence;
+    }
+}
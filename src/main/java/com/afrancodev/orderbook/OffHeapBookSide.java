@@ -0,0 +1,285 @@
+package com.afrancodev.orderbook;
+
+// BookSide for the off-heap book. The tick ladder keeps FIFO head/tail handles, order counts and
+// quantities in primitive arrays sized by price range; the order links live in the store.
+class OffHeapBookSide implements Ladder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = 1 << 24;
+    // grow() keeps the capacity at twice the span of live ticks at least.
+    private static final int MAX_SPAN = MAX_CAPACITY / 2;
+
+    private final boolean bids;
+    private final boolean stops;
+    private final OffHeapOrderStore store;
+
+    private int[] heads;
+    private int[] tails;
+    private int[] counts;
+    private long[] quantities;
+    private long[] hiddens;
+    private long[] occupied = new long[INITIAL_CAPACITY >>> 6];
+    private long baseTick;
+    private boolean anchored = false;
+
+    private int bestIndex = -1;
+    private int levelCount = 0;
+    private int orderCount = 0;
+    private long totalQuantity = 0;
+
+    OffHeapBookSide(boolean bids, boolean stops, OffHeapOrderStore store) {
+        this.bids = bids;
+        this.stops = stops;
+        this.store = store;
+    }
+
+    private long tickOf(int handle) {
+        return stops ? store.stopPrice(handle) : store.price(handle);
+    }
+
+    @Override
+    public boolean add(int handle) {
+        int index = indexFor(tickOf(handle));
+        int quantity = store.quantity(handle);
+        boolean newLevel = counts[index] == 0;
+        if (newLevel) {
+            occupied[index >>> 6] |= 1L << index;
+            levelCount++;
+            if (bestIndex < 0 || (bids ? index > bestIndex : index < bestIndex)) {
+                bestIndex = index;
+            }
+        }
+        int tail = tails[index];
+        store.prev(handle, tail);
+        store.next(handle, OffHeapOrderStore.NONE);
+        if (tail == OffHeapOrderStore.NONE) {
+            heads[index] = handle;
+        } else {
+            store.next(tail, handle);
+        }
+        tails[index] = handle;
+        counts[index]++;
+        quantities[index] += quantity;
+        hiddens[index] += store.hidden(handle);
+        orderCount++;
+        totalQuantity += quantity;
+        return newLevel;
+    }
+
+    @Override
+    public void remove(int handle) {
+        int index = (int) (tickOf(handle) - baseTick);
+        int prev = store.prev(handle);
+        int next = store.next(handle);
+        if (prev == OffHeapOrderStore.NONE) {
+            heads[index] = next;
+        } else {
+            store.next(prev, next);
+        }
+        if (next == OffHeapOrderStore.NONE) {
+            tails[index] = prev;
+        } else {
+            store.prev(next, prev);
+        }
+        int quantity = store.quantity(handle);
+        quantities[index] -= quantity;
+        hiddens[index] -= store.hidden(handle);
+        totalQuantity -= quantity;
+        orderCount--;
+        if (--counts[index] == 0) {
+            clearLevel(index);
+        }
+    }
+
+    @Override
+    public void reduce(int handle, int amount) {
+        int index = (int) (tickOf(handle) - baseTick);
+        store.quantity(handle, store.quantity(handle) - amount);
+        quantities[index] -= amount;
+        totalQuantity -= amount;
+    }
+
+    @Override
+    public int firstIndex() {
+        return bestIndex;
+    }
+
+    @Override
+    public int nextIndex(int index) {
+        return bids ? prevSetBit(index - 1) : nextSetBit(index + 1);
+    }
+
+    @Override
+    public long tickAt(int index) {
+        return baseTick + index;
+    }
+
+    @Override
+    public long quantityAt(int index) {
+        return quantities[index];
+    }
+
+    @Override
+    public long hiddenAt(int index) {
+        return hiddens[index];
+    }
+
+    @Override
+    public int orderCountAt(int index) {
+        return counts[index];
+    }
+
+    @Override
+    public int headAt(int index) {
+        return heads[index];
+    }
+
+    @Override
+    public int next(int handle) {
+        return store.next(handle);
+    }
+
+    @Override
+    public long levelQuantity(long tick) {
+        return contains(tick) ? quantities[(int) (tick - baseTick)] : 0;
+    }
+
+    @Override
+    public int levelOrderCount(long tick) {
+        return contains(tick) ? counts[(int) (tick - baseTick)] : 0;
+    }
+
+    private boolean contains(long tick) {
+        return anchored && tick >= baseTick && tick - baseTick < heads.length;
+    }
+
+    @Override
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    @Override
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    @Override
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    private void clearLevel(int index) {
+        occupied[index >>> 6] &= ~(1L << index);
+        levelCount--;
+        if (index == bestIndex) {
+            bestIndex = nextIndex(index);
+        }
+    }
+
+    @Override
+    public boolean fits(long tick) {
+        if (!anchored) {
+            return true;
+        }
+        long offset = tick - baseTick;
+        return (offset >= 0 && offset < heads.length) || (offset >= heads.length - MAX_SPAN && offset < MAX_SPAN);
+    }
+
+    private int indexFor(long tick) {
+        if (!anchored) {
+            baseTick = tick - INITIAL_CAPACITY / 2;
+            heads = new int[INITIAL_CAPACITY];
+            tails = new int[INITIAL_CAPACITY];
+            counts = new int[INITIAL_CAPACITY];
+            quantities = new long[INITIAL_CAPACITY];
+            hiddens = new long[INITIAL_CAPACITY];
+            anchored = true;
+        }
+        long offset = tick - baseTick;
+        if (offset < 0 || offset >= heads.length) {
+            grow(tick);
+            offset = tick - baseTick;
+        }
+        return (int) offset;
+    }
+
+    private void grow(long tick) {
+        long low = Math.min(baseTick, tick);
+        long high = Math.max(baseTick + heads.length - 1, tick);
+        long span = high - low + 1;
+
+        int capacity = heads.length;
+        while (capacity < span * 2) {
+            capacity <<= 1;
+            if (capacity > MAX_CAPACITY) {
+                throw new IllegalArgumentException("Price " + tick + " is too far from the book (" + low + ".." + high + ")");
+            }
+        }
+
+        long newBase = low - (capacity - span) / 2;
+        int shift = (int) (baseTick - newBase);
+
+        int[] newHeads = new int[capacity];
+        int[] newTails = new int[capacity];
+        int[] newCounts = new int[capacity];
+        long[] newQuantities = new long[capacity];
+        long[] newHiddens = new long[capacity];
+        long[] newOccupied = new long[capacity >>> 6];
+        System.arraycopy(heads, 0, newHeads, shift, heads.length);
+        System.arraycopy(tails, 0, newTails, shift, tails.length);
+        System.arraycopy(counts, 0, newCounts, shift, counts.length);
+        System.arraycopy(quantities, 0, newQuantities, shift, quantities.length);
+        System.arraycopy(hiddens, 0, newHiddens, shift, hiddens.length);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                int index = i + shift;
+                newOccupied[index >>> 6] |= 1L << index;
+            }
+        }
+
+        heads = newHeads;
+        tails = newTails;
+        counts = newCounts;
+        quantities = newQuantities;
+        hiddens = newHiddens;
+        occupied = newOccupied;
+        baseTick = newBase;
+        if (bestIndex >= 0) {
+            bestIndex += shift;
+        }
+    }
+
+    private int nextSetBit(int from) {
+        if (from >= occupied.length << 6) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long bits = occupied[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == occupied.length) {
+                return -1;
+            }
+            bits = occupied[word];
+        }
+    }
+
+    private int prevSetBit(int from) {
+        if (from < 0) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long bits = occupied[word] & (-1L >>> (63 - (from & 63)));
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+            }
+            if (word-- == 0) {
+                return -1;
+            }
+            bits = occupied[word];
+        }
+    }
+}
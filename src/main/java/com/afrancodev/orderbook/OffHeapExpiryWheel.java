@@ -0,0 +1,95 @@
+package com.afrancodev.orderbook;
+
+import java.util.function.IntConsumer;
+
+// ExpiryWheel over store handles: same four-level, 256-slot hierarchy, with the slot links and
+// expiry ticks kept in the off-heap columns.
+final class OffHeapExpiryWheel {
+
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY = 1L << (SLOT_BITS * LEVELS);
+
+    private final OffHeapOrderStore store;
+    private final int[] slots = new int[SLOTS * LEVELS];
+    private long now = 0;
+
+    OffHeapExpiryWheel(OffHeapOrderStore store) {
+        this.store = store;
+    }
+
+    long getNow() {
+        return now;
+    }
+
+    void schedule(int handle, long expiryTick) {
+        long delay = Math.min(Math.max(expiryTick - now, 1), MAX_DELAY - 1);
+        store.expiry(handle, now + delay);
+        place(handle);
+    }
+
+    void cancel(int handle) {
+        int slot = store.wheelSlot(handle);
+        if (slot < 0) {
+            return;
+        }
+        int prev = store.wheelPrev(handle);
+        int next = store.wheelNext(handle);
+        if (prev == OffHeapOrderStore.NONE) {
+            slots[slot] = next;
+        } else {
+            store.wheelNext(prev, next);
+        }
+        if (next != OffHeapOrderStore.NONE) {
+            store.wheelPrev(next, prev);
+        }
+        store.wheelSlot(handle, -1);
+    }
+
+    void advance(IntConsumer onExpire) {
+        now++;
+
+        int top = 0;
+        while (top < LEVELS - 1 && (now & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        for (int level = top; level >= 1; level--) {
+            int slot = level * SLOTS + (int) ((now >>> (level * SLOT_BITS)) & SLOT_MASK);
+            int handle = slots[slot];
+            slots[slot] = OffHeapOrderStore.NONE;
+            while (handle != OffHeapOrderStore.NONE) {
+                int next = store.wheelNext(handle);
+                place(handle);
+                handle = next;
+            }
+        }
+
+        int slot = (int) (now & SLOT_MASK);
+        int handle = slots[slot];
+        slots[slot] = OffHeapOrderStore.NONE;
+        while (handle != OffHeapOrderStore.NONE) {
+            int next = store.wheelNext(handle);
+            store.wheelSlot(handle, -1);
+            onExpire.accept(handle);
+            handle = next;
+        }
+    }
+
+    private void place(int handle) {
+        long expiry = store.expiry(handle);
+        long delay = expiry - now;
+        int level = (63 - Long.numberOfLeadingZeros(delay)) / SLOT_BITS;
+        int slot = level * SLOTS + (int) ((expiry >>> (level * SLOT_BITS)) & SLOT_MASK);
+
+        int head = slots[slot];
+        store.wheelSlot(handle, slot);
+        store.wheelPrev(handle, OffHeapOrderStore.NONE);
+        store.wheelNext(handle, head);
+        if (head != OffHeapOrderStore.NONE) {
+            store.wheelPrev(head, handle);
+        }
+        slots[slot] = handle;
+    }
+}
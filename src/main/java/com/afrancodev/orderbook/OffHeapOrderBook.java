@@ -0,0 +1,27 @@
+package com.afrancodev.orderbook;
+
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.TradeHistory;
+
+// OrderBook mode for very deep books: order state (fields, FIFO and expiry-wheel links, the id
+// index) lives in direct buffers sized once for `capacity` resting orders, so the heap holds no
+// per-order objects and GC work does not grow with depth. Matching, order types, expiry, the
+// journal and every feed are OrderBook's own. Orders passed to addOrder are copied, and getOrder
+// returns a detached copy.
+public class OffHeapOrderBook extends OrderBook {
+
+    private final int capacity;
+
+    public OffHeapOrderBook(Instrument instrument, int capacity) {
+        this(instrument, capacity, DEFAULT_HISTORY_CAPACITY);
+    }
+
+    public OffHeapOrderBook(Instrument instrument, int capacity, int historyCapacity) {
+        super(instrument, null, new OffHeapOrderStorage(capacity), historyCapacity, new TradeHistory());
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,75 @@
+package com.afrancodev.orderbook;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+// OrderIndex for the off-heap book: order id -> store handle in direct buffers, sized once for the
+// store's capacity at a load factor of at most one half.
+final class OffHeapOrderIndex {
+
+    private static final long EMPTY = 0;
+
+    private final LongBuffer keys;
+    private final IntBuffer values;
+    private final int mask;
+
+    OffHeapOrderIndex(int maxEntries) {
+        int capacity = Integer.highestOneBit(Math.max(maxEntries, 8) * 2 - 1) << 1;
+        keys = ByteBuffer.allocateDirect(capacity * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+        values = ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+        mask = capacity - 1;
+    }
+
+    int get(long id) {
+        for (int i = slot(id); keys.get(i) != EMPTY; i = (i + 1) & mask) {
+            if (keys.get(i) == id) {
+                return values.get(i);
+            }
+        }
+        return OffHeapOrderStore.NONE;
+    }
+
+    void put(long id, int handle) {
+        if (id == EMPTY) {
+            throw new IllegalArgumentException("Order id must be non-zero");
+        }
+        int i = slot(id);
+        while (keys.get(i) != EMPTY) {
+            if (keys.get(i) == id) {
+                throw new IllegalArgumentException("Duplicate order id " + id);
+            }
+            i = (i + 1) & mask;
+        }
+        keys.put(i, id);
+        values.put(i, handle);
+    }
+
+    void remove(long id) {
+        int i = slot(id);
+        while (keys.get(i) != id) {
+            if (keys.get(i) == EMPTY) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        int gap = i;
+        for (int j = (gap + 1) & mask; keys.get(j) != EMPTY; j = (j + 1) & mask) {
+            int home = slot(keys.get(j));
+            boolean movable = gap <= j ? (home <= gap || home > j) : (home <= gap && home > j);
+            if (movable) {
+                keys.put(gap, keys.get(j));
+                values.put(gap, values.get(j));
+                gap = j;
+            }
+        }
+        keys.put(gap, EMPTY);
+    }
+
+    private int slot(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,242 @@
+package com.afrancodev.orderbook;
+
+import java.util.function.IntConsumer;
+
+import com.afrancodev.orderbook.models.Order;
+import com.afrancodev.orderbook.models.TimeInForce;
+
+// Storage for OffHeapOrderBook: every order field, FIFO link and expiry link in OffHeapOrderStore
+// columns, so the heap holds no per-order objects. Up to capacity orders may rest, stops included;
+// one extra handle is kept for a market, IOC or FOK taker, which never rests.
+final class OffHeapOrderStorage implements OrderStorage {
+
+    private final int capacity;
+    private final OffHeapOrderStore store;
+    private final OffHeapOrderIndex orderIndex;
+    private final OffHeapExpiryWheel expiryWheel;
+    private final OffHeapBookSide bids;
+    private final OffHeapBookSide asks;
+    private final OffHeapBookSide buyStops;
+    private final OffHeapBookSide sellStops;
+
+    OffHeapOrderStorage(int capacity) {
+        this.capacity = capacity;
+        this.store = new OffHeapOrderStore(capacity + 1);
+        this.orderIndex = new OffHeapOrderIndex(capacity + 1);
+        this.expiryWheel = new OffHeapExpiryWheel(store);
+        this.bids = new OffHeapBookSide(true, false, store);
+        this.asks = new OffHeapBookSide(false, false, store);
+        this.buyStops = new OffHeapBookSide(false, true, store);
+        this.sellStops = new OffHeapBookSide(true, true, store);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int add(Order order) {
+        int handle = allocate(order.isBuy(), order.getPriceTicks(), order.getQuantity(), order.isMarketOrder(),
+                order.getAge(), order.getTimeInForce(), order.isStop());
+        store.id(handle, order.getId());
+        store.hidden(handle, order.getHiddenQuantity());
+        store.display(handle, order.getDisplayQuantity());
+        store.timeInForce(handle, order.getTimeInForce());
+        store.postOnly(handle, order.isPostOnly());
+        store.stop(handle, order.isStop());
+        store.stopPrice(handle, order.getStopTicks());
+        return handle;
+    }
+
+    @Override
+    public int add(boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age) {
+        return allocate(isBuy, priceTicks, quantity, isMarketOrder, age, TimeInForce.GTC, false);
+    }
+
+    private int allocate(boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age,
+            TimeInForce timeInForce, boolean stop) {
+        boolean mayRest = stop || (!isMarketOrder && timeInForce == TimeInForce.GTC);
+        if (mayRest && store.size() >= capacity) {
+            throw new IllegalStateException("Off-heap order store is full (" + capacity + " orders)");
+        }
+        return store.allocate(0, isBuy, priceTicks, quantity, isMarketOrder, age);
+    }
+
+    // An iceberg's copy shows its remaining total split into slices again.
+    @Override
+    public Order toOrder(int handle) {
+        Order order = new Order(store.isBuy(handle), store.price(handle),
+                store.quantity(handle) + store.hidden(handle), store.isMarket(handle), store.age(handle));
+        order.assignId(store.id(handle));
+        order.setTimeInForce(store.timeInForce(handle));
+        order.setPostOnly(store.isPostOnly(handle));
+        if (store.isStop(handle)) {
+            order.setStop(store.stopPrice(handle));
+        }
+        order.setDisplayQuantity(store.display(handle));
+        return order;
+    }
+
+    @Override
+    public void release(int handle) {
+        store.free(handle);
+    }
+
+    @Override
+    public long id(int handle) {
+        return store.id(handle);
+    }
+
+    @Override
+    public void assignId(int handle, long id) {
+        store.id(handle, id);
+    }
+
+    @Override
+    public boolean isBuy(int handle) {
+        return store.isBuy(handle);
+    }
+
+    @Override
+    public boolean isMarketOrder(int handle) {
+        return store.isMarket(handle);
+    }
+
+    @Override
+    public long priceTicks(int handle) {
+        return store.price(handle);
+    }
+
+    @Override
+    public int quantity(int handle) {
+        return store.quantity(handle);
+    }
+
+    @Override
+    public int hiddenQuantity(int handle) {
+        return store.hidden(handle);
+    }
+
+    @Override
+    public int displayQuantity(int handle) {
+        return store.display(handle);
+    }
+
+    @Override
+    public int age(int handle) {
+        return store.age(handle);
+    }
+
+    @Override
+    public TimeInForce timeInForce(int handle) {
+        return store.timeInForce(handle);
+    }
+
+    @Override
+    public boolean isPostOnly(int handle) {
+        return store.isPostOnly(handle);
+    }
+
+    @Override
+    public boolean isStop(int handle) {
+        return store.isStop(handle);
+    }
+
+    @Override
+    public long stopTicks(int handle) {
+        return store.stopPrice(handle);
+    }
+
+    @Override
+    public long arrival(int handle) {
+        return store.arrival(handle);
+    }
+
+    @Override
+    public void arrival(int handle, long sequence) {
+        store.arrival(handle, sequence);
+    }
+
+    @Override
+    public void reduceQuantity(int handle, int amount) {
+        store.quantity(handle, store.quantity(handle) - amount);
+    }
+
+    // Same slicing as Order.refill and Order.amend.
+    @Override
+    public int refill(int handle) {
+        int slice = Math.min(store.display(handle), store.hidden(handle));
+        store.hidden(handle, store.hidden(handle) - slice);
+        store.quantity(handle, store.quantity(handle) + slice);
+        return slice;
+    }
+
+    @Override
+    public void triggerStop(int handle) {
+        store.stop(handle, false);
+    }
+
+    @Override
+    public void amend(int handle, long priceTicks, int quantity) {
+        int display = store.display(handle);
+        int hidden = display > 0 && quantity > display ? quantity - display : 0;
+        store.price(handle, priceTicks);
+        store.quantity(handle, quantity - hidden);
+        store.hidden(handle, hidden);
+    }
+
+    @Override
+    public int find(long orderId) {
+        return orderIndex.get(orderId);
+    }
+
+    @Override
+    public void index(long orderId, int handle) {
+        orderIndex.put(orderId, handle);
+    }
+
+    @Override
+    public void unindex(long orderId) {
+        orderIndex.remove(orderId);
+    }
+
+    @Override
+    public long getNow() {
+        return expiryWheel.getNow();
+    }
+
+    @Override
+    public void schedule(int handle, long expiryTick) {
+        expiryWheel.schedule(handle, expiryTick);
+    }
+
+    @Override
+    public void cancelExpiry(int handle) {
+        expiryWheel.cancel(handle);
+    }
+
+    @Override
+    public void advance(IntConsumer onExpire) {
+        expiryWheel.advance(onExpire);
+    }
+
+    @Override
+    public Ladder bids() {
+        return bids;
+    }
+
+    @Override
+    public Ladder asks() {
+        return asks;
+    }
+
+    @Override
+    public Ladder buyStops() {
+        return buyStops;
+    }
+
+    @Override
+    public Ladder sellStops() {
+        return sellStops;
+    }
+}
@@ -0,0 +1,267 @@
+package com.afrancodev.orderbook;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+import com.afrancodev.orderbook.models.TimeInForce;
+
+// Order records as struct-of-arrays columns in direct buffers, addressed by int handle. Handle 0 is
+// never allocated and stands for "no order" in the link columns. Free handles are chained through
+// the next column, so the store never allocates after construction.
+final class OffHeapOrderStore {
+
+    static final int NONE = 0;
+
+    private static final byte FLAG_BUY = 1;
+    private static final byte FLAG_MARKET = 2;
+    private static final byte FLAG_IOC = 4;
+    private static final byte FLAG_FOK = 8;
+    private static final byte FLAG_POST_ONLY = 16;
+    private static final byte FLAG_STOP = 32;
+
+    private final int capacity;
+    private final LongBuffer ids;
+    private final LongBuffer prices;
+    private final LongBuffer expiries;
+    private final LongBuffer stopPrices;
+    private final LongBuffer arrivals;
+    private final IntBuffer quantities;
+    private final IntBuffer hiddens;
+    private final IntBuffer displays;
+    private final IntBuffer ages;
+    private final IntBuffer prev;
+    private final IntBuffer next;
+    private final IntBuffer wheelPrev;
+    private final IntBuffer wheelNext;
+    private final IntBuffer wheelSlots;
+    private final ByteBuffer flags;
+
+    private int freeHead;
+    private int size = 0;
+
+    OffHeapOrderStore(int capacity) {
+        if (capacity <= 0 || capacity >= Integer.MAX_VALUE / 8) {
+            throw new IllegalArgumentException("Capacity out of range: " + capacity);
+        }
+        this.capacity = capacity;
+        int slots = capacity + 1;
+        ids = longs(slots);
+        prices = longs(slots);
+        expiries = longs(slots);
+        stopPrices = longs(slots);
+        arrivals = longs(slots);
+        quantities = ints(slots);
+        hiddens = ints(slots);
+        displays = ints(slots);
+        ages = ints(slots);
+        prev = ints(slots);
+        next = ints(slots);
+        wheelPrev = ints(slots);
+        wheelNext = ints(slots);
+        wheelSlots = ints(slots);
+        flags = ByteBuffer.allocateDirect(slots);
+
+        for (int handle = 1; handle < capacity; handle++) {
+            next.put(handle, handle + 1);
+        }
+        next.put(capacity, NONE);
+        freeHead = 1;
+    }
+
+    private static LongBuffer longs(int count) {
+        return ByteBuffer.allocateDirect(count * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    private static IntBuffer ints(int count) {
+        return ByteBuffer.allocateDirect(count * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    int allocate(long id, boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age) {
+        int handle = freeHead;
+        if (handle == NONE) {
+            throw new IllegalStateException("Off-heap order store is full (" + capacity + " orders)");
+        }
+        freeHead = next.get(handle);
+        size++;
+        ids.put(handle, id);
+        prices.put(handle, priceTicks);
+        quantities.put(handle, quantity);
+        ages.put(handle, age);
+        flags.put(handle, (byte) ((isBuy ? FLAG_BUY : 0) | (isMarketOrder ? FLAG_MARKET : 0)));
+        expiries.put(handle, 0);
+        stopPrices.put(handle, 0);
+        arrivals.put(handle, 0);
+        hiddens.put(handle, 0);
+        displays.put(handle, 0);
+        prev.put(handle, NONE);
+        next.put(handle, NONE);
+        wheelPrev.put(handle, NONE);
+        wheelNext.put(handle, NONE);
+        wheelSlots.put(handle, -1);
+        return handle;
+    }
+
+    void free(int handle) {
+        ids.put(handle, 0);
+        next.put(handle, freeHead);
+        freeHead = handle;
+        size--;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long id(int handle) {
+        return ids.get(handle);
+    }
+
+    long price(int handle) {
+        return prices.get(handle);
+    }
+
+    void price(int handle, long priceTicks) {
+        prices.put(handle, priceTicks);
+    }
+
+    int quantity(int handle) {
+        return quantities.get(handle);
+    }
+
+    void quantity(int handle, int quantity) {
+        quantities.put(handle, quantity);
+    }
+
+    void id(int handle, long id) {
+        ids.put(handle, id);
+    }
+
+    int hidden(int handle) {
+        return hiddens.get(handle);
+    }
+
+    void hidden(int handle, int quantity) {
+        hiddens.put(handle, quantity);
+    }
+
+    int display(int handle) {
+        return displays.get(handle);
+    }
+
+    void display(int handle, int quantity) {
+        displays.put(handle, quantity);
+    }
+
+    int age(int handle) {
+        return ages.get(handle);
+    }
+
+    boolean isBuy(int handle) {
+        return (flags.get(handle) & FLAG_BUY) != 0;
+    }
+
+    boolean isMarket(int handle) {
+        return (flags.get(handle) & FLAG_MARKET) != 0;
+    }
+
+    TimeInForce timeInForce(int handle) {
+        int bits = flags.get(handle);
+        return (bits & FLAG_IOC) != 0 ? TimeInForce.IOC : (bits & FLAG_FOK) != 0 ? TimeInForce.FOK : TimeInForce.GTC;
+    }
+
+    void timeInForce(int handle, TimeInForce timeInForce) {
+        flag(handle, FLAG_IOC, timeInForce == TimeInForce.IOC);
+        flag(handle, FLAG_FOK, timeInForce == TimeInForce.FOK);
+    }
+
+    boolean isPostOnly(int handle) {
+        return (flags.get(handle) & FLAG_POST_ONLY) != 0;
+    }
+
+    void postOnly(int handle, boolean postOnly) {
+        flag(handle, FLAG_POST_ONLY, postOnly);
+    }
+
+    boolean isStop(int handle) {
+        return (flags.get(handle) & FLAG_STOP) != 0;
+    }
+
+    void stop(int handle, boolean stop) {
+        flag(handle, FLAG_STOP, stop);
+    }
+
+    long stopPrice(int handle) {
+        return stopPrices.get(handle);
+    }
+
+    void stopPrice(int handle, long stopTicks) {
+        stopPrices.put(handle, stopTicks);
+    }
+
+    long arrival(int handle) {
+        return arrivals.get(handle);
+    }
+
+    void arrival(int handle, long sequence) {
+        arrivals.put(handle, sequence);
+    }
+
+    private void flag(int handle, byte flag, boolean on) {
+        int bits = flags.get(handle);
+        flags.put(handle, (byte) (on ? bits | flag : bits & ~flag));
+    }
+
+    long expiry(int handle) {
+        return expiries.get(handle);
+    }
+
+    void expiry(int handle, long tick) {
+        expiries.put(handle, tick);
+    }
+
+    int prev(int handle) {
+        return prev.get(handle);
+    }
+
+    void prev(int handle, int value) {
+        prev.put(handle, value);
+    }
+
+    int next(int handle) {
+        return next.get(handle);
+    }
+
+    void next(int handle, int value) {
+        next.put(handle, value);
+    }
+
+    int wheelPrev(int handle) {
+        return wheelPrev.get(handle);
+    }
+
+    void wheelPrev(int handle, int value) {
+        wheelPrev.put(handle, value);
+    }
+
+    int wheelNext(int handle) {
+        return wheelNext.get(handle);
+    }
+
+    void wheelNext(int handle, int value) {
+        wheelNext.put(handle, value);
+    }
+
+    int wheelSlot(int handle) {
+        return wheelSlots.get(handle);
+    }
+
+    void wheelSlot(int handle, int slot) {
+        wheelSlots.put(handle, slot);
+    }
+}
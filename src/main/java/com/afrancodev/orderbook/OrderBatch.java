@@ -0,0 +1,64 @@
+package com.afrancodev.orderbook;
+
+// Reusable buffer of order parameters for MatchingEngine.submitBatch.
+public class OrderBatch {
+
+    private final boolean[] isBuy;
+    private final long[] priceTicks;
+    private final int[] quantities;
+    private final boolean[] marketOrders;
+    private final int[] ages;
+    private int size = 0;
+
+    public OrderBatch(int capacity) {
+        this.isBuy = new boolean[capacity];
+        this.priceTicks = new long[capacity];
+        this.quantities = new int[capacity];
+        this.marketOrders = new boolean[capacity];
+        this.ages = new int[capacity];
+    }
+
+    public void add(boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age) {
+        if (size == this.isBuy.length) {
+            throw new IllegalStateException("Batch is full (" + size + " orders)");
+        }
+        this.isBuy[size] = isBuy;
+        this.priceTicks[size] = priceTicks;
+        this.quantities[size] = quantity;
+        this.marketOrders[size] = isMarketOrder;
+        this.ages[size] = age;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return isBuy.length;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    boolean isBuy(int index) {
+        return isBuy[index];
+    }
+
+    long getPriceTicks(int index) {
+        return priceTicks[index];
+    }
+
+    int getQuantity(int index) {
+        return quantities[index];
+    }
+
+    boolean isMarketOrder(int index) {
+        return marketOrders[index];
+    }
+
+    int getAge(int index) {
+        return ages[index];
+    }
+}
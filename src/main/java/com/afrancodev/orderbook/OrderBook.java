@@ -1,223 +1,1054 @@
 package com.afrancodev.orderbook;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.TreeMap;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
 
+import com.afrancodev.orderbook.metrics.EngineMetrics;
+import com.afrancodev.orderbook.metrics.EngineMetrics.Counter;
+import com.afrancodev.orderbook.metrics.EngineMetrics.Stage;
+import com.afrancodev.orderbook.metrics.MetricsSnapshot;
+import com.afrancodev.orderbook.models.BookSnapshot;
+import com.afrancodev.orderbook.models.CandleAggregator;
+import com.afrancodev.orderbook.models.CandleData;
+import com.afrancodev.orderbook.models.DepthSnapshot;
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.LevelBuffer;
 import com.afrancodev.orderbook.models.Order;
+import com.afrancodev.orderbook.models.OrderBuffer;
+import com.afrancodev.orderbook.models.OrderPool;
+import com.afrancodev.orderbook.models.PriceHistory;
 import com.afrancodev.orderbook.models.PriceLevelData;
+import com.afrancodev.orderbook.models.Quote;
+import com.afrancodev.orderbook.models.TimeInForce;
+import com.afrancodev.orderbook.models.TopLevels;
+import com.afrancodev.orderbook.models.TopOfBook;
 import com.afrancodev.orderbook.models.Trade;
 import com.afrancodev.orderbook.models.TradeHistory;
 
 public class OrderBook {
 
-    private final PriorityQueue<Order> buyOrders = new PriorityQueue<>(
-            Comparator.comparingDouble(Order::getPrice).reversed()
-    );
+    public static final long NO_PRICE = Long.MIN_VALUE;
+    // Returned by addOrder for an order the book refused without touching anything: its id is
+    // already live, or its price is out of the ladder's reach.
+    public static final long REJECTED = -1;
 
-    private final PriorityQueue<Order> sellOrders = new PriorityQueue<>(
-            Comparator.comparingDouble(Order::getPrice)
-    );
+    private final Instrument instrument;
+    // Orders are addressed by storage handle; see OrderStorage.
+    private final OrderStorage orders;
+    private final Ladder buyOrders;
+    private final Ladder sellOrders;
+    private final Ladder buyStops;
+    private final Ladder sellStops;
+    private long lastTradeTicks = NO_PRICE;
+    private boolean matchJournaled;
+    private long arrivals = 0;
+
+    private final OrderPool orderPool;
+    private final IntConsumer expireHandler = this::expire;
+    private long nextOrderId = 1;
+
+    static final int DEFAULT_HISTORY_CAPACITY = 1 << 16;
+    private static final int CHART_POINTS = 250;
+    private static final int SNAPSHOT_DEPTH = 32;
 
     private final Object lock = new Object();
-    private final List<Double> bidHistory = new ArrayList<>();
-    private final List<Double> askHistory = new ArrayList<>();
-    private final List<Double> midHistory = new ArrayList<>();
+    private final PriceHistory bidHistory;
+    private final PriceHistory askHistory;
+    private final PriceHistory midHistory;
+
+    private long tradeCount = 0;
+    // Republished after every change that leaves the book uncrossed; the last published values are
+    // kept on the writer side so unchanged tops cost no stores.
+    private final TopOfBook topOfBook = new TopOfBook();
+    private long topBid = NO_PRICE;
+    private long topBidQuantity;
+    private long topAsk = NO_PRICE;
+    private long topAskQuantity;
+
+    private final TradeHistory tradeHistory;
+
+    private static final int CANDLE_CAPACITY = 1024;
+    private final CandleAggregator candles = new CandleAggregator(CandleAggregator.DEFAULT_RESOLUTIONS, CANDLE_CAPACITY);
+    private LongSupplier clock = System::currentTimeMillis;
+    // Trade and quote timestamps, read at most once per book operation so every fill of one sweep
+    // shares it.
+    private LongSupplier nanoClock = System::nanoTime;
+    private long eventNanos;
 
-    private static final int MAX_POINTS = 250;
-    private long totalSamples = 0;
-    private Double bestBid = null;
-    private Double bestAsk = null;
-    private Double midPrice = null;
+    private volatile BookSnapshot snapshot;
+    // Refilled with each snapshot so per-frame readers copy levels without the lock.
+    private final TopLevels topLevels = new TopLevels(SNAPSHOT_DEPTH);
+    private Journal journal;
+    private EngineMetrics metrics;
+
+    private static final DepthListener[] NO_LISTENERS = new DepthListener[0];
+    private DepthListener[] depthListeners = NO_LISTENERS;
+    private static final MarketDataListener[] NO_MARKET_DATA_LISTENERS = new MarketDataListener[0];
+    private MarketDataListener[] marketDataListeners = NO_MARKET_DATA_LISTENERS;
+    private long depthSequence = 0;
+
+    public OrderBook() {
+        this(new Instrument("SIM", 0.01));
+    }
+
+    public OrderBook(Instrument instrument) {
+        this(instrument, null);
+    }
 
-    private final TradeHistory tradeHistory = new TradeHistory();
+    public OrderBook(Instrument instrument, OrderPool orderPool) {
+        this(instrument, orderPool, DEFAULT_HISTORY_CAPACITY);
+    }
+
+    public OrderBook(Instrument instrument, OrderPool orderPool, int historyCapacity) {
+        this(instrument, orderPool, historyCapacity, new TradeHistory());
+    }
+
+    public OrderBook(Instrument instrument, OrderPool orderPool, int historyCapacity, TradeHistory tradeHistory) {
+        this(instrument, orderPool, new HeapOrderStorage(orderPool), historyCapacity, tradeHistory);
+    }
+
+    OrderBook(Instrument instrument, OrderPool orderPool, OrderStorage orders, int historyCapacity, TradeHistory tradeHistory) {
+        this.instrument = instrument;
+        this.orderPool = orderPool;
+        this.orders = orders;
+        this.buyOrders = orders.bids();
+        this.sellOrders = orders.asks();
+        this.buyStops = orders.buyStops();
+        this.sellStops = orders.sellStops();
+        this.tradeHistory = tradeHistory;
+        this.bidHistory = new PriceHistory(historyCapacity);
+        this.askHistory = new PriceHistory(historyCapacity);
+        this.midHistory = new PriceHistory(historyCapacity);
+        publishSnapshot(-1);
+    }
+
+    public Instrument getInstrument() {
+        return instrument;
+    }
 
-    public void addOrder(Order order) {
+    public void setJournal(Journal journal) {
         synchronized (lock) {
-            if (order.isBuy()) {
-                buyOrders.offer(order);
-            } else {
-                sellOrders.offer(order);
+            this.journal = journal;
+        }
+    }
+
+    public Journal getJournal() {
+        synchronized (lock) {
+            return journal;
+        }
+    }
+
+    public void setMetrics(EngineMetrics metrics) {
+        synchronized (lock) {
+            this.metrics = metrics;
+        }
+    }
+
+    public EngineMetrics getMetrics() {
+        synchronized (lock) {
+            return metrics;
+        }
+    }
+
+    // Closes the current metrics interval into the snapshot; the lock is held only for the swap.
+    // Returns false when no metrics are attached. Intended for a single reader such as MetricsPublisher.
+    public boolean sampleMetrics(MetricsSnapshot into) {
+        EngineMetrics current;
+        synchronized (lock) {
+            current = metrics;
+            if (current == null) {
+                return false;
             }
+            current.rotate();
         }
+        current.drainTo(into);
+        return true;
     }
 
-    public void matchOrders() {
+    // With metrics off the timers cost one field read and never call nanoTime. stopTimer returns the
+    // end time so the next stage can start from it without another clock read.
+    private long startTimer() {
+        return metrics != null ? System.nanoTime() : 0;
+    }
+
+    private long stopTimer(Stage stage, long start) {
+        if (start == 0 || metrics == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        metrics.record(stage, now - start);
+        return now;
+    }
+
+    private void count(Counter counter) {
+        if (metrics != null) {
+            metrics.increment(counter);
+        }
+    }
+
+    public void setClock(LongSupplier clock) {
         synchronized (lock) {
-            while (!buyOrders.isEmpty() && !sellOrders.isEmpty()) {
-                Order buy = buyOrders.peek();
-                Order sell = sellOrders.peek();
+            this.clock = clock;
+        }
+    }
 
-                if (buy.isMarketOrder() && sell.isMarketOrder()) {
-                    break;
+    // Source of trade timestamps in nanoseconds; System.nanoTime unless replaying captured times.
+    public void setNanoClock(LongSupplier nanoClock) {
+        synchronized (lock) {
+            this.nanoClock = nanoClock;
+        }
+    }
+
+    public void subscribe(DepthListener listener) {
+        synchronized (lock) {
+            DepthListener[] listeners = Arrays.copyOf(depthListeners, depthListeners.length + 1);
+            listeners[depthListeners.length] = listener;
+            depthListeners = listeners;
+        }
+    }
+
+    public void unsubscribe(DepthListener listener) {
+        synchronized (lock) {
+            for (int i = 0; i < depthListeners.length; i++) {
+                if (depthListeners[i] == listener) {
+                    DepthListener[] listeners = new DepthListener[depthListeners.length - 1];
+                    System.arraycopy(depthListeners, 0, listeners, 0, i);
+                    System.arraycopy(depthListeners, i + 1, listeners, i, listeners.length - i);
+                    depthListeners = listeners;
+                    return;
                 }
+            }
+        }
+    }
 
-                boolean canMatch = buy.isMarketOrder() || sell.isMarketOrder() || buy.getPrice() >= sell.getPrice();
-                if (!canMatch) {
-                    break;
+    public void subscribe(MarketDataListener listener) {
+        synchronized (lock) {
+            MarketDataListener[] listeners = Arrays.copyOf(marketDataListeners, marketDataListeners.length + 1);
+            listeners[marketDataListeners.length] = listener;
+            marketDataListeners = listeners;
+        }
+    }
+
+    public void unsubscribe(MarketDataListener listener) {
+        synchronized (lock) {
+            for (int i = 0; i < marketDataListeners.length; i++) {
+                if (marketDataListeners[i] == listener) {
+                    MarketDataListener[] listeners = new MarketDataListener[marketDataListeners.length - 1];
+                    System.arraycopy(marketDataListeners, 0, listeners, 0, i);
+                    System.arraycopy(marketDataListeners, i + 1, listeners, i, listeners.length - i);
+                    marketDataListeners = listeners;
+                    return;
                 }
+            }
+        }
+    }
+
+    public long getDepthSequence() {
+        synchronized (lock) {
+            return depthSequence;
+        }
+    }
+
+    public DepthSnapshot getDepthSnapshot() {
+        synchronized (lock) {
+            return new DepthSnapshot(depthSequence,
+                    aggregateLevels(buyOrders, Integer.MAX_VALUE),
+                    aggregateLevels(sellOrders, Integer.MAX_VALUE));
+        }
+    }
 
-                int tradedQty = Math.min(buy.getQuantity(), sell.getQuantity());
-                double tradePrice = determineTradePrice(buy, sell);
+    private void levelChanged(boolean isBuy, long tick, boolean added) {
+        long sequence = ++depthSequence;
+        DepthListener[] listeners = depthListeners;
+        if (listeners.length == 0) {
+            return;
+        }
+        Ladder side = isBuy ? buyOrders : sellOrders;
+        DepthListener.Action action = side.levelOrderCount(tick) == 0 ? DepthListener.Action.DELETE
+                : added ? DepthListener.Action.ADD : DepthListener.Action.CHANGE;
+        for (DepthListener listener : listeners) {
+            listener.onLevelUpdate(sequence, action, isBuy, tick, side.levelQuantity(tick));
+        }
+    }
 
-                tradeHistory.recordTrade(new Trade(true, tradePrice, tradedQty));
+    public Order createOrder(boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age) {
+        if (orderPool == null) {
+            return new Order(isBuy, priceTicks, quantity, isMarketOrder, age);
+        }
+        synchronized (lock) {
+            return orderPool.acquire(isBuy, priceTicks, quantity, isMarketOrder, age);
+        }
+    }
 
-                buy.reduceQuantity(tradedQty);
-                sell.reduceQuantity(tradedQty);
+    public long addOrder(Order order) {
+        long requested = startTimer();
+        synchronized (lock) {
+            long orderId = insertNew(orders.add(order), stopTimer(Stage.LOCK_WAIT, requested));
+            publishTop();
+            return orderId;
+        }
+    }
 
-                if (buy.getQuantity() == 0) {
-                    buyOrders.poll();
-                }
-                if (sell.getQuantity() == 0) {
-                    sellOrders.poll();
-                }
+    // Same as addOrder(createOrder(...)), without handing an Order to the caller.
+    public long addOrder(boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age) {
+        long requested = startTimer();
+        synchronized (lock) {
+            long orderId = insertNew(orders.add(isBuy, priceTicks, quantity, isMarketOrder, age),
+                    stopTimer(Stage.LOCK_WAIT, requested));
+            publishTop();
+            return orderId;
+        }
+    }
+
+    private long insertNew(int order, long start) {
+        eventNanos = 0;
+        long orderId = orders.id(order);
+        // Refused before anything is journaled, indexed or scheduled: a caller-supplied id that is
+        // still live, or a price the ladders cannot hold.
+        if ((orderId != 0 && orders.find(orderId) != OrderStorage.NONE) || !fits(order)) {
+            orders.release(order);
+            return REJECTED;
+        }
+        if (orderId == 0) {
+            orderId = nextOrderId++;
+            orders.assignId(order, orderId);
+        } else {
+            nextOrderId = Math.max(nextOrderId, orderId + 1);
+        }
+        if (journal != null) {
+            journal.add(orders, order);
+        }
+        orders.index(orderId, order);
+        orders.schedule(order, orders.getNow() + orders.age(order));
+        place(order);
+        stopTimer(Stage.INGEST, start);
+        count(Counter.ORDERS);
+        return orderId;
+    }
+
+    // Adds and matches the orders in sequence under a single lock, then publishes the top of book and
+    // takes one price sample for the whole batch.
+    public void addOrders(Order[] orders, int from, int count) {
+        long requested = startTimer();
+        synchronized (lock) {
+            stopTimer(Stage.LOCK_WAIT, requested);
+            for (int i = from; i < from + count; i++) {
+                insertNew(this.orders.add(orders[i]), startTimer());
+                match(startTimer());
             }
+            publishTop();
+            samplePrices(startTimer());
         }
     }
 
-    private double determineTradePrice(Order buy, Order sell) {
-        if (buy.isMarketOrder() && !sell.isMarketOrder()) {
-            return sell.getPrice();
+    // Whether every ladder the order may rest in can take its price: its side for a GTC limit order,
+    // its stop ladder for a pending stop.
+    private boolean fits(int order) {
+        if (!orders.isMarketOrder(order) && orders.timeInForce(order) == TimeInForce.GTC
+                && !sideOf(order).fits(orders.priceTicks(order))) {
+            return false;
         }
-        if (!buy.isMarketOrder() && sell.isMarketOrder()) {
-            return buy.getPrice();
+        return !orders.isStop(order) || stopsFor(order).fits(orders.stopTicks(order));
+    }
+
+    // Whether a limit order at priceTicks could rest on that side now. addOrder refuses one that
+    // could not, returning REJECTED; the ladders span at most 2^23 ticks.
+    public boolean canRest(boolean isBuy, long priceTicks) {
+        synchronized (lock) {
+            return (isBuy ? buyOrders : sellOrders).fits(priceTicks);
         }
-        return sell.getPrice();
     }
 
-    public void expireOldOrders() {
+    // Stops wait in the trigger index until a trade reaches their price; everything else is active.
+    private void place(int order) {
+        if (orders.isStop(order)) {
+            if (!stopReached(order)) {
+                stopsFor(order).add(order);
+                return;
+            }
+            orders.triggerStop(order);
+        }
+        activate(order);
+    }
+
+    // Market, IOC and FOK orders execute against the opposite side now and never rest; a post-only
+    // order that would cross is rejected, as is a triggered stop whose limit no longer fits the
+    // ladder. Only GTC limit orders enter the book.
+    private void activate(int order) {
+        Ladder opposite = orders.isBuy(order) ? sellOrders : buyOrders;
+        TimeInForce timeInForce = orders.timeInForce(order);
+        if (orders.isMarketOrder(order) || timeInForce != TimeInForce.GTC) {
+            if (timeInForce != TimeInForce.FOK || fillable(order, opposite) >= totalQuantity(order)) {
+                take(order, opposite);
+            }
+            retire(order);
+            return;
+        }
+        int best = opposite.firstIndex();
+        if ((orders.isPostOnly(order) && best >= 0 && crosses(order, opposite.tickAt(best)))
+                || !sideOf(order).fits(orders.priceTicks(order))) {
+            retire(order);
+            return;
+        }
+        insert(order);
+    }
+
+    private boolean crosses(int order, long tick) {
+        return crosses(orders.isBuy(order), orders.priceTicks(order), tick);
+    }
+
+    private static boolean crosses(boolean isBuy, long priceTicks, long tick) {
+        return isBuy ? priceTicks >= tick : priceTicks <= tick;
+    }
+
+    private int totalQuantity(int order) {
+        return orders.quantity(order) + orders.hiddenQuantity(order);
+    }
+
+    // Quantity, hidden reserve included, that the order could take right now. Walks price levels,
+    // not orders, and stops as soon as the order would be filled.
+    private long fillable(int order, Ladder opposite) {
+        long wanted = totalQuantity(order);
+        long available = 0;
+        for (int i = opposite.firstIndex(); i >= 0 && available < wanted; i = opposite.nextIndex(i)) {
+            if (!orders.isMarketOrder(order) && !crosses(order, opposite.tickAt(i))) {
+                break;
+            }
+            available += opposite.quantityAt(i) + opposite.hiddenAt(i);
+        }
+        return available;
+    }
+
+    private void take(int taker, Ladder opposite) {
+        while (true) {
+            if (orders.quantity(taker) == 0 && orders.refill(taker) == 0) {
+                break;
+            }
+            int best = opposite.firstIndex();
+            if (best < 0) {
+                break;
+            }
+            long tick = opposite.tickAt(best);
+            if (!orders.isMarketOrder(taker) && !crosses(taker, tick)) {
+                break;
+            }
+            int maker = opposite.headAt(best);
+            int tradedQty = Math.min(orders.quantity(taker), orders.quantity(maker));
+            orders.reduceQuantity(taker, tradedQty);
+            trade(maker, taker, tick, tradedQty);
+            fill(opposite, maker, tradedQty);
+            levelChanged(!orders.isBuy(taker), tick, false);
+        }
+    }
+
+    // Fills a resting order at the head of its level. A filled iceberg slice is refilled from the
+    // reserve and goes to the back of the queue at the same price; anything else that is done leaves.
+    private void fill(Ladder side, int maker, int quantity) {
+        side.reduce(maker, quantity);
+        if (orders.quantity(maker) > 0) {
+            return;
+        }
+        side.remove(maker);
+        if (orders.hiddenQuantity(maker) > 0) {
+            orders.refill(maker);
+            side.add(maker);
+            return;
+        }
+        retire(maker);
+    }
+
+    private void trade(int maker, int taker, long priceTicks, int quantity) {
+        long now = eventTime();
+        boolean buyTook = orders.isBuy(taker);
+        long makerId = orders.id(maker);
+        long takerId = orders.id(taker);
+        long sequence = tradeHistory.recordTrade(buyTook, priceTicks, quantity, makerId, takerId, now);
+        for (MarketDataListener listener : marketDataListeners) {
+            listener.onTrade(sequence, now, buyTook, priceTicks, quantity, makerId, takerId);
+        }
+        candles.onTrade(clock.getAsLong(), priceTicks, quantity);
+        tradeCount++;
+        lastTradeTicks = priceTicks;
+        if (journal != null) {
+            journal.trade(buyTook ? takerId : makerId, buyTook ? makerId : takerId, priceTicks, quantity);
+        }
+        if (metrics != null) {
+            metrics.increment(Counter.FILLS);
+            metrics.add(Counter.FILLED_QUANTITY, quantity);
+        }
+    }
+
+    private long eventTime() {
+        if (eventNanos == 0) {
+            eventNanos = nanoClock.getAsLong();
+        }
+        return eventNanos;
+    }
+
+    private Ladder stopsFor(int order) {
+        return orders.isBuy(order) ? buyStops : sellStops;
+    }
+
+    private boolean stopReached(int order) {
+        if (lastTradeTicks == NO_PRICE) {
+            return false;
+        }
+        return orders.isBuy(order) ? lastTradeTicks >= orders.stopTicks(order) : lastTradeTicks <= orders.stopTicks(order);
+    }
+
+    // Activates every stop the last trade price has reached. The trigger ladders are ordered so this
+    // only ever looks at the nearest stop on each side.
+    private boolean triggerStops() {
+        if (lastTradeTicks == NO_PRICE) {
+            return false;
+        }
+        boolean triggered = false;
+        int best;
+        while ((best = buyStops.firstIndex()) >= 0 && buyStops.tickAt(best) <= lastTradeTicks) {
+            triggerHead(buyStops, best);
+            triggered = true;
+        }
+        while ((best = sellStops.firstIndex()) >= 0 && sellStops.tickAt(best) >= lastTradeTicks) {
+            triggerHead(sellStops, best);
+            triggered = true;
+        }
+        return triggered;
+    }
+
+    private void triggerHead(Ladder stops, int index) {
+        int order = stops.headAt(index);
+        stops.remove(order);
+        orders.triggerStop(order);
+        journalMatch();
+        activate(order);
+    }
+
+    public int getPendingStopCount() {
         synchronized (lock) {
-            expireQueue(buyOrders);
-            expireQueue(sellOrders);
+            return buyStops.getOrderCount() + sellStops.getOrderCount();
         }
     }
 
-    private void expireQueue(PriorityQueue<Order> queue) {
-        for (Order order : queue) {
-            order.decreaseAge();
+    // The live order on the heap book; a detached copy on an OffHeapOrderBook.
+    public Order getOrder(long orderId) {
+        synchronized (lock) {
+            int order = orders.find(orderId);
+            return order == OrderStorage.NONE ? null : orders.toOrder(order);
         }
+    }
 
-        Iterator<Order> it = queue.iterator();
-        while (it.hasNext()) {
-            if (it.next().isExpired()) {
-                it.remove();
+    public boolean cancelOrder(long orderId) {
+        long requested = startTimer();
+        synchronized (lock) {
+            stopTimer(Stage.LOCK_WAIT, requested);
+            int order = orders.find(orderId);
+            if (order == OrderStorage.NONE) {
+                return false;
             }
+            eventNanos = 0;
+            count(Counter.CANCELS);
+            cancelLocked(order, orderId);
+            publishTop();
+            return true;
         }
     }
 
-    public void updatePrices() {
+    // Shared by cancelOrder and a modify to zero, so each is timed and counted once as itself.
+    private void cancelLocked(int order, long orderId) {
+        if (journal != null) {
+            journal.cancel(orderId);
+        }
+        unlink(order);
+        retire(order);
+    }
+
+    public boolean modifyOrder(long orderId, int newQuantity, long newPriceTicks) {
+        long requested = startTimer();
+        synchronized (lock) {
+            stopTimer(Stage.LOCK_WAIT, requested);
+            int order = orders.find(orderId);
+            if (order == OrderStorage.NONE) {
+                return false;
+            }
+            eventNanos = 0;
+            if (newQuantity <= 0) {
+                count(Counter.MODIFIES);
+                cancelLocked(order, orderId);
+                publishTop();
+                return true;
+            }
+            // A reprice the ladder cannot hold is refused before the order is unlinked.
+            if (!orders.isMarketOrder(order) && !sideOf(order).fits(newPriceTicks)) {
+                return false;
+            }
+            // As on arrival, a resting post-only order may not be repriced into taking liquidity.
+            if (orders.isPostOnly(order) && !orders.isStop(order)) {
+                Ladder opposite = orders.isBuy(order) ? sellOrders : buyOrders;
+                int best = opposite.firstIndex();
+                if (best >= 0 && crosses(orders.isBuy(order), newPriceTicks, opposite.tickAt(best))) {
+                    return false;
+                }
+            }
+            if (journal != null) {
+                journal.modify(orderId, newQuantity, newPriceTicks);
+            }
+            count(Counter.MODIFIES);
+
+            if (orders.isStop(order)) {
+                stopsFor(order).remove(order);
+                orders.amend(order, newPriceTicks, newQuantity);
+                stopsFor(order).add(order);
+                return true;
+            }
+            if (newPriceTicks == orders.priceTicks(order) && newQuantity <= orders.quantity(order)
+                    && orders.displayQuantity(order) == 0) {
+                sideOf(order).reduce(order, orders.quantity(order) - newQuantity);
+                levelChanged(orders.isBuy(order), newPriceTicks, false);
+            } else {
+                unlink(order);
+                orders.amend(order, newPriceTicks, newQuantity);
+                insert(order);
+            }
+            publishTop();
+            return true;
+        }
+    }
+
+    private Ladder sideOf(int order) {
+        return orders.isBuy(order) ? buyOrders : sellOrders;
+    }
+
+    private void insert(int order) {
+        orders.arrival(order, ++arrivals);
+        boolean newLevel = sideOf(order).add(order);
+        levelChanged(orders.isBuy(order), orders.priceTicks(order), newLevel);
+    }
+
+    private void unlink(int order) {
+        if (orders.isStop(order)) {
+            stopsFor(order).remove(order);
+            return;
+        }
+        sideOf(order).remove(order);
+        levelChanged(orders.isBuy(order), orders.priceTicks(order), false);
+    }
+
+    public void matchOrders() {
+        long requested = startTimer();
+        synchronized (lock) {
+            match(stopTimer(Stage.LOCK_WAIT, requested));
+            publishTop();
+        }
+    }
+
+    // Crosses resting limit orders, then runs any stops the resulting trades reached, until neither
+    // produces anything new. Publishing is left to the caller so a batch publishes once.
+    private void match(long start) {
+        matchJournaled = false;
+        eventNanos = 0;
+        do {
+            cross();
+        } while (triggerStops());
+        stopTimer(Stage.MATCH, start);
+    }
+
+    private void cross() {
+        while (true) {
+            int bidIndex = buyOrders.firstIndex();
+            int askIndex = sellOrders.firstIndex();
+            if (bidIndex < 0 || askIndex < 0) {
+                break;
+            }
+            long bidTick = buyOrders.tickAt(bidIndex);
+            long askTick = sellOrders.tickAt(askIndex);
+            if (bidTick < askTick) {
+                break;
+            }
+
+            int buy = buyOrders.headAt(bidIndex);
+            int sell = sellOrders.headAt(askIndex);
+            int tradedQty = Math.min(orders.quantity(buy), orders.quantity(sell));
+
+            journalMatch();
+            // Both orders rested; the later arrival took liquidity at the earlier one's price. Ids are
+            // no guide to arrival: replayed and engine-fed orders bring their own.
+            boolean buyTook = orders.arrival(buy) > orders.arrival(sell);
+            trade(buyTook ? sell : buy, buyTook ? buy : sell, buyTook ? askTick : bidTick, tradedQty);
+
+            fill(buyOrders, buy, tradedQty);
+            fill(sellOrders, sell, tradedQty);
+            levelChanged(true, bidTick, false);
+            levelChanged(false, askTick, false);
+        }
+    }
+
+    // Written once per match() that changes anything, so replay re-runs exactly those calls.
+    private void journalMatch() {
+        if (journal != null && !matchJournaled) {
+            journal.match();
+            matchJournaled = true;
+        }
+    }
+
+    public void expireOldOrders() {
+        long requested = startTimer();
         synchronized (lock) {
-            bestBid = buyOrders.isEmpty() ? null : buyOrders.peek().getPrice();
-            bestAsk = sellOrders.isEmpty() ? null : sellOrders.peek().getPrice();
-            midPrice = (bestBid != null && bestAsk != null) ? (bestBid + bestAsk) / 2 : null;
+            long start = stopTimer(Stage.LOCK_WAIT, requested);
+            eventNanos = 0;
+            if (journal != null) {
+                journal.expire();
+            }
+            orders.advance(expireHandler);
+            publishTop();
+            stopTimer(Stage.EXPIRE, start);
+        }
+    }
 
-            addToHistory(bidHistory, bestBid);
-            addToHistory(askHistory, bestAsk);
-            addToHistory(midHistory, midPrice);
+    public long getCurrentTick() {
+        synchronized (lock) {
+            return orders.getNow();
+        }
+    }
 
-            totalSamples++;
+    private void expire(int order) {
+        count(Counter.EXPIRATIONS);
+        unlink(order);
+        retire(order);
+    }
+
+    private void retire(int order) {
+        orders.unindex(orders.id(order));
+        orders.cancelExpiry(order);
+        orders.release(order);
+    }
+
+    public void updatePrices() {
+        long requested = startTimer();
+        synchronized (lock) {
+            samplePrices(stopTimer(Stage.LOCK_WAIT, requested));
         }
     }
 
-    private void addToHistory(List<Double> history, Double value) {
-        history.add(value);
-        if (history.size() > MAX_POINTS) {
-            history.remove(0);
+    private void samplePrices(long start) {
+        if (journal != null) {
+            journal.sample();
+        }
+        long bidTicks = bestTick(buyOrders);
+        long askTicks = bestTick(sellOrders);
+        double bid = bidTicks == NO_PRICE ? Double.NaN : instrument.toPrice(bidTicks);
+        double ask = askTicks == NO_PRICE ? Double.NaN : instrument.toPrice(askTicks);
+        bidHistory.add(bid);
+        askHistory.add(ask);
+        midHistory.add((bid + ask) / 2);
+        candles.advance(clock.getAsLong());
+        stopTimer(Stage.SAMPLE, start);
+    }
+
+    // A crossed book is only transient (an add not yet matched), so it is never published.
+    private void publishTop() {
+        int bidIndex = buyOrders.firstIndex();
+        int askIndex = sellOrders.firstIndex();
+        long bid = bidIndex < 0 ? NO_PRICE : buyOrders.tickAt(bidIndex);
+        long ask = askIndex < 0 ? NO_PRICE : sellOrders.tickAt(askIndex);
+        if (bid != NO_PRICE && ask != NO_PRICE && bid >= ask) {
+            return;
+        }
+        long bidQuantity = bidIndex < 0 ? 0 : buyOrders.quantityAt(bidIndex);
+        long askQuantity = askIndex < 0 ? 0 : sellOrders.quantityAt(askIndex);
+        if (bid == topBid && ask == topAsk && bidQuantity == topBidQuantity && askQuantity == topAskQuantity) {
+            return;
+        }
+        topBid = bid;
+        topAsk = ask;
+        topBidQuantity = bidQuantity;
+        topAskQuantity = askQuantity;
+        topOfBook.publish(bid, bidQuantity, ask, askQuantity, depthSequence);
+        MarketDataListener[] listeners = marketDataListeners;
+        if (listeners.length > 0) {
+            long now = eventTime();
+            for (MarketDataListener listener : listeners) {
+                listener.onQuote(depthSequence, now, bid, bidQuantity, ask, askQuantity);
+            }
         }
     }
 
     public PriceLevelData getBidLevels() {
-        return aggregateLevels(buyOrders, true);
+        return aggregateLevels(buyOrders, Integer.MAX_VALUE);
     }
 
     public PriceLevelData getAskLevels() {
-        return aggregateLevels(sellOrders, false);
+        return aggregateLevels(sellOrders, Integer.MAX_VALUE);
+    }
+
+    // L2: copies the top depth levels of each side into a caller-owned buffer under the lock. Walks
+    // only the levels it copies and allocates nothing; depth is capped at the buffer's capacity.
+    // Readers polling from another thread every frame should use getTopLevels instead.
+    public void snapshot(int depth, LevelBuffer into) {
+        synchronized (lock) {
+            into.clear(depthSequence);
+            int count = Math.min(depth, into.capacity());
+            copyLevels(buyOrders, true, count, into);
+            copyLevels(sellOrders, false, count, into);
+        }
+    }
+
+    // L3: the first depth resting orders of each side in priority order, same cost and rules.
+    public void snapshot(int depth, OrderBuffer into) {
+        synchronized (lock) {
+            into.clear(depthSequence);
+            int count = Math.min(depth, into.capacity());
+            copyOrders(buyOrders, true, count, into);
+            copyOrders(sellOrders, false, count, into);
+        }
+    }
+
+    private static void copyLevels(Ladder side, boolean isBuy, int count, LevelBuffer into) {
+        int n = 0;
+        for (int i = side.firstIndex(); i >= 0 && n < count; i = side.nextIndex(i)) {
+            into.addLevel(isBuy, side.tickAt(i), side.quantityAt(i), side.orderCountAt(i));
+            n++;
+        }
+    }
+
+    private void copyOrders(Ladder side, boolean isBuy, int count, OrderBuffer into) {
+        int n = 0;
+        for (int i = side.firstIndex(); i >= 0 && n < count; i = side.nextIndex(i)) {
+            long tick = side.tickAt(i);
+            for (int order = side.headAt(i); order != OrderStorage.NONE && n < count; order = side.next(order)) {
+                into.addOrder(isBuy, orders.id(order), tick, orders.quantity(order));
+                n++;
+            }
+        }
     }
 
-    private PriceLevelData aggregateLevels(PriorityQueue<Order> orders, boolean descending) {
-        Map<Double, Integer> map = new TreeMap<>(descending ? Collections.reverseOrder() : Comparator.naturalOrder());
+    public void publishSnapshot(long sequence) {
+        long requested = startTimer();
         synchronized (lock) {
-            for (Order o : orders) {
-                map.merge(o.getPrice(), o.getQuantity(), Integer::sum);
+            long start = stopTimer(Stage.LOCK_WAIT, requested);
+            snapshot = new BookSnapshot(sequence, instrument, bestTick(buyOrders), bestTick(sellOrders),
+                    aggregateLevels(buyOrders, SNAPSHOT_DEPTH),
+                    aggregateLevels(sellOrders, SNAPSHOT_DEPTH),
+                    bidHistory.tail(CHART_POINTS), askHistory.tail(CHART_POINTS), midHistory.tail(CHART_POINTS),
+                    midHistory.getTotalAdded() - Math.min(CHART_POINTS, midHistory.size()) + 1);
+            LevelBuffer levels = topLevels.begin(depthSequence);
+            copyLevels(buyOrders, true, SNAPSHOT_DEPTH, levels);
+            copyLevels(sellOrders, false, SNAPSHOT_DEPTH, levels);
+            topLevels.end();
+            stopTimer(Stage.PUBLISH, start);
+        }
+    }
+
+    public BookSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // The top levels as of the last publishSnapshot, read without the lock; depth is capped at the
+    // buffer's capacity and at the published depth.
+    public void getTopLevels(LevelBuffer into) {
+        topLevels.read(into);
+    }
+
+    private static long bestTick(Ladder side) {
+        int best = side.firstIndex();
+        return best < 0 ? NO_PRICE : side.tickAt(best);
+    }
+
+    private PriceLevelData aggregateLevels(Ladder side, int maxLevels) {
+        synchronized (lock) {
+            int count = Math.min(side.getLevelCount(), maxLevels);
+            long[] prices = new long[count];
+            int[] quantities = new int[count];
+            int n = 0;
+            for (int i = side.firstIndex(); i >= 0 && n < count; i = side.nextIndex(i)) {
+                prices[n] = side.tickAt(i);
+                quantities[n] = (int) side.quantityAt(i);
+                n++;
             }
+            return new PriceLevelData(prices, quantities, instrument);
         }
-        return new PriceLevelData(new ArrayList<>(map.keySet()), new ArrayList<>(map.values()));
+    }
+
+    // Copies best bid/ask, their sizes and the depth sequence as one consistent tuple, without
+    // taking the book lock or allocating. Safe from any thread.
+    public void getTopOfBook(Quote into) {
+        topOfBook.read(into);
+    }
+
+    public long getBestBidTicks() {
+        return topOfBook.getBidTicks();
+    }
+
+    public long getBestAskTicks() {
+        return topOfBook.getAskTicks();
     }
 
     public Double getCurrentBid() {
-        return bestBid;
+        long bid = topOfBook.getBidTicks();
+        return bid == NO_PRICE ? null : instrument.toPrice(bid);
     }
 
     public Double getCurrentAsk() {
-        return bestAsk;
+        long ask = topOfBook.getAskTicks();
+        return ask == NO_PRICE ? null : instrument.toPrice(ask);
     }
 
     public Double getCurrentMid() {
-        return midPrice;
+        double mid = topOfBook.getMidTicks();
+        return Double.isNaN(mid) ? null : mid * instrument.getTickSize();
     }
 
     public List<Double> getBidHistory() {
         synchronized (lock) {
-            return Collections.unmodifiableList(new ArrayList<>(bidHistory));
+            return Collections.unmodifiableList(bidHistory.toList());
         }
     }
 
     public List<Double> getAskHistory() {
         synchronized (lock) {
-            return Collections.unmodifiableList(new ArrayList<>(askHistory));
+            return Collections.unmodifiableList(askHistory.toList());
         }
     }
 
     public List<Double> getMidHistory() {
         synchronized (lock) {
-            return Collections.unmodifiableList(new ArrayList<>(midHistory));
+            return Collections.unmodifiableList(midHistory.toList());
         }
     }
 
     public long getFirstSampleIndex() {
         synchronized (lock) {
-            return totalSamples - midHistory.size() + 1;
+            return midHistory.firstIndex() + 1;
+        }
+    }
+
+    public int getHistorySize() {
+        synchronized (lock) {
+            return midHistory.size();
+        }
+    }
+
+    public int getHistoryCapacity() {
+        return midHistory.capacity();
+    }
+
+    // Samples taken so far; the latest is number getSampleCount(), numbered like getFirstSampleIndex().
+    // Like the downsample methods it reads the history's own seqlock, never the book lock.
+    public long getSampleCount() {
+        return midHistory.getTotalAdded();
+    }
+
+    // Min/max of samples [firstSample, firstSample + count) in at most columns buckets, for drawing
+    // long windows at one bucket per pixel. See PriceHistory.downsample.
+    public int downsampleBidHistory(long firstSample, long count, int columns, double[] mins, double[] maxs) {
+        return bidHistory.downsample(firstSample - 1, count, columns, mins, maxs);
+    }
+
+    public int downsampleAskHistory(long firstSample, long count, int columns, double[] mins, double[] maxs) {
+        return askHistory.downsample(firstSample - 1, count, columns, mins, maxs);
+    }
+
+    public int downsampleMidHistory(long firstSample, long count, int columns, double[] mins, double[] maxs) {
+        return midHistory.downsample(firstSample - 1, count, columns, mins, maxs);
+    }
+
+    public void copyBidHistory(int from, int count, double[] dest, int destPos) {
+        synchronized (lock) {
+            bidHistory.copyRange(from, count, dest, destPos);
+        }
+    }
+
+    public void copyAskHistory(int from, int count, double[] dest, int destPos) {
+        synchronized (lock) {
+            askHistory.copyRange(from, count, dest, destPos);
+        }
+    }
+
+    public void copyMidHistory(int from, int count, double[] dest, int destPos) {
+        synchronized (lock) {
+            midHistory.copyRange(from, count, dest, destPos);
+        }
+    }
+
+    // Zero-copy views read the rings without the lock: use them on the writer thread, or while
+    // nothing is calling updatePrices().
+    public PriceHistory.View getBidHistoryView() {
+        synchronized (lock) {
+            return bidHistory.view();
+        }
+    }
+
+    public PriceHistory.View getAskHistoryView() {
+        synchronized (lock) {
+            return askHistory.view();
+        }
+    }
+
+    public PriceHistory.View getMidHistoryView() {
+        synchronized (lock) {
+            return midHistory.view();
         }
     }
 
     public int getBuyOrdersCount() {
         synchronized (lock) {
-            return buyOrders.size();
+            return buyOrders.getOrderCount();
         }
     }
 
     public int getSellOrdersCount() {
         synchronized (lock) {
-            return sellOrders.size();
+            return sellOrders.getOrderCount();
         }
     }
 
     public int getTotalBuyOrdersQuantity() {
         synchronized (lock) {
-            return buyOrders.stream().mapToInt(Order::getQuantity).sum();
+            return (int) buyOrders.getTotalQuantity();
         }
     }
 
     public int getTotalSellOrdersQuantity() {
         synchronized (lock) {
-            return sellOrders.stream().mapToInt(Order::getQuantity).sum();
+            return (int) sellOrders.getTotalQuantity();
+        }
+    }
+
+    public long getTradeCount() {
+        synchronized (lock) {
+            return tradeCount;
         }
     }
 
+    public int getCandleResolutionCount() {
+        return candles.getResolutionCount();
+    }
+
+    public long getCandleResolutionMillis(int level) {
+        return candles.getResolutionMillis(level);
+    }
+
+    // Copied under the aggregator's seqlock, so render threads never wait on the matcher.
+    public CandleData getCandles(int level, int maxBars) {
+        return candles.getCandles(level, maxBars, instrument);
+    }
+
     public List<Trade> getTradeHistory() {
         return tradeHistory.getAllTrades();
     }
 
-    public List<Integer> getBidQuantities() {
+    // Columnar trade store for cursors and range queries; readable from any thread.
+    public TradeHistory getTrades() {
+        return tradeHistory;
+    }
+
+    public int[] getBidQuantities() {
         return getBidLevels().quantities;
     }
 
-    public List<Integer> getAskQuantities() {
+    public int[] getAskQuantities() {
         return getAskLevels().quantities;
     }
 
@@ -3,13 +3,26 @@ package com.afrancodev.orderbook;
 import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
 
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.OrderPool;
 import com.afrancodev.orderbook.ui.MainPanel;
 
 public class OrderBookSimulator {
 
+    // With --flat-out N the matcher generates its own flow as fast as it can, N orders per tick,
+    // instead of one order every 100ms.
     public static void main(String[] args) {
+        int flatOutOrdersPerTick = 0;
+        if (args.length == 2 && args[0].equals("--flat-out")) {
+            flatOutOrdersPerTick = Integer.parseInt(args[1]);
+        } else if (args.length != 0) {
+            System.err.println("Usage: OrderBookSimulator [--flat-out ORDERS_PER_TICK]");
+            System.exit(2);
+        }
+        int ordersPerTick = flatOutOrdersPerTick;
+
         SwingUtilities.invokeLater(() -> {
-            OrderBook orderBook = new OrderBook();
+            OrderBook orderBook = new OrderBook(new Instrument("SIM", 0.01), new OrderPool(1024));
             MainPanel mainPanel = new MainPanel(orderBook);
             OrderGenerator orderGenerator = new OrderGenerator(100.0);
 
@@ -20,8 +33,18 @@ public class OrderBookSimulator {
             frame.setVisible(true);
             frame.add(mainPanel);
 
-            SimulationEngine engine = new SimulationEngine(orderBook, mainPanel, orderGenerator);
-            new Thread(engine).start();
+            MatchingEngine matchingEngine = new MatchingEngine(orderBook);
+            if (ordersPerTick > 0) {
+                matchingEngine.setLocalFlow(new OrderGenerator[] {orderGenerator}, ordersPerTick);
+            }
+            Thread matcher = new Thread(matchingEngine, "matching-engine");
+            matcher.setDaemon(true);
+            matcher.start();
+
+            if (ordersPerTick == 0) {
+                SimulationEngine engine = new SimulationEngine(matchingEngine, orderGenerator);
+                new Thread(engine).start();
+            }
         });
     }
 }
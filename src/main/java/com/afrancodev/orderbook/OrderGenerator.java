@@ -1,8 +1,13 @@
 package com.afrancodev.orderbook;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.SplittableRandom;
 
+import com.afrancodev.orderbook.flow.ArrivalProcess;
+import com.afrancodev.orderbook.flow.Distribution;
+import com.afrancodev.orderbook.flow.Distributions;
+import com.afrancodev.orderbook.models.Instrument;
 import com.afrancodev.orderbook.models.Order;
+import com.afrancodev.orderbook.models.Quote;
 
 public class OrderGenerator {
     private static final double MARKET_ORDER_PROBABILITY = 0.15;
@@ -14,50 +19,188 @@ public class OrderGenerator {
     private static final int LARGE_ORDER_MAX = 1000;
     private static final int MIN_AGE = 10;
     private static final int MAX_AGE = 100;
+    private static final double FAIR_PRICE_STEP = 0.5;
+
+    private final long seed;
+    private final SplittableRandom random;
+    private final double buyProbability;
+    private final double marketOrderProbability;
+    private final Distribution sizes;
+    private final Distribution priceOffsets;
+    private final Distribution lifetimes;
+    private final Distribution fairPriceSteps;
+    private final ArrivalProcess arrivals;
 
     private double fairPrice;
+    private long arrivalNanos = 0;
+    private final Quote quote = new Quote();
+
+    private boolean nextIsBuy;
+    private long nextPriceTicks;
+    private int nextQuantity;
+    private boolean nextMarketOrder;
+    private int nextAge;
 
     public OrderGenerator(double initialFairPrice) {
-        this.fairPrice = initialFairPrice;
+        this(builder(initialFairPrice));
+    }
+
+    public OrderGenerator(double initialFairPrice, long seed) {
+        this(builder(initialFairPrice).seed(seed));
+    }
+
+    public OrderGenerator(double initialFairPrice, double marketOrderProbability, int minAge, int maxAge) {
+        this(builder(initialFairPrice).marketOrderProbability(marketOrderProbability).lifetimes(minAge, maxAge));
+    }
+
+    private OrderGenerator(Builder builder) {
+        this.fairPrice = builder.initialFairPrice;
+        this.seed = builder.seed;
+        this.random = new SplittableRandom(builder.seed);
+        this.buyProbability = builder.buyProbability;
+        this.marketOrderProbability = builder.marketOrderProbability;
+        this.sizes = builder.sizes;
+        this.priceOffsets = builder.priceOffsets;
+        this.lifetimes = builder.lifetimes;
+        this.fairPriceSteps = builder.fairPriceSteps;
+        this.arrivals = builder.arrivals;
+    }
+
+    public static Builder builder(double initialFairPrice) {
+        return new Builder(initialFairPrice);
+    }
+
+    public long getSeed() {
+        return seed;
     }
 
     public double getFairPrice() {
         return fairPrice;
     }
 
+    // Arrival time of the last generated order, in nanoseconds from the start of the flow; stays 0
+    // unless an arrival process is configured.
+    public long getArrivalNanos() {
+        return arrivalNanos;
+    }
+
     public void updateFairPrice() {
-        fairPrice += ThreadLocalRandom.current().nextGaussian() * 0.5;
+        fairPrice += fairPriceSteps.sample(random);
     }
 
     public Order generateRandomOrder(OrderBook orderBook) {
-        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        orderBook.getTopOfBook(quote);
+        nextOrder(orderBook.getInstrument(), quote.getBidTicks(), quote.getAskTicks());
+        return orderBook.createOrder(nextIsBuy, nextPriceTicks, nextQuantity, nextMarketOrder, nextAge);
+    }
 
-        boolean isBuy = rand.nextBoolean();
-        boolean isMarketOrder = rand.nextDouble() <= MARKET_ORDER_PROBABILITY;
+    public long submitRandomOrder(MatchingEngine engine) {
+        OrderBook orderBook = engine.getOrderBook();
+        orderBook.getTopOfBook(quote);
+        nextOrder(orderBook.getInstrument(), quote.getBidTicks(), quote.getAskTicks());
+        return engine.submitOrder(nextIsBuy, nextPriceTicks, nextQuantity, nextMarketOrder, nextAge);
+    }
 
-        double limitPrice;
+    // Pre-generates count orders without a book to look at, stepping the fair price every
+    // ordersPerTick orders. Market orders are priced at the fair price.
+    public OrderStream generateStream(Instrument instrument, int count, int ordersPerTick) {
+        OrderStream stream = new OrderStream(count);
+        for (int i = 0; i < count; i++) {
+            nextOrder(instrument, OrderBook.NO_PRICE, OrderBook.NO_PRICE);
+            stream.add(nextIsBuy, nextPriceTicks, nextQuantity, nextMarketOrder, nextAge, arrivalNanos);
+            if ((i + 1) % ordersPerTick == 0) {
+                updateFairPrice();
+            }
+        }
+        return stream;
+    }
+
+    private void nextOrder(Instrument instrument, long bestBidTicks, long bestAskTicks) {
+        boolean isBuy = random.nextDouble() < buyProbability;
+        boolean isMarketOrder = random.nextDouble() < marketOrderProbability;
+
+        long limitTicks;
         if (isMarketOrder) {
-            Double bestBid = orderBook.getCurrentBid();
-            Double bestAsk = orderBook.getCurrentAsk();
-            limitPrice = isBuy
-                    ? (bestAsk != null ? bestAsk : fairPrice)
-                    : (bestBid != null ? bestBid : fairPrice);
+            long touch = isBuy ? bestAskTicks : bestBidTicks;
+            limitTicks = touch != OrderBook.NO_PRICE ? touch : instrument.toTicks(fairPrice);
         } else {
-            double priceOffset = rand.nextDouble(0, SPREAD_WIDTH);
-            limitPrice = isBuy ? fairPrice - priceOffset : fairPrice + priceOffset;
+            double priceOffset = Math.max(0, priceOffsets.sample(random));
+            limitTicks = instrument.toTicks(isBuy ? fairPrice - priceOffset : fairPrice + priceOffset);
         }
 
-        boolean isLargeOrder = rand.nextDouble() < LARGE_ORDER_PROBABILITY;
-        int quantity = isLargeOrder
-                ? rand.nextInt(LARGE_ORDER_MIN, LARGE_ORDER_MAX)
-                : rand.nextInt(SMALL_ORDER_MIN, SMALL_ORDER_MAX);
+        nextIsBuy = isBuy;
+        nextPriceTicks = limitTicks;
+        nextQuantity = Math.max(1, (int) sizes.sample(random));
+        nextMarketOrder = isMarketOrder;
+        nextAge = Math.max(1, (int) lifetimes.sample(random));
+        if (arrivals != null) {
+            arrivalNanos += (long) (arrivals.nextInterval(random) * 1e9);
+        }
+    }
 
-        int age = rand.nextInt(MIN_AGE, MAX_AGE);
+    public static class Builder {
+        private final double initialFairPrice;
+        private long seed = System.nanoTime();
+        private double buyProbability = 0.5;
+        private double marketOrderProbability = MARKET_ORDER_PROBABILITY;
+        private Distribution sizes = Distributions.mixture(LARGE_ORDER_PROBABILITY,
+                Distributions.uniform(LARGE_ORDER_MIN, LARGE_ORDER_MAX),
+                Distributions.uniform(SMALL_ORDER_MIN, SMALL_ORDER_MAX));
+        private Distribution priceOffsets = Distributions.uniform(0, SPREAD_WIDTH);
+        private Distribution lifetimes = Distributions.uniform(MIN_AGE, MAX_AGE);
+        private Distribution fairPriceSteps = Distributions.normal(0, FAIR_PRICE_STEP);
+        private ArrivalProcess arrivals = null;
 
-        return new Order(isBuy, round(limitPrice), quantity, isMarketOrder, age);
-    }
+        private Builder(double initialFairPrice) {
+            this.initialFairPrice = initialFairPrice;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder buyProbability(double buyProbability) {
+            this.buyProbability = buyProbability;
+            return this;
+        }
 
-    private double round(double value) {
-        return Math.round(value * 100.0) / 100.0;
+        public Builder marketOrderProbability(double marketOrderProbability) {
+            this.marketOrderProbability = marketOrderProbability;
+            return this;
+        }
+
+        public Builder sizes(Distribution sizes) {
+            this.sizes = sizes;
+            return this;
+        }
+
+        public Builder priceOffsets(Distribution priceOffsets) {
+            this.priceOffsets = priceOffsets;
+            return this;
+        }
+
+        public Builder lifetimes(Distribution lifetimes) {
+            this.lifetimes = lifetimes;
+            return this;
+        }
+
+        public Builder lifetimes(int minAge, int maxAge) {
+            return lifetimes(Distributions.uniform(minAge, maxAge));
+        }
+
+        public Builder fairPriceSteps(Distribution fairPriceSteps) {
+            this.fairPriceSteps = fairPriceSteps;
+            return this;
+        }
+
+        public Builder arrivals(ArrivalProcess arrivals) {
+            this.arrivals = arrivals;
+            return this;
+        }
+
+        public OrderGenerator build() {
+            return new OrderGenerator(this);
+        }
     }
 }
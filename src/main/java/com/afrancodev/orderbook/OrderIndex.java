@@ -0,0 +1,101 @@
+package com.afrancodev.orderbook;
+
+import com.afrancodev.orderbook.models.Order;
+
+class OrderIndex {
+
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private Order[] values;
+    private int mask;
+    private int size = 0;
+
+    OrderIndex(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity, 16) - 1) << 1;
+        keys = new long[capacity];
+        values = new Order[capacity];
+        mask = capacity - 1;
+    }
+
+    Order get(long id) {
+        for (int i = slot(id); keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == id) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    void put(long id, Order order) {
+        if (id == EMPTY) {
+            throw new IllegalArgumentException("Order id must be non-zero");
+        }
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int i = slot(id);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == id) {
+                throw new IllegalArgumentException("Duplicate order id " + id);
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = id;
+        values[i] = order;
+        size++;
+    }
+
+    Order remove(long id) {
+        int i = slot(id);
+        while (keys[i] != id) {
+            if (keys[i] == EMPTY) {
+                return null;
+            }
+            i = (i + 1) & mask;
+        }
+        Order removed = values[i];
+        size--;
+
+        int gap = i;
+        for (int j = (gap + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            boolean movable = gap <= j ? (home <= gap || home > j) : (home <= gap && home > j);
+            if (movable) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Order[] oldValues = values;
+        keys = new long[oldKeys.length << 1];
+        values = new Order[oldValues.length << 1];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int j = slot(oldKeys[i]);
+                while (keys[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.afrancodev.orderbook;
+
+import java.util.function.IntConsumer;
+
+import com.afrancodev.orderbook.models.Order;
+import com.afrancodev.orderbook.models.TimeInForce;
+
+// Where a book keeps its orders. OrderBook applies every matching, priority, order-type and expiry
+// rule through this interface, addressing orders by int handle, so heap and off-heap books share
+// one implementation of those rules. Handle NONE is never an order.
+interface OrderStorage {
+
+    int NONE = 0;
+
+    // Takes an order in and returns its handle. Heap storage keeps the object and updates it as it
+    // trades; off-heap storage copies it and does not retain the argument.
+    int add(Order order);
+
+    int add(boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age);
+
+    // The live order on heap, a detached copy off-heap.
+    Order toOrder(int handle);
+
+    // The order has left the book for good; its handle may be reused.
+    void release(int handle);
+
+    long id(int handle);
+
+    void assignId(int handle, long id);
+
+    boolean isBuy(int handle);
+
+    boolean isMarketOrder(int handle);
+
+    long priceTicks(int handle);
+
+    int quantity(int handle);
+
+    int hiddenQuantity(int handle);
+
+    int displayQuantity(int handle);
+
+    int age(int handle);
+
+    TimeInForce timeInForce(int handle);
+
+    boolean isPostOnly(int handle);
+
+    boolean isStop(int handle);
+
+    long stopTicks(int handle);
+
+    // Book-local sequence stamped when the order last entered a price ladder; the larger of two
+    // crossing orders' arrivals is the aggressor.
+    long arrival(int handle);
+
+    void arrival(int handle, long sequence);
+
+    // Only for orders outside the ladders; resting orders are reduced through their Ladder.
+    void reduceQuantity(int handle, int amount);
+
+    int refill(int handle);
+
+    void triggerStop(int handle);
+
+    void amend(int handle, long priceTicks, int quantity);
+
+    int find(long orderId);
+
+    void index(long orderId, int handle);
+
+    void unindex(long orderId);
+
+    long getNow();
+
+    void schedule(int handle, long expiryTick);
+
+    void cancelExpiry(int handle);
+
+    void advance(IntConsumer onExpire);
+
+    Ladder bids();
+
+    Ladder asks();
+
+    // Pending stops, nearest trigger first: buy stops fire as the price rises.
+    Ladder buyStops();
+
+    Ladder sellStops();
+}
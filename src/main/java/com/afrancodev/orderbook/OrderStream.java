@@ -0,0 +1,79 @@
+package com.afrancodev.orderbook;
+
+import com.afrancodev.orderbook.models.Order;
+
+// Pre-generated order flow stored column-wise, so replaying it costs a few array reads per order.
+public class OrderStream {
+
+    private final boolean[] isBuy;
+    private final long[] priceTicks;
+    private final int[] quantities;
+    private final boolean[] marketOrders;
+    private final int[] ages;
+    private final long[] arrivalNanos;
+    private int size = 0;
+
+    public OrderStream(int capacity) {
+        this.isBuy = new boolean[capacity];
+        this.priceTicks = new long[capacity];
+        this.quantities = new int[capacity];
+        this.marketOrders = new boolean[capacity];
+        this.ages = new int[capacity];
+        this.arrivalNanos = new long[capacity];
+    }
+
+    public void add(boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age, long arrivalNanos) {
+        if (size == this.isBuy.length) {
+            throw new IllegalStateException("Stream is full (" + size + " orders)");
+        }
+        this.isBuy[size] = isBuy;
+        this.priceTicks[size] = priceTicks;
+        this.quantities[size] = quantity;
+        this.marketOrders[size] = isMarketOrder;
+        this.ages[size] = age;
+        this.arrivalNanos[size] = arrivalNanos;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isBuy(int index) {
+        return isBuy[index];
+    }
+
+    public long getPriceTicks(int index) {
+        return priceTicks[index];
+    }
+
+    public int getQuantity(int index) {
+        return quantities[index];
+    }
+
+    public boolean isMarketOrder(int index) {
+        return marketOrders[index];
+    }
+
+    public int getAge(int index) {
+        return ages[index];
+    }
+
+    public long getArrivalNanos(int index) {
+        return arrivalNanos[index];
+    }
+
+    public Order createOrder(OrderBook orderBook, int index) {
+        return orderBook.createOrder(isBuy[index], priceTicks[index], quantities[index], marketOrders[index], ages[index]);
+    }
+
+    public long submit(MatchingEngine engine, int book, int index) {
+        return engine.submitOrder(book, isBuy[index], priceTicks[index], quantities[index], marketOrders[index], ages[index]);
+    }
+
+    public void copyTo(OrderBatch batch, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            batch.add(isBuy[i], priceTicks[i], quantities[i], marketOrders[i], ages[i]);
+        }
+    }
+}
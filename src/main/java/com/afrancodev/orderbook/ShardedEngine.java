@@ -0,0 +1,133 @@
+package com.afrancodev.orderbook;
+
+import java.util.concurrent.ThreadFactory;
+
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.OrderPool;
+
+public class ShardedEngine {
+
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final int DEFAULT_POOL_SIZE = 1 << 14;
+
+    private final OrderBook[] books;
+    private final MatchingEngine[] workers;
+    private final Thread[] threads;
+    private final ThreadFactory threadFactory;
+
+    public ShardedEngine(Instrument[] instruments, int workerCount) {
+        this(instruments, workerCount, DEFAULT_CAPACITY, DEFAULT_POOL_SIZE, null);
+    }
+
+    // Instrument i lives on worker i % workerCount at local slot i / workerCount, so a book is only
+    // ever touched by one matcher thread. The thread factory is the hook for pinning workers to
+    // cores (taskset, an affinity library, ...), which plain Java cannot do portably.
+    public ShardedEngine(Instrument[] instruments, int workerCount, int capacity, int poolSize,
+            ThreadFactory threadFactory) {
+        if (workerCount <= 0 || workerCount > instruments.length) {
+            throw new IllegalArgumentException("Worker count must be between 1 and the number of instruments");
+        }
+        this.books = new OrderBook[instruments.length];
+        for (int i = 0; i < instruments.length; i++) {
+            books[i] = new OrderBook(instruments[i], new OrderPool(poolSize));
+        }
+
+        this.workers = new MatchingEngine[workerCount];
+        this.threads = new Thread[workerCount];
+        for (int w = 0; w < workerCount; w++) {
+            OrderBook[] shard = new OrderBook[(instruments.length - w + workerCount - 1) / workerCount];
+            for (int local = 0; local < shard.length; local++) {
+                shard[local] = books[local * workerCount + w];
+            }
+            workers[w] = new MatchingEngine(shard, capacity);
+        }
+        this.threadFactory = threadFactory;
+    }
+
+    public int getInstrumentCount() {
+        return books.length;
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    public OrderBook getOrderBook(int instrument) {
+        return books[instrument];
+    }
+
+    public MatchingEngine getWorker(int worker) {
+        return workers[worker];
+    }
+
+    public int workerOf(int instrument) {
+        return instrument % workers.length;
+    }
+
+    public void enableLocalFlow(OrderGenerator[] generators, int ordersPerTick) {
+        if (generators.length != books.length) {
+            throw new IllegalArgumentException("Need one generator per instrument");
+        }
+        for (int w = 0; w < workers.length; w++) {
+            OrderGenerator[] shard = new OrderGenerator[workers[w].getBookCount()];
+            for (int local = 0; local < shard.length; local++) {
+                shard[local] = generators[local * workers.length + w];
+            }
+            workers[w].setLocalFlow(shard, ordersPerTick);
+        }
+    }
+
+    public void start() {
+        for (int w = 0; w < workers.length; w++) {
+            Thread thread = threadFactory != null ? threadFactory.newThread(workers[w]) : new Thread(workers[w]);
+            thread.setName("shard-" + w);
+            thread.setDaemon(true);
+            threads[w] = thread;
+            thread.start();
+        }
+    }
+
+    public void stop() throws InterruptedException {
+        for (MatchingEngine worker : workers) {
+            worker.stop();
+        }
+        for (Thread thread : threads) {
+            if (thread != null) {
+                thread.join();
+            }
+        }
+    }
+
+    public long submitOrder(int instrument, boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age) {
+        return workers[workerOf(instrument)].submitOrder(instrument / workers.length, isBuy, priceTicks, quantity,
+                isMarketOrder, age);
+    }
+
+    public void submitCancel(int instrument, long orderId) {
+        workers[workerOf(instrument)].submitCancel(instrument / workers.length, orderId);
+    }
+
+    public void submitModify(int instrument, long orderId, int newQuantity, long newPriceTicks) {
+        workers[workerOf(instrument)].submitModify(instrument / workers.length, orderId, newQuantity, newPriceTicks);
+    }
+
+    public void submitTick(int instrument) {
+        workers[workerOf(instrument)].submitTick(instrument / workers.length);
+    }
+
+    public long getProcessedCommands() {
+        long total = 0;
+        for (MatchingEngine worker : workers) {
+            total += worker.getProcessedCommands();
+        }
+        return total;
+    }
+
+    public long getGeneratedOrders() {
+        long total = 0;
+        for (MatchingEngine worker : workers) {
+            total += worker.getGeneratedOrders();
+        }
+        return total;
+    }
+}
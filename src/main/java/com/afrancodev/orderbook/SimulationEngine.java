@@ -4,20 +4,17 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
-import com.afrancodev.orderbook.models.Order;
-import com.afrancodev.orderbook.ui.MainPanel;
-
+// Feeds the matching engine one order and one tick every 100ms. The UI refreshes on its own render
+// loop from published snapshots, so nothing here touches Swing.
 public class SimulationEngine implements Runnable {
 
-    private final OrderBook orderBook;
-    private final MainPanel mainPanel;
+    private final MatchingEngine matchingEngine;
     private final OrderGenerator orderGenerator;
 
     private final ScheduledExecutorService scheduler;
 
-    public SimulationEngine(OrderBook orderBook, MainPanel mainPanel, OrderGenerator orderGenerator) {
-        this.orderBook = orderBook;
-        this.mainPanel = mainPanel;
+    public SimulationEngine(MatchingEngine matchingEngine, OrderGenerator orderGenerator) {
+        this.matchingEngine = matchingEngine;
         this.orderGenerator = orderGenerator;
         this.scheduler = Executors.newScheduledThreadPool(1);
     }
@@ -30,13 +27,7 @@ public class SimulationEngine implements Runnable {
     private void engineLoop() {
         orderGenerator.updateFairPrice();
 
-        Order order = orderGenerator.generateRandomOrder(orderBook);
-
-        orderBook.addOrder(order);
-        orderBook.matchOrders();
-        orderBook.updatePrices();
-        orderBook.expireOldOrders();
-
-        mainPanel.repaint();
+        orderGenerator.submitRandomOrder(matchingEngine);
+        matchingEngine.submitTick();
     }
 }
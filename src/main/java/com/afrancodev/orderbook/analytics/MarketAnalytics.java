@@ -0,0 +1,119 @@
+package com.afrancodev.orderbook.analytics;
+
+import java.util.concurrent.TimeUnit;
+
+import com.afrancodev.orderbook.MarketDataListener;
+import com.afrancodev.orderbook.OrderBook;
+
+// Rolling trade and quote statistics over one or more sliding windows, fed by subscribing to an
+// OrderBook. Each trade or quote costs O(1) per window; nothing is recomputed from TradeHistory.
+// Sampling sums a window's buckets and may be called from any thread.
+public class MarketAnalytics implements MarketDataListener {
+
+    public static final int DEFAULT_BUCKETS = 60;
+
+    private final RollingWindow[] windows;
+
+    private long lastNanos = Long.MIN_VALUE;
+    private long lastTradeTicks = OrderBook.NO_PRICE;
+    private long bidTicks = OrderBook.NO_PRICE;
+    private long bidQuantity;
+    private long askTicks = OrderBook.NO_PRICE;
+    private long askQuantity;
+    private long spread = -1;
+    private long spreadSince;
+
+    // Windows of 1s, 10s and 60s.
+    public MarketAnalytics() {
+        this(DEFAULT_BUCKETS, TimeUnit.SECONDS.toNanos(1), TimeUnit.SECONDS.toNanos(10), TimeUnit.SECONDS.toNanos(60));
+    }
+
+    public MarketAnalytics(int buckets, long... windowNanos) {
+        if (windowNanos.length == 0) {
+            throw new IllegalArgumentException("At least one window is required");
+        }
+        this.windows = new RollingWindow[windowNanos.length];
+        for (int i = 0; i < windowNanos.length; i++) {
+            windows[i] = new RollingWindow(windowNanos[i], buckets);
+        }
+    }
+
+    public int getWindowCount() {
+        return windows.length;
+    }
+
+    public long getWindowNanos(int window) {
+        return windows[window].getWindowNanos();
+    }
+
+    // Timestamps are clamped so they never go backwards.
+    private long advance(long timestampNanos) {
+        lastNanos = Math.max(lastNanos, timestampNanos);
+        return lastNanos;
+    }
+
+    @Override
+    public synchronized void onTrade(long sequence, long timestampNanos, boolean isBuy, long priceTicks,
+            int quantity, long makerOrderId, long takerOrderId) {
+        long now = advance(timestampNanos);
+        double squaredReturn = Double.NaN;
+        if (lastTradeTicks != OrderBook.NO_PRICE && lastTradeTicks > 0 && priceTicks > 0) {
+            double r = Math.log((double) priceTicks / lastTradeTicks);
+            squaredReturn = r * r;
+        }
+        lastTradeTicks = priceTicks;
+        for (RollingWindow window : windows) {
+            window.trade(now, isBuy, priceTicks, quantity, squaredReturn);
+        }
+    }
+
+    @Override
+    public synchronized void onQuote(long sequence, long timestampNanos, long newBidTicks, long newBidQuantity,
+            long newAskTicks, long newAskQuantity) {
+        long now = advance(timestampNanos);
+
+        // An empty bid sorts below every price already (NO_PRICE is Long.MIN_VALUE); an empty ask
+        // must sort above.
+        long oldAsk = askTicks == OrderBook.NO_PRICE ? Long.MAX_VALUE : askTicks;
+        long newAsk = newAskTicks == OrderBook.NO_PRICE ? Long.MAX_VALUE : newAskTicks;
+        long flow = 0;
+        if (newBidTicks >= bidTicks) {
+            flow += newBidQuantity;
+        }
+        if (newBidTicks <= bidTicks) {
+            flow -= bidQuantity;
+        }
+        if (newAsk <= oldAsk) {
+            flow -= newAskQuantity;
+        }
+        if (newAsk >= oldAsk) {
+            flow += askQuantity;
+        }
+
+        long newSpread = newBidTicks == OrderBook.NO_PRICE || newAskTicks == OrderBook.NO_PRICE
+                ? -1 : newAskTicks - newBidTicks;
+        long held = spread >= 0 ? now - spreadSince : 0;
+        for (RollingWindow window : windows) {
+            window.quote(now, flow, spread, held, newSpread);
+        }
+
+        bidTicks = newBidTicks;
+        bidQuantity = newBidQuantity;
+        askTicks = newAskTicks;
+        askQuantity = newAskQuantity;
+        spread = newSpread;
+        spreadSince = now;
+    }
+
+    // Fills into with the window ending at the latest event.
+    public synchronized void sample(int window, WindowStats into) {
+        sample(window, lastNanos == Long.MIN_VALUE ? 0 : lastNanos, into);
+    }
+
+    // Fills into with the window ending at nowNanos, on the book's trade clock, so quiet periods age
+    // out even without events.
+    public synchronized void sample(int window, long nowNanos, WindowStats into) {
+        long openNanos = spread >= 0 ? nowNanos - spreadSince : 0;
+        windows[window].sum(nowNanos, spread, openNanos, into);
+    }
+}
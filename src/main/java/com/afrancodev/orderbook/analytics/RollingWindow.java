@@ -0,0 +1,167 @@
+package com.afrancodev.orderbook.analytics;
+
+import java.util.Arrays;
+
+// One sliding window cut into equal time buckets kept in a ring. An event touches only the bucket
+// its timestamp falls in, resetting it first if it still holds an older period, so updates are O(1)
+// and never rescan history. Reads sum the buckets still inside the window.
+final class RollingWindow {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long windowNanos;
+    private final long bucketNanos;
+    private final long[] periods;
+
+    private final long[] volumes;
+    private final long[] buyVolumes;
+    private final long[] notionals;
+    private final int[] trades;
+    private final double[] squaredReturns;
+    private final int[] returns;
+    private final long[] orderFlow;
+    private final int[] quotes;
+    private final double[] spreadTime;
+    private final long[] spreadNanos;
+    private final long[] spreadMins;
+    private final long[] spreadMaxes;
+
+    RollingWindow(long windowNanos, int buckets) {
+        if (windowNanos <= 0 || buckets <= 0 || windowNanos < buckets) {
+            throw new IllegalArgumentException("Window must be positive and hold at least one nanosecond per bucket: "
+                    + windowNanos + " ns in " + buckets + " buckets");
+        }
+        this.windowNanos = windowNanos;
+        this.bucketNanos = windowNanos / buckets;
+        this.periods = new long[buckets];
+        Arrays.fill(periods, EMPTY);
+        this.volumes = new long[buckets];
+        this.buyVolumes = new long[buckets];
+        this.notionals = new long[buckets];
+        this.trades = new int[buckets];
+        this.squaredReturns = new double[buckets];
+        this.returns = new int[buckets];
+        this.orderFlow = new long[buckets];
+        this.quotes = new int[buckets];
+        this.spreadTime = new double[buckets];
+        this.spreadNanos = new long[buckets];
+        this.spreadMins = new long[buckets];
+        this.spreadMaxes = new long[buckets];
+    }
+
+    long getWindowNanos() {
+        return windowNanos;
+    }
+
+    private int bucket(long timestampNanos) {
+        long period = Math.floorDiv(timestampNanos, bucketNanos);
+        int slot = (int) Math.floorMod(period, (long) periods.length);
+        if (periods[slot] != period) {
+            periods[slot] = period;
+            volumes[slot] = 0;
+            buyVolumes[slot] = 0;
+            notionals[slot] = 0;
+            trades[slot] = 0;
+            squaredReturns[slot] = 0;
+            returns[slot] = 0;
+            orderFlow[slot] = 0;
+            quotes[slot] = 0;
+            spreadTime[slot] = 0;
+            spreadNanos[slot] = 0;
+            spreadMins[slot] = Long.MAX_VALUE;
+            spreadMaxes[slot] = Long.MIN_VALUE;
+        }
+        return slot;
+    }
+
+    // squaredReturn is NaN for the first trade, which has nothing to return from.
+    void trade(long timestampNanos, boolean isBuy, long priceTicks, int quantity, double squaredReturn) {
+        int slot = bucket(timestampNanos);
+        volumes[slot] += quantity;
+        if (isBuy) {
+            buyVolumes[slot] += quantity;
+        }
+        notionals[slot] += priceTicks * quantity;
+        trades[slot]++;
+        if (!Double.isNaN(squaredReturn)) {
+            squaredReturns[slot] += squaredReturn;
+            returns[slot]++;
+        }
+    }
+
+    // heldSpread lasted heldNanos up to this quote; spread is the new spread, or -1 while a side is
+    // empty.
+    void quote(long timestampNanos, long flow, long heldSpread, long heldNanos, long spread) {
+        if (heldSpread >= 0 && heldNanos > 0) {
+            hold(timestampNanos - heldNanos, timestampNanos, heldSpread);
+        }
+        int slot = bucket(timestampNanos);
+        quotes[slot]++;
+        orderFlow[slot] += flow;
+        if (spread >= 0) {
+            spreadMins[slot] = Math.min(spreadMins[slot], spread);
+            spreadMaxes[slot] = Math.max(spreadMaxes[slot], spread);
+        }
+    }
+
+    // Credits each bucket with the part of [from, to) it covers. Time older than the ring is dropped
+    // rather than written into buckets that now stand for later periods, so this is O(buckets) at most.
+    private void hold(long from, long to, long spread) {
+        long start = Math.max(from, (Math.floorDiv(to, bucketNanos) - periods.length + 1) * bucketNanos);
+        while (start < to) {
+            long end = Math.min(to, (Math.floorDiv(start, bucketNanos) + 1) * bucketNanos);
+            int slot = bucket(start);
+            spreadTime[slot] += (double) spread * (end - start);
+            spreadNanos[slot] += end - start;
+            spreadMins[slot] = Math.min(spreadMins[slot], spread);
+            spreadMaxes[slot] = Math.max(spreadMaxes[slot], spread);
+            start = end;
+        }
+    }
+
+    // Sums the buckets covering (now - window, now]. openSpread has been in force for openNanos and
+    // is not yet in any bucket.
+    void sum(long nowNanos, long openSpread, long openNanos, WindowStats into) {
+        long newest = Math.floorDiv(nowNanos, bucketNanos);
+        long oldest = newest - periods.length + 1;
+        long volume = 0;
+        long buyVolume = 0;
+        long notional = 0;
+        long tradeCount = 0;
+        double squared = 0;
+        long returnCount = 0;
+        long flow = 0;
+        long quoteCount = 0;
+        double weightedSpread = 0;
+        long spreadDuration = 0;
+        long minSpread = Long.MAX_VALUE;
+        long maxSpread = Long.MIN_VALUE;
+        for (int slot = 0; slot < periods.length; slot++) {
+            long period = periods[slot];
+            if (period == EMPTY || period < oldest || period > newest) {
+                continue;
+            }
+            volume += volumes[slot];
+            buyVolume += buyVolumes[slot];
+            notional += notionals[slot];
+            tradeCount += trades[slot];
+            squared += squaredReturns[slot];
+            returnCount += returns[slot];
+            flow += orderFlow[slot];
+            quoteCount += quotes[slot];
+            weightedSpread += spreadTime[slot];
+            spreadDuration += spreadNanos[slot];
+            minSpread = Math.min(minSpread, spreadMins[slot]);
+            maxSpread = Math.max(maxSpread, spreadMaxes[slot]);
+        }
+        if (openSpread >= 0 && openNanos > 0) {
+            long open = Math.min(openNanos, windowNanos);
+            weightedSpread += (double) openSpread * open;
+            spreadDuration += open;
+            minSpread = Math.min(minSpread, openSpread);
+            maxSpread = Math.max(maxSpread, openSpread);
+        }
+        into.set(windowNanos, nowNanos, volume, buyVolume, notional, tradeCount, squared, returnCount, flow,
+                quoteCount, weightedSpread, spreadDuration, minSpread, maxSpread);
+    }
+}
@@ -0,0 +1,119 @@
+package com.afrancodev.orderbook.analytics;
+
+// Caller-owned totals for one sliding window, filled by MarketAnalytics.sample. Prices and spreads
+// are in ticks.
+public class WindowStats {
+
+    private long windowNanos;
+    private long asOfNanos;
+    private long volume;
+    private long buyVolume;
+    private long notional;
+    private long tradeCount;
+    private double squaredReturns;
+    private long returnCount;
+    private long orderFlowImbalance;
+    private long quoteCount;
+    private double weightedSpread;
+    private long spreadNanos;
+    private long minSpread;
+    private long maxSpread;
+
+    void set(long windowNanos, long asOfNanos, long volume, long buyVolume, long notional, long tradeCount,
+            double squaredReturns, long returnCount, long orderFlowImbalance, long quoteCount, double weightedSpread,
+            long spreadNanos, long minSpread, long maxSpread) {
+        this.windowNanos = windowNanos;
+        this.asOfNanos = asOfNanos;
+        this.volume = volume;
+        this.buyVolume = buyVolume;
+        this.notional = notional;
+        this.tradeCount = tradeCount;
+        this.squaredReturns = squaredReturns;
+        this.returnCount = returnCount;
+        this.orderFlowImbalance = orderFlowImbalance;
+        this.quoteCount = quoteCount;
+        this.weightedSpread = weightedSpread;
+        this.spreadNanos = spreadNanos;
+        this.minSpread = minSpread;
+        this.maxSpread = maxSpread;
+    }
+
+    public long getWindowNanos() {
+        return windowNanos;
+    }
+
+    // Event time the window ends at.
+    public long getAsOfNanos() {
+        return asOfNanos;
+    }
+
+    public long getVolume() {
+        return volume;
+    }
+
+    // Volume where a buyer was the aggressor.
+    public long getBuyVolume() {
+        return buyVolume;
+    }
+
+    public long getSellVolume() {
+        return volume - buyVolume;
+    }
+
+    public long getTradeCount() {
+        return tradeCount;
+    }
+
+    public double getVwapTicks() {
+        return volume == 0 ? Double.NaN : (double) notional / volume;
+    }
+
+    // Aggressor buy volume minus sell volume, over total volume: between -1 and 1.
+    public double getTradeImbalance() {
+        return volume == 0 ? Double.NaN : (double) (2 * buyVolume - volume) / volume;
+    }
+
+    // Sum of best bid/ask queue changes (Cont, Kukanov and Stoikov): positive when buying pressure at
+    // the touch outweighed selling pressure.
+    public long getOrderFlowImbalance() {
+        return orderFlowImbalance;
+    }
+
+    // Square root of the summed squared log returns between consecutive trades in the window.
+    public double getRealizedVolatility() {
+        return Math.sqrt(squaredReturns);
+    }
+
+    public long getReturnCount() {
+        return returnCount;
+    }
+
+    public long getQuoteCount() {
+        return quoteCount;
+    }
+
+    public boolean hasSpread() {
+        return maxSpread != Long.MIN_VALUE;
+    }
+
+    // Spread averaged over the time it was in force.
+    public double getAverageSpreadTicks() {
+        return spreadNanos == 0 ? Double.NaN : weightedSpread / spreadNanos;
+    }
+
+    public long getMinSpreadTicks() {
+        return hasSpread() ? minSpread : 0;
+    }
+
+    public long getMaxSpreadTicks() {
+        return hasSpread() ? maxSpread : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%6.1fs  trades %,d  volume %,d  vwap %.2f  imbalance %+.3f  ofi %+,d  rv %.5f"
+                + "  spread avg %.2f min %d max %d", windowNanos / 1e9, tradeCount, volume, getVwapTicks(),
+                getTradeImbalance(), orderFlowImbalance, getRealizedVolatility(), getAverageSpreadTicks(),
+                getMinSpreadTicks(), getMaxSpreadTicks());
+    }
+}
@@ -0,0 +1,9 @@
+package com.afrancodev.orderbook.flow;
+
+import java.util.SplittableRandom;
+
+public interface ArrivalProcess {
+
+    // Seconds until the next order arrives.
+    double nextInterval(SplittableRandom random);
+}
@@ -0,0 +1,8 @@
+package com.afrancodev.orderbook.flow;
+
+import java.util.SplittableRandom;
+
+public interface Distribution {
+
+    double sample(SplittableRandom random);
+}
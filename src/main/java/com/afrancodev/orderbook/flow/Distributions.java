@@ -0,0 +1,62 @@
+package com.afrancodev.orderbook.flow;
+
+import java.util.SplittableRandom;
+
+public final class Distributions {
+
+    private Distributions() {
+    }
+
+    public static Distribution constant(double value) {
+        return random -> value;
+    }
+
+    public static Distribution uniform(double min, double max) {
+        if (!(max > min)) {
+            throw new IllegalArgumentException("Need min < max: " + min + ", " + max);
+        }
+        return random -> random.nextDouble(min, max);
+    }
+
+    public static Distribution normal(double mean, double stdDev) {
+        return random -> mean + stdDev * gaussian(random);
+    }
+
+    public static Distribution exponential(double mean) {
+        return random -> -mean * Math.log(1.0 - random.nextDouble());
+    }
+
+    public static Distribution logNormal(double mu, double sigma) {
+        return random -> Math.exp(mu + sigma * gaussian(random));
+    }
+
+    // Heavy-tailed: P(X > x) = (scale / x)^alpha for x >= scale. alpha <= 2 has infinite variance.
+    public static Distribution pareto(double scale, double alpha) {
+        if (scale <= 0 || alpha <= 0) {
+            throw new IllegalArgumentException("Pareto scale and alpha must be positive");
+        }
+        return random -> scale / Math.pow(1.0 - random.nextDouble(), 1.0 / alpha);
+    }
+
+    // Draws from first with the given probability, otherwise from second.
+    public static Distribution mixture(double probability, Distribution first, Distribution second) {
+        return random -> random.nextDouble() < probability ? first.sample(random) : second.sample(random);
+    }
+
+    public static Distribution clamp(Distribution source, double min, double max) {
+        return random -> Math.max(min, Math.min(max, source.sample(random)));
+    }
+
+    // Marsaglia polar method; SplittableRandom has no nextGaussian.
+    static double gaussian(SplittableRandom random) {
+        double u;
+        double v;
+        double s;
+        do {
+            u = random.nextDouble() * 2 - 1;
+            v = random.nextDouble() * 2 - 1;
+            s = u * u + v * v;
+        } while (s >= 1 || s == 0);
+        return u * Math.sqrt(-2 * Math.log(s) / s);
+    }
+}
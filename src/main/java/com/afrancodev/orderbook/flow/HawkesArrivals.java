@@ -0,0 +1,42 @@
+package com.afrancodev.orderbook.flow;
+
+import java.util.SplittableRandom;
+
+// Self-exciting arrivals: intensity(t) = baseRate + sum(alpha * exp(-beta * (t - t_i))) over past
+// arrivals t_i, sampled with Ogata thinning. Each order raises the odds of another one soon after,
+// which gives the bursty clustering seen in real flow. Long-run rate is baseRate / (1 - alpha / beta).
+public class HawkesArrivals implements ArrivalProcess {
+
+    private final double baseRate;
+    private final double alpha;
+    private final double beta;
+    private double excitation = 0;
+
+    public HawkesArrivals(double baseRate, double alpha, double beta) {
+        if (baseRate <= 0 || alpha < 0 || beta <= 0 || alpha >= beta) {
+            throw new IllegalArgumentException("Need baseRate > 0, 0 <= alpha < beta for a stationary process");
+        }
+        this.baseRate = baseRate;
+        this.alpha = alpha;
+        this.beta = beta;
+    }
+
+    public double getMeanRate() {
+        return baseRate / (1 - alpha / beta);
+    }
+
+    @Override
+    public double nextInterval(SplittableRandom random) {
+        double t = 0;
+        while (true) {
+            // intensity only decays between arrivals, so its current value bounds what follows
+            double bound = baseRate + excitation * Math.exp(-beta * t);
+            t += -Math.log(1.0 - random.nextDouble()) / bound;
+            double decayed = excitation * Math.exp(-beta * t);
+            if (random.nextDouble() * bound <= baseRate + decayed) {
+                excitation = decayed + alpha;
+                return t;
+            }
+        }
+    }
+}
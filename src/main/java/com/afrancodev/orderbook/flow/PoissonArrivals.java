@@ -0,0 +1,20 @@
+package com.afrancodev.orderbook.flow;
+
+import java.util.SplittableRandom;
+
+public class PoissonArrivals implements ArrivalProcess {
+
+    private final double rate;
+
+    public PoissonArrivals(double ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + ratePerSecond);
+        }
+        this.rate = ratePerSecond;
+    }
+
+    @Override
+    public double nextInterval(SplittableRandom random) {
+        return -Math.log(1.0 - random.nextDouble()) / rate;
+    }
+}
@@ -0,0 +1,38 @@
+package com.afrancodev.orderbook.metrics;
+
+import java.io.PrintStream;
+
+import com.afrancodev.orderbook.metrics.EngineMetrics.Counter;
+import com.afrancodev.orderbook.metrics.EngineMetrics.Stage;
+
+public class ConsoleReporter implements MetricsReporter {
+
+    private final PrintStream out;
+
+    public ConsoleReporter() {
+        this(System.out);
+    }
+
+    public ConsoleReporter(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void report(MetricsSnapshot snapshot) {
+        StringBuilder line = new StringBuilder();
+        line.append(String.format("[metrics %.1fs]", snapshot.getIntervalNanos() / 1e9));
+        for (Counter counter : EngineMetrics.COUNTERS) {
+            line.append(String.format(" %s %,.0f/s", counter.name().toLowerCase(), snapshot.getRate(counter)));
+        }
+        out.println(line);
+        for (Stage stage : EngineMetrics.STAGES) {
+            LatencyHistogram latency = snapshot.getLatency(stage);
+            if (latency.getTotalCount() == 0) {
+                continue;
+            }
+            out.printf("  %-9s n=%,d  p50 %,d  p99 %,d  p99.9 %,d  max %,d ns%n", stage.name().toLowerCase(),
+                    latency.getTotalCount(), latency.getValueAtPercentile(50), latency.getValueAtPercentile(99),
+                    latency.getValueAtPercentile(99.9), latency.getMax());
+        }
+    }
+}
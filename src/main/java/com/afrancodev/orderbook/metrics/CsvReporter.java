@@ -0,0 +1,66 @@
+package com.afrancodev.orderbook.metrics;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.afrancodev.orderbook.metrics.EngineMetrics.Counter;
+import com.afrancodev.orderbook.metrics.EngineMetrics.Stage;
+
+// One row per interval: timestamp, interval length, each counter's delta, then count, p50, p99,
+// p99.9 and max for each stage.
+public class CsvReporter implements MetricsReporter, Closeable {
+
+    private final BufferedWriter writer;
+
+    public CsvReporter(Path path) throws IOException {
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII);
+        StringBuilder header = new StringBuilder("timestamp_ms,interval_ns");
+        for (Counter counter : EngineMetrics.COUNTERS) {
+            header.append(',').append(counter.name().toLowerCase());
+        }
+        for (Stage stage : EngineMetrics.STAGES) {
+            String name = stage.name().toLowerCase();
+            header.append(',').append(name).append("_count")
+                    .append(',').append(name).append("_p50")
+                    .append(',').append(name).append("_p99")
+                    .append(',').append(name).append("_p999")
+                    .append(',').append(name).append("_max");
+        }
+        writer.write(header.toString());
+        writer.newLine();
+        writer.flush();
+    }
+
+    @Override
+    public void report(MetricsSnapshot snapshot) {
+        StringBuilder row = new StringBuilder();
+        row.append(snapshot.getTimestampMillis()).append(',').append(snapshot.getIntervalNanos());
+        for (Counter counter : EngineMetrics.COUNTERS) {
+            row.append(',').append(snapshot.getCount(counter));
+        }
+        for (Stage stage : EngineMetrics.STAGES) {
+            LatencyHistogram latency = snapshot.getLatency(stage);
+            row.append(',').append(latency.getTotalCount())
+                    .append(',').append(latency.getValueAtPercentile(50))
+                    .append(',').append(latency.getValueAtPercentile(99))
+                    .append(',').append(latency.getValueAtPercentile(99.9))
+                    .append(',').append(latency.getMax());
+        }
+        try {
+            writer.write(row.toString());
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write metrics row", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
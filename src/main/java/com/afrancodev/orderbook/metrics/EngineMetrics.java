@@ -0,0 +1,66 @@
+package com.afrancodev.orderbook.metrics;
+
+import java.util.Arrays;
+
+// Per-stage latency histograms and event counters for one order book. Recording is done by the
+// single writer (under the book's lock) and never allocates. A reader collects an interval by calling
+// rotate() while the writer is excluded, then drainTo() outside the lock; only one reader may do so.
+public class EngineMetrics {
+
+    public enum Stage {
+        INGEST, MATCH, EXPIRE, SAMPLE, PUBLISH, LOCK_WAIT
+    }
+
+    public enum Counter {
+        ORDERS, CANCELS, MODIFIES, FILLS, FILLED_QUANTITY, EXPIRATIONS
+    }
+
+    static final Stage[] STAGES = Stage.values();
+    static final Counter[] COUNTERS = Counter.values();
+
+    private Interval active = new Interval();
+    private Interval spare = new Interval();
+    private long lastRotation = System.nanoTime();
+    private long rotatedAt = lastRotation;
+
+    public void record(Stage stage, long nanos) {
+        active.histograms[stage.ordinal()].record(nanos);
+    }
+
+    public void increment(Counter counter) {
+        active.counts[counter.ordinal()]++;
+    }
+
+    public void add(Counter counter, long amount) {
+        active.counts[counter.ordinal()] += amount;
+    }
+
+    // Swaps the recording interval; the caller must hold whatever excludes the writer.
+    public void rotate() {
+        Interval finished = active;
+        active = spare;
+        spare = finished;
+        lastRotation = rotatedAt;
+        rotatedAt = System.nanoTime();
+    }
+
+    // Moves the interval closed by the last rotate() into the snapshot and clears it for reuse.
+    public void drainTo(MetricsSnapshot snapshot) {
+        snapshot.load(spare.histograms, spare.counts, rotatedAt - lastRotation);
+        for (LatencyHistogram histogram : spare.histograms) {
+            histogram.reset();
+        }
+        Arrays.fill(spare.counts, 0);
+    }
+
+    private static final class Interval {
+        final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+        final long[] counts = new long[COUNTERS.length];
+
+        Interval() {
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+        }
+    }
+}
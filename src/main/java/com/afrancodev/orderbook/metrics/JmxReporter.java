@@ -0,0 +1,143 @@
+package com.afrancodev.orderbook.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.afrancodev.orderbook.metrics.EngineMetrics.Counter;
+import com.afrancodev.orderbook.metrics.EngineMetrics.Stage;
+
+// Exposes the latest interval as read-only attributes of com.afrancodev.orderbook:type=EngineMetrics,name=...
+// e.g. ordersRate, ordersTotal, matchP99, lockWaitMax.
+public class JmxReporter implements MetricsReporter, DynamicMBean, AutoCloseable {
+
+    private static final String[] STAGE_FIELDS = {"Count", "P50", "P99", "P999", "Max"};
+
+    private final ObjectName objectName;
+    private final MBeanServer server;
+    private final MBeanInfo info;
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private volatile double[] values;
+
+    public JmxReporter(String name) {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (Counter counter : EngineMetrics.COUNTERS) {
+            attribute(attributes, camel(counter.name()) + "Rate", "Per second over the last interval");
+            attribute(attributes, camel(counter.name()) + "Total", "Since the first interval");
+        }
+        for (Stage stage : EngineMetrics.STAGES) {
+            for (String field : STAGE_FIELDS) {
+                attribute(attributes, camel(stage.name()) + field, "Last interval, nanoseconds");
+            }
+        }
+        this.values = new double[attributes.size()];
+        this.info = new MBeanInfo(getClass().getName(), "Order book engine metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        this.server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            this.objectName = new ObjectName("com.afrancodev.orderbook:type=EngineMetrics,name=" + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register metrics MBean " + name, e);
+        }
+    }
+
+    private void attribute(List<MBeanAttributeInfo> attributes, String name, String description) {
+        indexes.put(name, attributes.size());
+        attributes.add(new MBeanAttributeInfo(name, "double", description, true, false, false));
+    }
+
+    private static String camel(String constant) {
+        StringBuilder name = new StringBuilder();
+        for (String part : constant.toLowerCase().split("_")) {
+            name.append(name.length() == 0 ? part : Character.toUpperCase(part.charAt(0)) + part.substring(1));
+        }
+        return name.toString();
+    }
+
+    @Override
+    public void report(MetricsSnapshot snapshot) {
+        double[] next = new double[values.length];
+        int i = 0;
+        for (Counter counter : EngineMetrics.COUNTERS) {
+            next[i++] = snapshot.getRate(counter);
+            next[i++] = snapshot.getTotal(counter);
+        }
+        for (Stage stage : EngineMetrics.STAGES) {
+            LatencyHistogram latency = snapshot.getLatency(stage);
+            next[i++] = latency.getTotalCount();
+            next[i++] = latency.getValueAtPercentile(50);
+            next[i++] = latency.getValueAtPercentile(99);
+            next[i++] = latency.getValueAtPercentile(99.9);
+            next[i++] = latency.getMax();
+        }
+        values = next;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Integer index = indexes.get(attribute);
+        if (index == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return values[index];
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        double[] current = values;
+        for (String attribute : attributes) {
+            Integer index = indexes.get(attribute);
+            if (index != null) {
+                list.add(new Attribute(attribute, current[index]));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics attributes are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException(actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        return info;
+    }
+
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public void close() {
+        try {
+            server.unregisterMBean(objectName);
+        } catch (JMException e) {
+            // already gone
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.afrancodev.orderbook.metrics;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Samples a source on its own daemon thread every interval and hands the snapshot to each reporter.
+// The writer only pays for a pointer swap under its lock once per interval.
+public class MetricsPublisher implements AutoCloseable {
+
+    private final MetricsSource source;
+    private final MetricsReporter[] reporters;
+    private final MetricsSnapshot snapshot = new MetricsSnapshot();
+    private final ScheduledExecutorService scheduler;
+    private final long intervalMillis;
+
+    public MetricsPublisher(MetricsSource source, long intervalMillis, MetricsReporter... reporters) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Interval must be positive: " + intervalMillis);
+        }
+        this.source = source;
+        this.intervalMillis = intervalMillis;
+        this.reporters = reporters.clone();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        scheduler.scheduleAtFixedRate(this::publish, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void publish() {
+        if (!source.sample(snapshot)) {
+            return;
+        }
+        for (MetricsReporter reporter : reporters) {
+            reporter.report(snapshot);
+        }
+    }
+
+    // Stops the schedule and publishes whatever was recorded since the last interval.
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(intervalMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        publish();
+    }
+}
@@ -0,0 +1,8 @@
+package com.afrancodev.orderbook.metrics;
+
+// Called on the publisher thread once per interval. The snapshot is reused, so implementations must
+// copy anything they keep.
+public interface MetricsReporter {
+
+    void report(MetricsSnapshot snapshot);
+}
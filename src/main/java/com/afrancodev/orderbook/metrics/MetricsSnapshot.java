@@ -0,0 +1,64 @@
+package com.afrancodev.orderbook.metrics;
+
+import com.afrancodev.orderbook.metrics.EngineMetrics.Counter;
+import com.afrancodev.orderbook.metrics.EngineMetrics.Stage;
+
+// One reporting interval: stage latencies and counter deltas, plus counter totals since the first
+// interval. Reused across intervals by the reader.
+public class MetricsSnapshot {
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[EngineMetrics.STAGES.length];
+    private final long[] counts = new long[EngineMetrics.COUNTERS.length];
+    private final long[] totals = new long[EngineMetrics.COUNTERS.length];
+    private long intervalNanos;
+    private long timestampMillis;
+    private long intervals = 0;
+
+    public MetricsSnapshot() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    void load(LatencyHistogram[] source, long[] sourceCounts, long intervalNanos) {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i].reset();
+            histograms[i].add(source[i]);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = sourceCounts[i];
+            totals[i] += sourceCounts[i];
+        }
+        this.intervalNanos = intervalNanos;
+        this.timestampMillis = System.currentTimeMillis();
+        this.intervals++;
+    }
+
+    public LatencyHistogram getLatency(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    public long getCount(Counter counter) {
+        return counts[counter.ordinal()];
+    }
+
+    public long getTotal(Counter counter) {
+        return totals[counter.ordinal()];
+    }
+
+    public double getRate(Counter counter) {
+        return intervalNanos == 0 ? 0 : counts[counter.ordinal()] * 1e9 / intervalNanos;
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public long getIntervals() {
+        return intervals;
+    }
+}
@@ -0,0 +1,8 @@
+package com.afrancodev.orderbook.metrics;
+
+// Something that can close its current metrics interval into a snapshot, e.g. OrderBook::sampleMetrics.
+// Returns false when metrics are not enabled.
+public interface MetricsSource {
+
+    boolean sample(MetricsSnapshot into);
+}
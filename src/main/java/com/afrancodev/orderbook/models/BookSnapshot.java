@@ -0,0 +1,94 @@
+package com.afrancodev.orderbook.models;
+
+public class BookSnapshot {
+
+    private final long sequence;
+    private final Instrument instrument;
+    private final long bestBidTicks;
+    private final long bestAskTicks;
+    private final PriceLevelData bidLevels;
+    private final PriceLevelData askLevels;
+    private final double[] bidHistory;
+    private final double[] askHistory;
+    private final double[] midHistory;
+    private final long firstSampleIndex;
+
+    public BookSnapshot(long sequence, Instrument instrument, long bestBidTicks, long bestAskTicks,
+                        PriceLevelData bidLevels, PriceLevelData askLevels,
+                        double[] bidHistory, double[] askHistory, double[] midHistory, long firstSampleIndex) {
+        this.sequence = sequence;
+        this.instrument = instrument;
+        this.bestBidTicks = bestBidTicks;
+        this.bestAskTicks = bestAskTicks;
+        this.bidLevels = bidLevels;
+        this.askLevels = askLevels;
+        this.bidHistory = bidHistory;
+        this.askHistory = askHistory;
+        this.midHistory = midHistory;
+        this.firstSampleIndex = firstSampleIndex;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Instrument getInstrument() {
+        return instrument;
+    }
+
+    public long getBestBidTicks() {
+        return bestBidTicks;
+    }
+
+    public long getBestAskTicks() {
+        return bestAskTicks;
+    }
+
+    public boolean hasBid() {
+        return bidLevels.size() > 0;
+    }
+
+    public boolean hasAsk() {
+        return askLevels.size() > 0;
+    }
+
+    public double getCurrentBid() {
+        return hasBid() ? instrument.toPrice(bestBidTicks) : Double.NaN;
+    }
+
+    public double getCurrentAsk() {
+        return hasAsk() ? instrument.toPrice(bestAskTicks) : Double.NaN;
+    }
+
+    public double getCurrentMid() {
+        return (getCurrentBid() + getCurrentAsk()) / 2;
+    }
+
+    public PriceLevelData getBidLevels() {
+        return bidLevels;
+    }
+
+    public PriceLevelData getAskLevels() {
+        return askLevels;
+    }
+
+    public double[] getBidHistory() {
+        return bidHistory;
+    }
+
+    public double[] getAskHistory() {
+        return askHistory;
+    }
+
+    public double[] getMidHistory() {
+        return midHistory;
+    }
+
+    public int getHistorySize() {
+        return midHistory.length;
+    }
+
+    public long getFirstSampleIndex() {
+        return firstSampleIndex;
+    }
+}
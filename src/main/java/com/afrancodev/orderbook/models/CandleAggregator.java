@@ -0,0 +1,106 @@
+package com.afrancodev.orderbook.models;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+
+// Streaming OHLCV bars at several resolutions. Trades only touch the finest series; each coarser
+// series is built by folding in the finer series' bars as they close, so every update is O(levels).
+// One thread updates; getCandles may run on any thread, retrying under a seqlock like TopOfBook's.
+public class CandleAggregator {
+
+    public static final long[] DEFAULT_RESOLUTIONS = {
+            TimeUnit.SECONDS.toMillis(1),
+            TimeUnit.SECONDS.toMillis(10),
+            TimeUnit.MINUTES.toMillis(1),
+            TimeUnit.HOURS.toMillis(1)
+    };
+
+    private final CandleSeries[] series;
+    private volatile long version = 0;
+
+    public CandleAggregator(long[] resolutionsMillis, int capacity) {
+        if (resolutionsMillis.length == 0) {
+            throw new IllegalArgumentException("At least one resolution is required");
+        }
+        series = new CandleSeries[resolutionsMillis.length];
+        for (int i = 0; i < resolutionsMillis.length; i++) {
+            if (i > 0 && resolutionsMillis[i] % resolutionsMillis[i - 1] != 0) {
+                throw new IllegalArgumentException("Resolution " + resolutionsMillis[i]
+                        + " ms is not a multiple of " + resolutionsMillis[i - 1] + " ms");
+            }
+            series[i] = new CandleSeries(resolutionsMillis[i], capacity);
+        }
+    }
+
+    public int getResolutionCount() {
+        return series.length;
+    }
+
+    public long getResolutionMillis(int level) {
+        return series[level].getResolutionMillis();
+    }
+
+    public void onTrade(long timeMillis, long priceTicks, int quantity) {
+        long v = begin();
+        closeBars(timeMillis);
+        CandleSeries finest = series[0];
+        finest.trade(finest.bucketOf(timeMillis), priceTicks, quantity);
+        version = v + 2;
+    }
+
+    // Closes every bar whose period ended before timeMillis, even when no trade arrives to do it.
+    public void advance(long timeMillis) {
+        long v = begin();
+        closeBars(timeMillis);
+        version = v + 2;
+    }
+
+    private long begin() {
+        long v = version;
+        version = v + 1;
+        // Keep the bar updates from moving ahead of the odd version.
+        VarHandle.storeStoreFence();
+        return v;
+    }
+
+    private void closeBars(long timeMillis) {
+        for (int level = 0; level < series.length; level++) {
+            CandleSeries current = series[level];
+            if (current.hasOpenBar() && timeMillis >= current.getOpenBarStart() + current.getResolutionMillis()) {
+                close(level);
+            }
+        }
+    }
+
+    private void close(int level) {
+        CandleSeries current = series[level];
+        current.closeBar();
+        if (level + 1 < series.length) {
+            CandleSeries coarser = series[level + 1];
+            if (coarser.hasOpenBar() && coarser.getOpenBarStart() != coarser.bucketOf(current.getLastClosedStart())) {
+                close(level + 1);
+            }
+            current.foldLastClosedInto(coarser);
+        }
+    }
+
+    // The most recent bars at one resolution; the last one is still forming and already includes
+    // trades that the finer series have not folded up yet.
+    public CandleData getCandles(int level, int maxBars, Instrument instrument) {
+        while (true) {
+            long v = version;
+            if ((v & 1) == 0) {
+                CandleSeries live = new CandleSeries(series[level].getResolutionMillis(), 1);
+                for (int i = level; i >= 0; i--) {
+                    series[i].foldOpenInto(live);
+                }
+                CandleData data = series[level].copy(maxBars, live, instrument);
+                VarHandle.loadLoadFence();
+                if (version == v) {
+                    return data;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
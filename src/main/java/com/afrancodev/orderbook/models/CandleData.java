@@ -0,0 +1,55 @@
+package com.afrancodev.orderbook.models;
+
+public class CandleData {
+    public final long resolutionMillis;
+    public final long[] startMillis;
+    public final long[] openTicks;
+    public final long[] highTicks;
+    public final long[] lowTicks;
+    public final long[] closeTicks;
+    public final long[] volumes;
+    public final int[] tradeCounts;
+    private final Instrument instrument;
+
+    public CandleData(int size, long resolutionMillis, Instrument instrument) {
+        this.resolutionMillis = resolutionMillis;
+        this.startMillis = new long[size];
+        this.openTicks = new long[size];
+        this.highTicks = new long[size];
+        this.lowTicks = new long[size];
+        this.closeTicks = new long[size];
+        this.volumes = new long[size];
+        this.tradeCounts = new int[size];
+        this.instrument = instrument;
+    }
+
+    void set(int index, long start, long open, long high, long low, long close, long volume, int trades) {
+        startMillis[index] = start;
+        openTicks[index] = open;
+        highTicks[index] = high;
+        lowTicks[index] = low;
+        closeTicks[index] = close;
+        volumes[index] = volume;
+        tradeCounts[index] = trades;
+    }
+
+    public int size() {
+        return startMillis.length;
+    }
+
+    public double getOpen(int index) {
+        return instrument.toPrice(openTicks[index]);
+    }
+
+    public double getHigh(int index) {
+        return instrument.toPrice(highTicks[index]);
+    }
+
+    public double getLow(int index) {
+        return instrument.toPrice(lowTicks[index]);
+    }
+
+    public double getClose(int index) {
+        return instrument.toPrice(closeTicks[index]);
+    }
+}
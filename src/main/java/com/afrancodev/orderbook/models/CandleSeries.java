@@ -0,0 +1,128 @@
+package com.afrancodev.orderbook.models;
+
+// OHLCV bars at one resolution: a ring of closed bars plus the bar currently being built.
+public class CandleSeries {
+
+    private final long resolutionMillis;
+    private final long[] starts;
+    private final long[] opens;
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] closes;
+    private final long[] volumes;
+    private final int[] tradeCounts;
+    private long closed = 0;
+
+    private boolean open = false;
+    private long start;
+    private long openTicks;
+    private long high;
+    private long low;
+    private long close;
+    private long volume;
+    private int trades;
+
+    public CandleSeries(long resolutionMillis, int capacity) {
+        if (resolutionMillis <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Resolution and capacity must be positive");
+        }
+        this.resolutionMillis = resolutionMillis;
+        this.starts = new long[capacity];
+        this.opens = new long[capacity];
+        this.highs = new long[capacity];
+        this.lows = new long[capacity];
+        this.closes = new long[capacity];
+        this.volumes = new long[capacity];
+        this.tradeCounts = new int[capacity];
+    }
+
+    public long getResolutionMillis() {
+        return resolutionMillis;
+    }
+
+    public long bucketOf(long timeMillis) {
+        return Math.floorDiv(timeMillis, resolutionMillis) * resolutionMillis;
+    }
+
+    public boolean hasOpenBar() {
+        return open;
+    }
+
+    public long getOpenBarStart() {
+        return start;
+    }
+
+    // Number of closed bars still held, oldest first.
+    public int size() {
+        return (int) Math.min(closed, starts.length);
+    }
+
+    void trade(long bucket, long priceTicks, int quantity) {
+        merge(bucket, priceTicks, priceTicks, priceTicks, priceTicks, quantity, 1);
+    }
+
+    // Folds a bar (a trade, or a closed bar from a finer series) into the open bar. The caller has
+    // already closed any open bar from an earlier bucket.
+    void merge(long bucket, long o, long h, long l, long c, long v, int n) {
+        if (!open) {
+            open = true;
+            start = bucket;
+            openTicks = o;
+            high = h;
+            low = l;
+            volume = 0;
+            trades = 0;
+        } else {
+            high = Math.max(high, h);
+            low = Math.min(low, l);
+        }
+        close = c;
+        volume += v;
+        trades += n;
+    }
+
+    void closeBar() {
+        int slot = (int) (closed % starts.length);
+        starts[slot] = start;
+        opens[slot] = openTicks;
+        highs[slot] = high;
+        lows[slot] = low;
+        closes[slot] = close;
+        volumes[slot] = volume;
+        tradeCounts[slot] = trades;
+        closed++;
+        open = false;
+    }
+
+    long getLastClosedStart() {
+        return starts[(int) ((closed - 1) % starts.length)];
+    }
+
+    void foldLastClosedInto(CandleSeries coarser) {
+        int slot = (int) ((closed - 1) % starts.length);
+        coarser.merge(coarser.bucketOf(starts[slot]), opens[slot], highs[slot], lows[slot], closes[slot],
+                volumes[slot], tradeCounts[slot]);
+    }
+
+    void foldOpenInto(CandleSeries target) {
+        if (open) {
+            target.merge(target.bucketOf(start), openTicks, high, low, close, volume, trades);
+        }
+    }
+
+    // Copies up to maxBars of the most recent closed bars, followed by live if it has an open bar.
+    CandleData copy(int maxBars, CandleSeries live, Instrument instrument) {
+        boolean withLive = live.open;
+        int count = Math.min(size(), Math.max(0, maxBars - (withLive ? 1 : 0)));
+        int total = count + (withLive ? 1 : 0);
+        CandleData data = new CandleData(total, resolutionMillis, instrument);
+        for (int i = 0; i < count; i++) {
+            int slot = (int) ((closed - count + i) % starts.length);
+            data.set(i, starts[slot], opens[slot], highs[slot], lows[slot], closes[slot], volumes[slot], tradeCounts[slot]);
+        }
+        if (withLive) {
+            data.set(count, live.start, live.openTicks, live.high, live.low, live.close, live.volume, live.trades);
+        }
+        return data;
+    }
+}
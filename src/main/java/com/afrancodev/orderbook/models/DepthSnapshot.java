@@ -0,0 +1,26 @@
+package com.afrancodev.orderbook.models;
+
+public class DepthSnapshot {
+
+    private final long sequence;
+    private final PriceLevelData bids;
+    private final PriceLevelData asks;
+
+    public DepthSnapshot(long sequence, PriceLevelData bids, PriceLevelData asks) {
+        this.sequence = sequence;
+        this.bids = bids;
+        this.asks = asks;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public PriceLevelData getBids() {
+        return bids;
+    }
+
+    public PriceLevelData getAsks() {
+        return asks;
+    }
+}
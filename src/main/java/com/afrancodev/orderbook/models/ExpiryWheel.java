@@ -0,0 +1,106 @@
+package com.afrancodev.orderbook.models;
+
+import java.util.function.Consumer;
+
+public class ExpiryWheel {
+
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY = 1L << (SLOT_BITS * LEVELS);
+
+    private final Order[] slots = new Order[SLOTS * LEVELS];
+    private long now = 0;
+    private int size = 0;
+
+    public long getNow() {
+        return now;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void schedule(Order order, long expiryTick) {
+        long delay = Math.min(Math.max(expiryTick - now, 1), MAX_DELAY - 1);
+        order.expiryTick = now + delay;
+        place(order);
+        size++;
+    }
+
+    public void cancel(Order order) {
+        if (order.wheelSlot < 0) {
+            return;
+        }
+        unlink(order);
+        size--;
+    }
+
+    public int advance(Consumer<Order> onExpire) {
+        now++;
+
+        int top = 0;
+        while (top < LEVELS - 1 && (now & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        for (int level = top; level >= 1; level--) {
+            cascade(level * SLOTS + (int) ((now >>> (level * SLOT_BITS)) & SLOT_MASK));
+        }
+
+        int slot = (int) (now & SLOT_MASK);
+        Order order = slots[slot];
+        slots[slot] = null;
+        int expired = 0;
+        while (order != null) {
+            Order next = order.wheelNext;
+            order.wheelSlot = -1;
+            order.wheelPrev = null;
+            order.wheelNext = null;
+            size--;
+            expired++;
+            onExpire.accept(order);
+            order = next;
+        }
+        return expired;
+    }
+
+    private void cascade(int slot) {
+        Order order = slots[slot];
+        slots[slot] = null;
+        while (order != null) {
+            Order next = order.wheelNext;
+            place(order);
+            order = next;
+        }
+    }
+
+    private void place(Order order) {
+        long delay = order.expiryTick - now;
+        int level = (63 - Long.numberOfLeadingZeros(delay)) / SLOT_BITS;
+        int slot = level * SLOTS + (int) ((order.expiryTick >>> (level * SLOT_BITS)) & SLOT_MASK);
+
+        Order head = slots[slot];
+        order.wheelSlot = slot;
+        order.wheelPrev = null;
+        order.wheelNext = head;
+        if (head != null) {
+            head.wheelPrev = order;
+        }
+        slots[slot] = order;
+    }
+
+    private void unlink(Order order) {
+        if (order.wheelPrev == null) {
+            slots[order.wheelSlot] = order.wheelNext;
+        } else {
+            order.wheelPrev.wheelNext = order.wheelNext;
+        }
+        if (order.wheelNext != null) {
+            order.wheelNext.wheelPrev = order.wheelPrev;
+        }
+        order.wheelSlot = -1;
+        order.wheelPrev = null;
+        order.wheelNext = null;
+    }
+}
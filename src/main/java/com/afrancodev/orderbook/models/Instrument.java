@@ -0,0 +1,38 @@
+package com.afrancodev.orderbook.models;
+
+public class Instrument {
+
+    private final String symbol;
+    private final double tickSize;
+    private final double ticksPerUnit;
+
+    public Instrument(String symbol, double tickSize) {
+        if (!(tickSize > 0)) {
+            throw new IllegalArgumentException("Tick size must be positive: " + tickSize);
+        }
+        this.symbol = symbol;
+        this.tickSize = tickSize;
+        this.ticksPerUnit = 1.0 / tickSize;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public double getTickSize() {
+        return tickSize;
+    }
+
+    public long toTicks(double price) {
+        return Math.round(price * ticksPerUnit);
+    }
+
+    public double toPrice(long ticks) {
+        return ticks / ticksPerUnit;
+    }
+
+    @Override
+    public String toString() {
+        return symbol + " (tick " + tickSize + ")";
+    }
+}
@@ -0,0 +1,105 @@
+package com.afrancodev.orderbook.models;
+
+// Caller-owned L2 buffer: the top price levels of each side, best first, with visible quantity and
+// order count. OrderBook.getTopLevels(buffer) and OrderBook.snapshot(depth, buffer) refill it in
+// place, so polling allocates nothing. Not thread-safe; keep one per reader.
+public class LevelBuffer {
+
+    private final long[] bidTicks;
+    private final long[] bidQuantities;
+    private final int[] bidOrderCounts;
+    private final long[] askTicks;
+    private final long[] askQuantities;
+    private final int[] askOrderCounts;
+    private int bidCount;
+    private int askCount;
+    private long sequence;
+
+    public LevelBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.bidTicks = new long[capacity];
+        this.bidQuantities = new long[capacity];
+        this.bidOrderCounts = new int[capacity];
+        this.askTicks = new long[capacity];
+        this.askQuantities = new long[capacity];
+        this.askOrderCounts = new int[capacity];
+    }
+
+    public int capacity() {
+        return bidTicks.length;
+    }
+
+    // Depth sequence of the book when it was copied (see DepthListener).
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getBidCount() {
+        return bidCount;
+    }
+
+    public int getAskCount() {
+        return askCount;
+    }
+
+    public long getBidTicks(int index) {
+        return bidTicks[index];
+    }
+
+    public long getBidQuantity(int index) {
+        return bidQuantities[index];
+    }
+
+    public int getBidOrderCount(int index) {
+        return bidOrderCounts[index];
+    }
+
+    public long getAskTicks(int index) {
+        return askTicks[index];
+    }
+
+    public long getAskQuantity(int index) {
+        return askQuantities[index];
+    }
+
+    public int getAskOrderCount(int index) {
+        return askOrderCounts[index];
+    }
+
+    // Called by the book while filling.
+    public void clear(long sequence) {
+        this.sequence = sequence;
+        bidCount = 0;
+        askCount = 0;
+    }
+
+    // Copies as many of the source's levels as fit. The source may be mid-publish (see TopLevels),
+    // so its counts are clamped rather than trusted.
+    public void copyFrom(LevelBuffer from) {
+        sequence = from.sequence;
+        bidCount = Math.min(from.bidCount, capacity());
+        askCount = Math.min(from.askCount, capacity());
+        System.arraycopy(from.bidTicks, 0, bidTicks, 0, bidCount);
+        System.arraycopy(from.bidQuantities, 0, bidQuantities, 0, bidCount);
+        System.arraycopy(from.bidOrderCounts, 0, bidOrderCounts, 0, bidCount);
+        System.arraycopy(from.askTicks, 0, askTicks, 0, askCount);
+        System.arraycopy(from.askQuantities, 0, askQuantities, 0, askCount);
+        System.arraycopy(from.askOrderCounts, 0, askOrderCounts, 0, askCount);
+    }
+
+    public void addLevel(boolean isBuy, long priceTicks, long quantity, int orderCount) {
+        if (isBuy) {
+            bidTicks[bidCount] = priceTicks;
+            bidQuantities[bidCount] = quantity;
+            bidOrderCounts[bidCount] = orderCount;
+            bidCount++;
+        } else {
+            askTicks[askCount] = priceTicks;
+            askQuantities[askCount] = quantity;
+            askOrderCounts[askCount] = orderCount;
+            askCount++;
+        }
+    }
+}
@@ -2,26 +2,69 @@ package com.afrancodev.orderbook.models;
 
 public class Order {
 
-    private final boolean isBuy;
-    private final double price;
-    private final boolean marketOrder;
+    private long id;
+    private boolean isBuy;
+    private long priceTicks;
+    private boolean marketOrder;
     private int quantity;
     private int age;
 
-    public Order(boolean isBuy, double price, int quantity, boolean isMarketOrder, int age) {
+    private TimeInForce timeInForce;
+    private boolean postOnly;
+    private boolean stop;
+    private long stopTicks;
+    private int displayQuantity;
+    private int hiddenQuantity;
+
+    PriceLevel level;
+    Order prev;
+    Order next;
+
+    long expiryTick;
+    int wheelSlot = -1;
+    Order wheelPrev;
+    Order wheelNext;
+    int slot;
+
+    public Order(boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age) {
+        init(isBuy, priceTicks, quantity, isMarketOrder, age);
+    }
+
+    void init(boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age) {
+        this.id = 0;
         this.isBuy = isBuy;
-        this.price = price;
+        this.priceTicks = priceTicks;
         this.quantity = quantity;
         this.marketOrder = isMarketOrder;
         this.age = age;
+        this.timeInForce = TimeInForce.GTC;
+        this.postOnly = false;
+        this.stop = false;
+        this.stopTicks = 0;
+        this.displayQuantity = 0;
+        this.hiddenQuantity = 0;
+        this.expiryTick = 0;
+        this.wheelSlot = -1;
+        this.slot = 0;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void assignId(long id) {
+        if (this.id != 0) {
+            throw new IllegalStateException("Order already has id " + this.id);
+        }
+        this.id = id;
     }
 
     public boolean isBuy() {
         return isBuy;
     }
 
-    public double getPrice() {
-        return price;
+    public long getPriceTicks() {
+        return priceTicks;
     }
 
     public int getQuantity() {
@@ -32,20 +75,126 @@ public class Order {
         this.quantity -= amount;
     }
 
+    // For icebergs the new quantity is the total, split again into a displayed slice and reserve.
+    public void amend(long priceTicks, int quantity) {
+        if (isResting()) {
+            throw new IllegalStateException("Cannot amend an order while it rests in the book: " + this);
+        }
+        this.priceTicks = priceTicks;
+        this.quantity = quantity;
+        this.hiddenQuantity = 0;
+        split();
+    }
+
+    public TimeInForce getTimeInForce() {
+        return timeInForce;
+    }
+
+    public void setTimeInForce(TimeInForce timeInForce) {
+        checkNotPlaced();
+        this.timeInForce = timeInForce;
+    }
+
+    public boolean isPostOnly() {
+        return postOnly;
+    }
+
+    // A post-only order is rejected instead of taking liquidity if it would cross on arrival.
+    public void setPostOnly(boolean postOnly) {
+        checkNotPlaced();
+        this.postOnly = postOnly;
+    }
+
+    // True while a stop order waits for its trigger; a market order becomes a stop-market order,
+    // a limit order a stop-limit order.
+    public boolean isStop() {
+        return stop;
+    }
+
+    public long getStopTicks() {
+        return stopTicks;
+    }
+
+    public void setStop(long stopTicks) {
+        checkNotPlaced();
+        this.stop = true;
+        this.stopTicks = stopTicks;
+    }
+
+    public void triggerStop() {
+        this.stop = false;
+    }
+
+    public boolean isIceberg() {
+        return displayQuantity > 0;
+    }
+
+    public int getDisplayQuantity() {
+        return displayQuantity;
+    }
+
+    // Shows at most displayQuantity at a time; getQuantity() is the visible slice and the rest is
+    // held in reserve until the slice fills.
+    public void setDisplayQuantity(int displayQuantity) {
+        checkNotPlaced();
+        if (displayQuantity < 0) {
+            throw new IllegalArgumentException("Display quantity must not be negative: " + displayQuantity);
+        }
+        this.quantity += hiddenQuantity;
+        this.hiddenQuantity = 0;
+        this.displayQuantity = displayQuantity;
+        split();
+    }
+
+    public int getHiddenQuantity() {
+        return hiddenQuantity;
+    }
+
+    public int getTotalQuantity() {
+        return quantity + hiddenQuantity;
+    }
+
+    // Moves the next slice from reserve into the visible quantity and returns its size.
+    public int refill() {
+        int slice = Math.min(displayQuantity, hiddenQuantity);
+        hiddenQuantity -= slice;
+        quantity += slice;
+        return slice;
+    }
+
+    private void split() {
+        if (displayQuantity > 0 && quantity > displayQuantity) {
+            hiddenQuantity += quantity - displayQuantity;
+            quantity = displayQuantity;
+        }
+    }
+
+    private void checkNotPlaced() {
+        if (isResting() || wheelSlot >= 0) {
+            throw new IllegalStateException("Order type cannot change once the order is in a book: " + this);
+        }
+    }
+
+    public boolean isResting() {
+        return level != null;
+    }
+
     public boolean isMarketOrder(){
         return this.marketOrder;
     }
 
-    public void decreaseAge() {
-        age--;
+    public int getAge() {
+        return age;
     }
 
-    public boolean isExpired() {
-        return age <= 0;
+    public long getExpiryTick() {
+        return expiryTick;
     }
 
     @Override
     public String toString() {
-        return (marketOrder ? "MARKET " : "LIMIT ") + (isBuy ? "BUY" : "SELL") + " " + quantity + " @ " + price;
+        return "#" + id + " " + (marketOrder ? "MARKET " : "LIMIT ") + (isBuy ? "BUY" : "SELL") + " " + quantity + " @ " + priceTicks
+                + (timeInForce != TimeInForce.GTC ? " " + timeInForce : "") + (postOnly ? " POST-ONLY" : "")
+                + (stop ? " STOP " + stopTicks : "") + (hiddenQuantity > 0 ? " (+" + hiddenQuantity + " hidden)" : "");
     }
 }
@@ -0,0 +1,91 @@
+package com.afrancodev.orderbook.models;
+
+// Caller-owned L3 buffer: the first resting orders of each side in priority order (best price, then
+// arrival), with their visible quantity. OrderBook.snapshot(depth, buffer) refills it in place, so
+// polling allocates nothing. Not thread-safe; keep one per reader.
+public class OrderBuffer {
+
+    private final long[] bidIds;
+    private final long[] bidTicks;
+    private final int[] bidQuantities;
+    private final long[] askIds;
+    private final long[] askTicks;
+    private final int[] askQuantities;
+    private int bidCount;
+    private int askCount;
+    private long sequence;
+
+    public OrderBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.bidIds = new long[capacity];
+        this.bidTicks = new long[capacity];
+        this.bidQuantities = new int[capacity];
+        this.askIds = new long[capacity];
+        this.askTicks = new long[capacity];
+        this.askQuantities = new int[capacity];
+    }
+
+    public int capacity() {
+        return bidIds.length;
+    }
+
+    // Depth sequence of the book when it was copied (see DepthListener).
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getBidCount() {
+        return bidCount;
+    }
+
+    public int getAskCount() {
+        return askCount;
+    }
+
+    public long getBidOrderId(int index) {
+        return bidIds[index];
+    }
+
+    public long getBidTicks(int index) {
+        return bidTicks[index];
+    }
+
+    public int getBidQuantity(int index) {
+        return bidQuantities[index];
+    }
+
+    public long getAskOrderId(int index) {
+        return askIds[index];
+    }
+
+    public long getAskTicks(int index) {
+        return askTicks[index];
+    }
+
+    public int getAskQuantity(int index) {
+        return askQuantities[index];
+    }
+
+    // Called by the book while filling.
+    public void clear(long sequence) {
+        this.sequence = sequence;
+        bidCount = 0;
+        askCount = 0;
+    }
+
+    public void addOrder(boolean isBuy, long orderId, long priceTicks, int quantity) {
+        if (isBuy) {
+            bidIds[bidCount] = orderId;
+            bidTicks[bidCount] = priceTicks;
+            bidQuantities[bidCount] = quantity;
+            bidCount++;
+        } else {
+            askIds[askCount] = orderId;
+            askTicks[askCount] = priceTicks;
+            askQuantities[askCount] = quantity;
+            askCount++;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.afrancodev.orderbook.models;
+
+public class OrderPool {
+
+    private final Order[] free;
+    private int available;
+    private long misses = 0;
+
+    public OrderPool(int capacity) {
+        this.free = new Order[capacity];
+        for (int i = 0; i < capacity; i++) {
+            free[i] = new Order(false, 0, 0, false, 0);
+        }
+        this.available = capacity;
+    }
+
+    public Order acquire(boolean isBuy, long priceTicks, int quantity, boolean isMarketOrder, int age) {
+        if (available == 0) {
+            misses++;
+            return new Order(isBuy, priceTicks, quantity, isMarketOrder, age);
+        }
+        Order order = free[--available];
+        free[available] = null;
+        order.init(isBuy, priceTicks, quantity, isMarketOrder, age);
+        return order;
+    }
+
+    public void release(Order order) {
+        if (order.isResting()) {
+            throw new IllegalStateException("Cannot release an order that is still in the book: " + order);
+        }
+        if (available < free.length) {
+            free[available++] = order;
+        }
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public int getCapacity() {
+        return free.length;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+}
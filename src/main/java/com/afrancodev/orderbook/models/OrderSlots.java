@@ -0,0 +1,51 @@
+package com.afrancodev.orderbook.models;
+
+import java.util.Arrays;
+
+// Small int handles for live orders, so book code written against handles can address heap orders
+// the same way it addresses off-heap ones. Handle 0 is never issued; released handles are reused
+// first, so the tables only grow while the book itself grows.
+public class OrderSlots {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private Order[] orders = new Order[INITIAL_CAPACITY];
+    private int[] free = new int[INITIAL_CAPACITY];
+    private int freeCount = 0;
+    private int used = 1;
+
+    public int register(Order order) {
+        if (order.slot != 0) {
+            throw new IllegalStateException("Order is already registered: " + order);
+        }
+        int handle;
+        if (freeCount > 0) {
+            handle = free[--freeCount];
+        } else {
+            if (used == orders.length) {
+                orders = Arrays.copyOf(orders, used * 2);
+            }
+            handle = used++;
+        }
+        orders[handle] = order;
+        order.slot = handle;
+        return handle;
+    }
+
+    public Order get(int handle) {
+        return orders[handle];
+    }
+
+    public int handleOf(Order order) {
+        return order.slot;
+    }
+
+    public void release(int handle) {
+        orders[handle].slot = 0;
+        orders[handle] = null;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = handle;
+    }
+}
@@ -0,0 +1,240 @@
+package com.afrancodev.orderbook.models;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Ring of samples plus a min/max pyramid. There is one writer; getTotalAdded and downsample may be
+// called from any thread without the writer's lock, retrying under a seqlock like TopOfBook's.
+public class PriceHistory {
+
+    // Pyramid levels hold the min and max of aligned blocks of 4, 8, 16... samples, each level a ring
+    // long enough to cover the retained samples. NaN samples are left out; an all-NaN block has
+    // min +Infinity and max -Infinity.
+    private static final int FIRST_LEVEL_SHIFT = 2;
+
+    private final double[] values;
+    private final double[][] levelMins;
+    private final double[][] levelMaxs;
+    private long added = 0;
+    private volatile long version = 0;
+
+    public PriceHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.values = new double[capacity];
+        int levels = 0;
+        while ((1L << (levels + FIRST_LEVEL_SHIFT)) <= capacity) {
+            levels++;
+        }
+        this.levelMins = new double[levels][];
+        this.levelMaxs = new double[levels][];
+        for (int level = 0; level < levels; level++) {
+            int slots = (capacity >>> (level + FIRST_LEVEL_SHIFT)) + 2;
+            levelMins[level] = new double[slots];
+            levelMaxs[level] = new double[slots];
+        }
+    }
+
+    // O(levels): each level folds the sample into the block it belongs to.
+    public void add(double value) {
+        long v = version;
+        version = v + 1;
+        VarHandle.storeStoreFence();
+        long index = added;
+        values[(int) (index % values.length)] = value;
+        boolean missing = Double.isNaN(value);
+        for (int level = 0; level < levelMins.length; level++) {
+            int shift = level + FIRST_LEVEL_SHIFT;
+            double[] mins = levelMins[level];
+            double[] maxs = levelMaxs[level];
+            int slot = (int) ((index >>> shift) % mins.length);
+            if ((index & ((1L << shift) - 1)) == 0) {
+                mins[slot] = missing ? Double.POSITIVE_INFINITY : value;
+                maxs[slot] = missing ? Double.NEGATIVE_INFINITY : value;
+            } else if (!missing) {
+                if (value < mins[slot]) {
+                    mins[slot] = value;
+                }
+                if (value > maxs[slot]) {
+                    maxs[slot] = value;
+                }
+            }
+        }
+        added = index + 1;
+        version = v + 2;
+    }
+
+    public double get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " outside history of size " + size());
+        }
+        return values[(int) ((firstIndex() + index) % values.length)];
+    }
+
+    public int size() {
+        return (int) Math.min(added, values.length);
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    // Absolute sample number (0-based, counting every add) of get(0).
+    public long firstIndex() {
+        return added - size();
+    }
+
+    public long getTotalAdded() {
+        while (true) {
+            long v = version;
+            long total = added;
+            VarHandle.loadLoadFence();
+            if ((v & 1) == 0 && version == v) {
+                return total;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    // Copies count samples starting at from into dest with at most two arraycopy calls.
+    public void copyRange(int from, int count, double[] dest, int destPos) {
+        if (from < 0 || count < 0 || from + count > size()) {
+            throw new IndexOutOfBoundsException("Range " + from + "+" + count + " outside history of size " + size());
+        }
+        int slot = (int) ((firstIndex() + from) % values.length);
+        int firstPart = Math.min(count, values.length - slot);
+        System.arraycopy(values, slot, dest, destPos, firstPart);
+        System.arraycopy(values, 0, dest, destPos + firstPart, count - firstPart);
+    }
+
+    // Reduces the samples with absolute indices [from, from + count) to at most columns buckets,
+    // writing each bucket's min and max and returning the number of buckets. Whole pyramid blocks no
+    // wider than a bucket are used where they fit, so the cost is O(columns) whatever the count. A
+    // block is credited to the bucket it starts in. Samples not retained, NaN samples and empty
+    // buckets come out as NaN. A pass that overlapped an add is thrown away and redone.
+    public int downsample(long from, long count, int columns, double[] mins, double[] maxs) {
+        if (count <= 0 || columns <= 0) {
+            return 0;
+        }
+        while (true) {
+            long v = version;
+            if ((v & 1) == 0) {
+                int buckets = fold(from, count, columns, mins, maxs);
+                VarHandle.loadLoadFence();
+                if (version == v) {
+                    return buckets;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private int fold(long from, long count, int columns, double[] mins, double[] maxs) {
+        int buckets = (int) Math.min(columns, count);
+        double perBucket = (double) count / buckets;
+        Arrays.fill(mins, 0, buckets, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxs, 0, buckets, Double.NEGATIVE_INFINITY);
+
+        int level = -1;
+        while (level + 1 < levelMins.length && (1L << (level + 1 + FIRST_LEVEL_SHIFT)) <= perBucket) {
+            level++;
+        }
+        long index = Math.max(from, firstIndex());
+        long end = Math.min(from + count, added);
+        if (level >= 0) {
+            int shift = level + FIRST_LEVEL_SHIFT;
+            long blockMask = (1L << shift) - 1;
+            for (; index < end && (index & blockMask) != 0; index++) {
+                foldSample(index, from, perBucket, mins, maxs);
+            }
+            double[] blockMins = levelMins[level];
+            double[] blockMaxs = levelMaxs[level];
+            for (; index + blockMask < end; index += blockMask + 1) {
+                int slot = (int) ((index >>> shift) % blockMins.length);
+                int bucket = (int) ((index - from) / perBucket);
+                mins[bucket] = Math.min(mins[bucket], blockMins[slot]);
+                maxs[bucket] = Math.max(maxs[bucket], blockMaxs[slot]);
+            }
+        }
+        for (; index < end; index++) {
+            foldSample(index, from, perBucket, mins, maxs);
+        }
+
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (mins[bucket] > maxs[bucket]) {
+                mins[bucket] = Double.NaN;
+                maxs[bucket] = Double.NaN;
+            }
+        }
+        return buckets;
+    }
+
+    private void foldSample(long index, long from, double perBucket, double[] mins, double[] maxs) {
+        double value = values[(int) (index % values.length)];
+        if (!Double.isNaN(value)) {
+            int bucket = (int) ((index - from) / perBucket);
+            mins[bucket] = Math.min(mins[bucket], value);
+            maxs[bucket] = Math.max(maxs[bucket], value);
+        }
+    }
+
+    public double[] toArray() {
+        return tail(size());
+    }
+
+    public double[] tail(int count) {
+        int n = Math.min(count, size());
+        double[] copy = new double[n];
+        copyRange(size() - n, n, copy, 0);
+        return copy;
+    }
+
+    public View view() {
+        return new View(firstIndex(), size());
+    }
+
+    public List<Double> toList() {
+        List<Double> list = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            double value = get(i);
+            list.add(Double.isNaN(value) ? null : value);
+        }
+        return list;
+    }
+
+    // Read-only window over the samples present when it was taken, reading straight from the ring.
+    // It goes stale once the writer has wrapped over its first sample; callers on another thread must
+    // hold the same lock as the writer while reading.
+    public class View {
+
+        private final long first;
+        private final int size;
+
+        private View(long first, int size) {
+            this.first = first;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long getFirstIndex() {
+            return first;
+        }
+
+        public double get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " outside view of size " + size);
+            }
+            return values[(int) ((first + index) % values.length)];
+        }
+
+        public boolean isStale() {
+            return added - first > values.length;
+        }
+    }
+}
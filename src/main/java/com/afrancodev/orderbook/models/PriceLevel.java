@@ -0,0 +1,83 @@
+package com.afrancodev.orderbook.models;
+
+public class PriceLevel {
+
+    private final long tick;
+    private Order head;
+    private Order tail;
+    private int orderCount;
+    private long totalQuantity;
+    private long hiddenQuantity;
+
+    public PriceLevel(long tick) {
+        this.tick = tick;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public Order peek() {
+        return head;
+    }
+
+    public boolean isEmpty() {
+        return head == null;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    // Iceberg reserve resting at this price, not included in getTotalQuantity().
+    public long getHiddenQuantity() {
+        return hiddenQuantity;
+    }
+
+    public void append(Order order) {
+        order.level = this;
+        order.prev = tail;
+        order.next = null;
+        if (tail == null) {
+            head = order;
+        } else {
+            tail.next = order;
+        }
+        tail = order;
+        orderCount++;
+        totalQuantity += order.getQuantity();
+        hiddenQuantity += order.getHiddenQuantity();
+    }
+
+    public void remove(Order order) {
+        if (order.prev == null) {
+            head = order.next;
+        } else {
+            order.prev.next = order.next;
+        }
+        if (order.next == null) {
+            tail = order.prev;
+        } else {
+            order.next.prev = order.prev;
+        }
+        order.level = null;
+        order.prev = null;
+        order.next = null;
+        orderCount--;
+        totalQuantity -= order.getQuantity();
+        hiddenQuantity -= order.getHiddenQuantity();
+    }
+
+    public void reduce(Order order, int amount) {
+        order.reduceQuantity(amount);
+        totalQuantity -= amount;
+    }
+
+    public Order next(Order order) {
+        return order.next;
+    }
+}
@@ -1,13 +1,21 @@
 package com.afrancodev.orderbook.models;
 
-import java.util.List;
-
 public class PriceLevelData {
-    public final List<Double> prices;
-    public final List<Integer> quantities;
+    public final long[] priceTicks;
+    public final int[] quantities;
+    private final Instrument instrument;
 
-    public PriceLevelData(List<Double> prices, List<Integer> quantities) {
-        this.prices = prices;
+    public PriceLevelData(long[] priceTicks, int[] quantities, Instrument instrument) {
+        this.priceTicks = priceTicks;
         this.quantities = quantities;
+        this.instrument = instrument;
+    }
+
+    public int size() {
+        return priceTicks.length;
+    }
+
+    public double getPrice(int index) {
+        return instrument.toPrice(priceTicks[index]);
     }
 }
@@ -0,0 +1,61 @@
+package com.afrancodev.orderbook.models;
+
+// Caller-owned holder for one consistent top-of-book read; reuse it across reads to avoid
+// allocating. Prices are in ticks, Long.MIN_VALUE when that side is empty.
+public class Quote {
+
+    public static final long NO_PRICE = Long.MIN_VALUE;
+
+    private long bidTicks = NO_PRICE;
+    private long bidQuantity;
+    private long askTicks = NO_PRICE;
+    private long askQuantity;
+    private long sequence;
+
+    void set(long bidTicks, long bidQuantity, long askTicks, long askQuantity, long sequence) {
+        this.bidTicks = bidTicks;
+        this.bidQuantity = bidQuantity;
+        this.askTicks = askTicks;
+        this.askQuantity = askQuantity;
+        this.sequence = sequence;
+    }
+
+    public long getBidTicks() {
+        return bidTicks;
+    }
+
+    public long getBidQuantity() {
+        return bidQuantity;
+    }
+
+    public long getAskTicks() {
+        return askTicks;
+    }
+
+    public long getAskQuantity() {
+        return askQuantity;
+    }
+
+    // Depth feed sequence of the book update that produced this quote.
+    public long getSequence() {
+        return sequence;
+    }
+
+    public boolean hasBid() {
+        return bidTicks != NO_PRICE;
+    }
+
+    public boolean hasAsk() {
+        return askTicks != NO_PRICE;
+    }
+
+    public long getSpreadTicks() {
+        return hasBid() && hasAsk() ? askTicks - bidTicks : NO_PRICE;
+    }
+
+    @Override
+    public String toString() {
+        return "Quote{" + bidQuantity + "@" + bidTicks + " / " + askQuantity + "@" + askTicks
+                + ", seq=" + sequence + "}";
+    }
+}
@@ -0,0 +1,10 @@
+package com.afrancodev.orderbook.models;
+
+public enum TimeInForce {
+    // rests until filled, cancelled or expired
+    GTC,
+    // fills what it can on arrival, the rest is cancelled
+    IOC,
+    // fills completely on arrival or not at all
+    FOK
+}
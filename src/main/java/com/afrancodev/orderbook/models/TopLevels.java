@@ -0,0 +1,54 @@
+package com.afrancodev.orderbook.models;
+
+import java.lang.invoke.VarHandle;
+
+// The top price levels of each side, published by the book's writer under a seqlock like TopOfBook.
+// The writer refills the levels between begin and end; readers copy them into their own LevelBuffer
+// and retry if a publish overlapped the copy, so a reader polling every frame never takes the book
+// lock and never allocates. Only one thread may publish at a time.
+public class TopLevels {
+
+    private volatile long version = 0;
+    private final LevelBuffer levels;
+
+    public TopLevels(int depth) {
+        this.levels = new LevelBuffer(depth);
+    }
+
+    public int depth() {
+        return levels.capacity();
+    }
+
+    // Opens a publish and returns the shared buffer, cleared and stamped with the sequence.
+    public LevelBuffer begin(long sequence) {
+        version = version + 1;
+        // Keep the level stores below from moving ahead of the odd version.
+        VarHandle.storeStoreFence();
+        levels.clear(sequence);
+        return levels;
+    }
+
+    public void end() {
+        version = version + 1;
+    }
+
+    public void read(LevelBuffer into) {
+        while (true) {
+            long v = version;
+            if ((v & 1) == 0) {
+                into.copyFrom(levels);
+                // The level loads must complete before the version is checked again.
+                VarHandle.loadLoadFence();
+                if (version == v) {
+                    return;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    // Number of completed publishes.
+    public long getVersion() {
+        return version >>> 1;
+    }
+}
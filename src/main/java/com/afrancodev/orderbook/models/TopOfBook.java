@@ -0,0 +1,93 @@
+package com.afrancodev.orderbook.models;
+
+import java.lang.invoke.VarHandle;
+
+// Best bid and ask published by the book's writer under a seqlock. The version is odd while a
+// publish is in progress; readers copy the fields and retry if the version was odd or moved, so
+// they never see a bid from one update paired with an ask from another, never block the writer and
+// never allocate. Only one thread may publish.
+public class TopOfBook {
+
+    private volatile long version = 0;
+    private long bidTicks = Quote.NO_PRICE;
+    private long bidQuantity;
+    private long askTicks = Quote.NO_PRICE;
+    private long askQuantity;
+    private long sequence;
+
+    public void publish(long bidTicks, long bidQuantity, long askTicks, long askQuantity, long sequence) {
+        long v = version;
+        version = v + 1;
+        // Keep the field stores below from moving ahead of the odd version.
+        VarHandle.storeStoreFence();
+        this.bidTicks = bidTicks;
+        this.bidQuantity = bidQuantity;
+        this.askTicks = askTicks;
+        this.askQuantity = askQuantity;
+        this.sequence = sequence;
+        version = v + 2;
+    }
+
+    public void read(Quote into) {
+        while (true) {
+            long v = version;
+            if ((v & 1) == 0) {
+                long bid = bidTicks;
+                long bidQty = bidQuantity;
+                long ask = askTicks;
+                long askQty = askQuantity;
+                long seq = sequence;
+                // The field loads must complete before the version is checked again.
+                VarHandle.loadLoadFence();
+                if (version == v) {
+                    into.set(bid, bidQty, ask, askQty, seq);
+                    return;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public long getBidTicks() {
+        while (true) {
+            long v = version;
+            long bid = bidTicks;
+            VarHandle.loadLoadFence();
+            if ((v & 1) == 0 && version == v) {
+                return bid;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public long getAskTicks() {
+        while (true) {
+            long v = version;
+            long ask = askTicks;
+            VarHandle.loadLoadFence();
+            if ((v & 1) == 0 && version == v) {
+                return ask;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    // Mid in ticks from one consistent bid/ask pair, NaN unless both sides are present.
+    public double getMidTicks() {
+        while (true) {
+            long v = version;
+            long bid = bidTicks;
+            long ask = askTicks;
+            VarHandle.loadLoadFence();
+            if ((v & 1) == 0 && version == v) {
+                return bid == Quote.NO_PRICE || ask == Quote.NO_PRICE ? Double.NaN : (bid + ask) / 2.0;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    // Number of completed publishes.
+    public long getVersion() {
+        return version >>> 1;
+    }
+}
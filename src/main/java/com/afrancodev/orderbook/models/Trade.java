@@ -1,30 +1,62 @@
 package com.afrancodev.orderbook.models;
 
 public class Trade {
+    private final long sequence;
+    private final long timestampNanos;
     private final boolean isBuy;
-    private final double price;
+    private final long priceTicks;
     private final int quantity;
+    private final long makerOrderId;
+    private final long takerOrderId;
 
-    public Trade(boolean isBuy, double price, int quantity) {
+    public Trade(boolean isBuy, long priceTicks, int quantity) {
+        this(0, 0, isBuy, priceTicks, quantity, 0, 0);
+    }
+
+    public Trade(long sequence, long timestampNanos, boolean isBuy, long priceTicks, int quantity,
+            long makerOrderId, long takerOrderId) {
+        this.sequence = sequence;
+        this.timestampNanos = timestampNanos;
         this.isBuy = isBuy;
-        this.price = price;
+        this.priceTicks = priceTicks;
         this.quantity = quantity;
+        this.makerOrderId = makerOrderId;
+        this.takerOrderId = takerOrderId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
     }
 
+    // Side of the aggressor: true when a buyer took liquidity.
     public boolean isBuy() {
         return isBuy;
     }
 
-    public double getPrice() {
-        return price;
+    public long getPriceTicks() {
+        return priceTicks;
     }
 
     public int getQuantity() {
         return quantity;
     }
 
+    // Resting order that provided the liquidity.
+    public long getMakerOrderId() {
+        return makerOrderId;
+    }
+
+    public long getTakerOrderId() {
+        return takerOrderId;
+    }
+
     @Override
     public String toString() {
-        return String.format("Trade[%s %d @ %.2f]", isBuy ? "BUY" : "SELL", quantity, price);
+        return String.format("Trade[#%d %s %d @ %d, maker %d, taker %d]", sequence, isBuy ? "BUY" : "SELL",
+                quantity, priceTicks, makerOrderId, takerOrderId);
     }
 }
@@ -1,25 +1,255 @@
 package com.afrancodev.orderbook.models;
 
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+// Trades stored column by column in primitive arrays, allocated one chunk at a time as the history
+// grows. Every trade gets a sequence number starting at 1. Once maxChunks chunks are full the oldest
+// is dropped and its arrays reused, so a long run stops allocating. One thread records; any thread
+// may read through a Cursor without locking, since a trade is published only after all its columns
+// are written.
 public class TradeHistory {
-    private final List<Trade> trades = new ArrayList<>();
 
-    public synchronized void recordTrade(Trade trade) {
-        trades.add(trade);
+    // By default the last 48k-64k trades are kept; analytics over long runs pass a larger budget.
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 14;
+    public static final int DEFAULT_MAX_CHUNKS = 4;
+
+    private final int chunkShift;
+    private final int chunkMask;
+    private final Chunk[] chunks;
+    private Chunk current;
+
+    private volatile long firstSequence = 1;
+    private volatile long lastSequence = 0;
+
+    public TradeHistory() {
+        this(DEFAULT_CHUNK_SIZE, DEFAULT_MAX_CHUNKS);
+    }
+
+    public TradeHistory(int chunkSize, int maxChunks) {
+        if (chunkSize <= 0 || Integer.bitCount(chunkSize) != 1 || maxChunks <= 0) {
+            throw new IllegalArgumentException("Chunk size must be a power of two and max chunks positive: "
+                    + chunkSize + ", " + maxChunks);
+        }
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        this.chunkMask = chunkSize - 1;
+        this.chunks = new Chunk[maxChunks];
+    }
+
+    public long recordTrade(Trade trade) {
+        return recordTrade(trade.isBuy(), trade.getPriceTicks(), trade.getQuantity(), trade.getMakerOrderId(),
+                trade.getTakerOrderId(), trade.getTimestampNanos());
+    }
+
+    // isBuy is the aggressor's side. Returns the trade's sequence number.
+    public long recordTrade(boolean isBuy, long priceTicks, int quantity, long makerOrderId, long takerOrderId,
+            long timestampNanos) {
+        long sequence = lastSequence + 1;
+        int offset = (int) ((sequence - 1) & chunkMask);
+        if (offset == 0 || current == null) {
+            current = chunkFor(sequence);
+        }
+        Chunk chunk = current;
+        chunk.buys[offset] = isBuy;
+        chunk.prices[offset] = priceTicks;
+        chunk.quantities[offset] = quantity;
+        chunk.makers[offset] = makerOrderId;
+        chunk.takers[offset] = takerOrderId;
+        chunk.timestamps[offset] = timestampNanos;
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    private Chunk chunkFor(long sequence) {
+        long number = (sequence - 1) >>> chunkShift;
+        long oldest = (firstSequence - 1) >>> chunkShift;
+        if (number - oldest >= chunks.length) {
+            // Readers check firstSequence after reading a row, so it must move before the row is reused.
+            firstSequence = ((number - chunks.length + 1) << chunkShift) + 1;
+            VarHandle.storeStoreFence();
+        }
+        int slot = (int) (number % chunks.length);
+        if (chunks[slot] == null) {
+            chunks[slot] = new Chunk(chunkMask + 1);
+        }
+        return chunks[slot];
+    }
+
+    // Oldest retained trade, or getLastSequence() + 1 when empty.
+    public long getFirstSequence() {
+        return firstSequence;
+    }
+
+    // Sequence of the latest trade, 0 before the first one.
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public int size() {
+        return (int) (lastSequence - firstSequence + 1);
+    }
+
+    // First retained sequence whose timestamp is at or after timestampNanos, or getLastSequence() + 1.
+    // Timestamps must not go backwards for this to be meaningful.
+    public long sequenceAtOrAfter(long timestampNanos) {
+        long low = firstSequence;
+        long high = lastSequence + 1;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (timestampAt(mid) < timestampNanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return Math.max(low, firstSequence);
+    }
+
+    private long timestampAt(long sequence) {
+        long index = sequence - 1;
+        return chunks[(int) ((index >>> chunkShift) % chunks.length)].timestamps[(int) (index & chunkMask)];
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public List<Trade> getAllTrades() {
+        List<Trade> trades = new ArrayList<>(Math.max(0, size()));
+        Cursor cursor = cursor().seek(firstSequence, lastSequence + 1);
+        while (cursor.next()) {
+            trades.add(cursor.toTrade());
+        }
+        return Collections.unmodifiableList(trades);
     }
 
-    public synchronized List<Trade> getAllTrades() {
-        return Collections.unmodifiableList(new ArrayList<>(trades));
+    // Drops every trade recorded so far; sequence numbers keep counting. Writer thread only.
+    public void clear() {
+        firstSequence = lastSequence + 1;
     }
 
-    public synchronized void clear() {
-        trades.clear();
+    private static final class Chunk {
+        final boolean[] buys;
+        final long[] prices;
+        final int[] quantities;
+        final long[] makers;
+        final long[] takers;
+        final long[] timestamps;
+
+        Chunk(int size) {
+            buys = new boolean[size];
+            prices = new long[size];
+            quantities = new int[size];
+            makers = new long[size];
+            takers = new long[size];
+            timestamps = new long[size];
+        }
     }
 
-    public synchronized int size() {
-        return trades.size();
+    // Reusable forward iterator over a sequence range, reading straight from the columns. A range
+    // ending at Long.MAX_VALUE follows the history as it grows. A cursor that falls a whole
+    // retention behind the writer skips ahead to the oldest trade still held.
+    public final class Cursor {
+
+        private long next;
+        private long end;
+        private Chunk chunk;
+        private long chunkNumber = -1;
+
+        private long sequence;
+        private boolean buy;
+        private long priceTicks;
+        private int quantity;
+        private long makerOrderId;
+        private long takerOrderId;
+        private long timestampNanos;
+
+        private Cursor() {
+            seek(1, Long.MAX_VALUE);
+        }
+
+        // Positions before fromSequence; next() stops before toSequence.
+        public Cursor seek(long fromSequence, long toSequence) {
+            next = fromSequence;
+            end = toSequence;
+            return this;
+        }
+
+        // Trades with fromNanos <= timestamp < toNanos.
+        public Cursor seekTime(long fromNanos, long toNanos) {
+            return seek(sequenceAtOrAfter(fromNanos), sequenceAtOrAfter(toNanos));
+        }
+
+        public boolean next() {
+            while (true) {
+                long candidate = Math.max(next, firstSequence);
+                if (candidate >= end || candidate > lastSequence) {
+                    return false;
+                }
+                long index = candidate - 1;
+                long number = index >>> chunkShift;
+                if (number != chunkNumber) {
+                    chunk = chunks[(int) (number % chunks.length)];
+                    chunkNumber = number;
+                }
+                int offset = (int) (index & chunkMask);
+                boolean b = chunk.buys[offset];
+                long p = chunk.prices[offset];
+                int q = chunk.quantities[offset];
+                long m = chunk.makers[offset];
+                long t = chunk.takers[offset];
+                long ts = chunk.timestamps[offset];
+                VarHandle.loadLoadFence();
+                if (candidate < firstSequence) {
+                    // The chunk was reused while we read it.
+                    chunkNumber = -1;
+                    continue;
+                }
+                sequence = candidate;
+                buy = b;
+                priceTicks = p;
+                quantity = q;
+                makerOrderId = m;
+                takerOrderId = t;
+                timestampNanos = ts;
+                next = candidate + 1;
+                return true;
+            }
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        // Side of the aggressor.
+        public boolean isBuy() {
+            return buy;
+        }
+
+        public long getPriceTicks() {
+            return priceTicks;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public long getMakerOrderId() {
+            return makerOrderId;
+        }
+
+        public long getTakerOrderId() {
+            return takerOrderId;
+        }
+
+        public long getTimestampNanos() {
+            return timestampNanos;
+        }
+
+        public Trade toTrade() {
+            return new Trade(sequence, timestampNanos, buy, priceTicks, quantity, makerOrderId, takerOrderId);
+        }
     }
 }
@@ -0,0 +1,133 @@
+package com.afrancodev.orderbook.replay;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// Reads the binary flow format block by block through a FileChannel, reusing one buffer per block.
+public class BinaryFlowReader implements FlowReader {
+
+    private final FileChannel channel;
+    private final boolean compressed;
+    private final ByteBuffer header = ByteBuffer.allocate(FlowFormat.BLOCK_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer block = ByteBuffer.allocate(FlowFormat.BLOCK_RECORDS * FlowFormat.RECORD_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private final Inflater inflater;
+    private ByteBuffer stored;
+    private int remaining = 0;
+
+    public BinaryFlowReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer fileHeader = ByteBuffer.allocate(FlowFormat.FILE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(fileHeader);
+        byte[] magic = new byte[4];
+        fileHeader.get(magic);
+        if (!isBinary(magic) || fileHeader.getInt() != FlowFormat.VERSION) {
+            throw new IOException("Not a binary order flow file: " + path);
+        }
+        this.compressed = fileHeader.getInt() != 0;
+        this.inflater = compressed ? new Inflater(true) : null;
+        this.stored = compressed ? ByteBuffer.allocate(block.capacity()) : block;
+    }
+
+    static boolean isBinary(byte[] magic) {
+        return Arrays.equals(magic, FlowFormat.MAGIC);
+    }
+
+    @Override
+    public int read(FlowHandler handler, int maxEvents) throws IOException {
+        int count = 0;
+        while (count < maxEvents) {
+            if (remaining == 0 && !nextBlock()) {
+                break;
+            }
+            ByteBuffer b = block;
+            long timestamp = b.getLong();
+            long orderId = b.getLong();
+            long priceTicks = b.getLong();
+            int quantity = b.getInt();
+            int age = b.getInt();
+            byte type = b.get();
+            byte flags = b.get();
+            switch (type) {
+                case FlowFormat.ADD:
+                    handler.onAdd(timestamp, orderId, (flags & FlowFormat.FLAG_BUY) != 0, priceTicks, quantity,
+                            (flags & FlowFormat.FLAG_MARKET) != 0, age);
+                    break;
+                case FlowFormat.CANCEL:
+                    handler.onCancel(timestamp, orderId);
+                    break;
+                case FlowFormat.MODIFY:
+                    handler.onModify(timestamp, orderId, quantity, priceTicks);
+                    break;
+                case FlowFormat.TICK:
+                    handler.onTick(timestamp);
+                    break;
+                default:
+                    throw new IOException("Unknown flow record type " + type);
+            }
+            remaining--;
+            count++;
+        }
+        return count;
+    }
+
+    private boolean nextBlock() throws IOException {
+        header.clear();
+        if (channel.read(header) <= 0) {
+            return false;
+        }
+        while (header.hasRemaining()) {
+            if (channel.read(header) < 0) {
+                throw new EOFException("Truncated block header");
+            }
+        }
+        header.flip();
+        int records = header.getInt();
+        int storedBytes = header.getInt();
+
+        if (stored.capacity() < storedBytes) {
+            stored = ByteBuffer.allocate(storedBytes);
+        }
+        stored.clear().limit(storedBytes);
+        readFully(stored);
+
+        if (compressed) {
+            inflater.reset();
+            inflater.setInput(stored.array(), 0, storedBytes);
+            block.clear();
+            try {
+                int length = inflater.inflate(block.array(), 0, records * FlowFormat.RECORD_SIZE);
+                block.limit(length);
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt compressed block", e);
+            }
+        }
+        remaining = records;
+        return true;
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Truncated order flow file");
+            }
+        }
+        buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (inflater != null) {
+            inflater.end();
+        }
+        channel.close();
+    }
+}
@@ -0,0 +1,117 @@
+package com.afrancodev.orderbook.replay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Reads flow captured as text, one event per line:
+//
+//   timestamp_nanos,ADD,order_id,B|S,price_ticks,quantity,market(0|1),age
+//   timestamp_nanos,CANCEL,order_id
+//   timestamp_nanos,MODIFY,order_id,,price_ticks,quantity
+//   timestamp_nanos,TICK
+//
+// Blank lines, '#' comments and a header line starting with a letter are skipped.
+public class CsvFlowReader implements FlowReader {
+
+    private static final int MAX_FIELDS = 8;
+
+    private final BufferedReader reader;
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+    private long lineNumber = 0;
+
+    public CsvFlowReader(Path path) throws IOException {
+        this.reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public int read(FlowHandler handler, int maxEvents) throws IOException {
+        int count = 0;
+        String line;
+        while (count < maxEvents && (line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty() || line.charAt(0) == '#' || Character.isLetter(line.charAt(0))) {
+                continue;
+            }
+            int fields = split(line);
+            try {
+                long timestamp = parseLong(line, 0);
+                switch (line.charAt(starts[1])) {
+                    case 'A':
+                        require(fields, 8, line);
+                        handler.onAdd(timestamp, parseLong(line, 2), line.charAt(starts[3]) == 'B',
+                                parseLong(line, 4), (int) parseLong(line, 5), parseLong(line, 6) != 0,
+                                (int) parseLong(line, 7));
+                        break;
+                    case 'C':
+                        require(fields, 3, line);
+                        handler.onCancel(timestamp, parseLong(line, 2));
+                        break;
+                    case 'M':
+                        require(fields, 6, line);
+                        handler.onModify(timestamp, parseLong(line, 2), (int) parseLong(line, 5), parseLong(line, 4));
+                        break;
+                    case 'T':
+                        handler.onTick(timestamp);
+                        break;
+                    default:
+                        throw new IOException("Unknown event type on line " + lineNumber + ": " + line);
+                }
+            } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+                throw new IOException("Malformed line " + lineNumber + ": " + line, e);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private int split(String line) {
+        int fields = 0;
+        int start = 0;
+        for (int i = 0; i <= line.length() && fields < MAX_FIELDS; i++) {
+            if (i == line.length() || line.charAt(i) == ',') {
+                starts[fields] = start;
+                ends[fields] = i;
+                fields++;
+                start = i + 1;
+            }
+        }
+        return fields;
+    }
+
+    private void require(int fields, int expected, String line) throws IOException {
+        if (fields < expected) {
+            throw new IOException("Expected " + expected + " fields on line " + lineNumber + ": " + line);
+        }
+    }
+
+    // Parses a field in place, without substring allocation.
+    private long parseLong(String line, int field) {
+        int i = starts[field];
+        int end = ends[field];
+        if (i == end) {
+            throw new NumberFormatException("Empty field " + field);
+        }
+        boolean negative = line.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Not a number in field " + field);
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
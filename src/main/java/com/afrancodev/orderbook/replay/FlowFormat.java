@@ -0,0 +1,27 @@
+package com.afrancodev.orderbook.replay;
+
+// Binary layout shared by FlowWriter and BinaryFlowReader.
+//
+// File:   magic(4) version(4) compressed(4)
+// Block:  recordCount(4) storedBytes(4) payload   (payload is raw-deflated when compressed)
+// Record: timestamp(8) orderId(8) priceTicks(8) quantity(4) age(4) type(1) flags(1)
+final class FlowFormat {
+
+    static final byte[] MAGIC = {'O', 'B', 'F', '1'};
+    static final int VERSION = 1;
+    static final int FILE_HEADER_SIZE = 12;
+    static final int BLOCK_HEADER_SIZE = 8;
+    static final int RECORD_SIZE = 34;
+    static final int BLOCK_RECORDS = 4096;
+
+    static final byte ADD = 1;
+    static final byte CANCEL = 2;
+    static final byte MODIFY = 3;
+    static final byte TICK = 4;
+
+    static final int FLAG_BUY = 1;
+    static final int FLAG_MARKET = 2;
+
+    private FlowFormat() {
+    }
+}
@@ -0,0 +1,14 @@
+package com.afrancodev.orderbook.replay;
+
+// Receives replayed events in file order. Timestamps are nanoseconds on the capture's clock.
+public interface FlowHandler {
+
+    void onAdd(long timestampNanos, long orderId, boolean isBuy, long priceTicks, int quantity,
+               boolean isMarketOrder, int age);
+
+    void onCancel(long timestampNanos, long orderId);
+
+    void onModify(long timestampNanos, long orderId, int quantity, long priceTicks);
+
+    void onTick(long timestampNanos);
+}
@@ -0,0 +1,25 @@
+package com.afrancodev.orderbook.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public interface FlowReader extends Closeable {
+
+    // Delivers up to maxEvents events to the handler; returns how many were read, 0 at end of file.
+    int read(FlowHandler handler, int maxEvents) throws IOException;
+
+    static FlowReader open(Path path) throws IOException {
+        byte[] magic = new byte[4];
+        int n;
+        try (InputStream in = Files.newInputStream(path)) {
+            n = in.read(magic);
+        }
+        if (n == 4 && BinaryFlowReader.isBinary(magic)) {
+            return new BinaryFlowReader(path);
+        }
+        return new CsvFlowReader(path);
+    }
+}
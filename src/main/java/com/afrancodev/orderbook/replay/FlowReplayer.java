@@ -0,0 +1,256 @@
+package com.afrancodev.orderbook.replay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import com.afrancodev.orderbook.OrderBook;
+import com.afrancodev.orderbook.OrderGenerator;
+import com.afrancodev.orderbook.OrderStream;
+import com.afrancodev.orderbook.flow.PoissonArrivals;
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.Order;
+import com.afrancodev.orderbook.models.OrderPool;
+
+// Applies captured flow to an OrderBook. With a speed of 0 events go in as fast as the book takes
+// them; otherwise each event waits until its capture timestamp, scaled by the speed factor, relative
+// to the first event. Trades are stamped with the capture timestamp of the event that caused them.
+public class FlowReplayer implements FlowHandler {
+
+    private static final String USAGE = "Usage: FlowReplayer --file FILE [--speed X] [--convert OUT] [--compress]"
+            + " [--generate N] [--orders-per-tick N] [--rate ORDERS_PER_SEC] [--seed N] [--pool N]";
+
+    private static final int READ_CHUNK = 4096;
+    private static final long SPIN_THRESHOLD_NANOS = 100_000;
+
+    private final OrderBook orderBook;
+    private final double speed;
+
+    private long eventTimestamp;
+    private long firstTimestamp = Long.MIN_VALUE;
+    private long startNanos;
+    private long events = 0;
+    private long adds = 0;
+    private long cancels = 0;
+    private long modifies = 0;
+    private long ticks = 0;
+
+    public FlowReplayer(OrderBook orderBook, double speed) {
+        if (speed < 0 || Double.isNaN(speed)) {
+            throw new IllegalArgumentException("Speed must be 0 (max) or positive: " + speed);
+        }
+        this.orderBook = orderBook;
+        this.speed = speed;
+        orderBook.setNanoClock(() -> eventTimestamp);
+    }
+
+    public long replay(Path path) throws IOException {
+        try (FlowReader reader = FlowReader.open(path)) {
+            return replay(reader);
+        }
+    }
+
+    public long replay(FlowReader reader) throws IOException {
+        long before = events;
+        while (reader.read(this, READ_CHUNK) > 0) {
+            // the reader drives the callbacks
+        }
+        return events - before;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    public long getAdds() {
+        return adds;
+    }
+
+    public long getCancels() {
+        return cancels;
+    }
+
+    public long getModifies() {
+        return modifies;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    @Override
+    public void onAdd(long timestampNanos, long orderId, boolean isBuy, long priceTicks, int quantity,
+                      boolean isMarketOrder, int age) {
+        pace(timestampNanos);
+        Order order = orderBook.createOrder(isBuy, priceTicks, quantity, isMarketOrder, age);
+        if (orderId != 0) {
+            order.assignId(orderId);
+        }
+        orderBook.addOrder(order);
+        orderBook.matchOrders();
+        adds++;
+    }
+
+    @Override
+    public void onCancel(long timestampNanos, long orderId) {
+        pace(timestampNanos);
+        orderBook.cancelOrder(orderId);
+        cancels++;
+    }
+
+    @Override
+    public void onModify(long timestampNanos, long orderId, int quantity, long priceTicks) {
+        pace(timestampNanos);
+        if (orderBook.modifyOrder(orderId, quantity, priceTicks)) {
+            orderBook.matchOrders();
+        }
+        modifies++;
+    }
+
+    @Override
+    public void onTick(long timestampNanos) {
+        pace(timestampNanos);
+        orderBook.updatePrices();
+        orderBook.expireOldOrders();
+        ticks++;
+    }
+
+    private void pace(long timestampNanos) {
+        events++;
+        eventTimestamp = timestampNanos;
+        if (speed == 0) {
+            return;
+        }
+        if (firstTimestamp == Long.MIN_VALUE) {
+            firstTimestamp = timestampNanos;
+            startNanos = System.nanoTime();
+            return;
+        }
+        long target = startNanos + (long) ((timestampNanos - firstTimestamp) / speed);
+        long wait;
+        while ((wait = target - System.nanoTime()) > 0) {
+            if (wait > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(wait - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    // Writes count synthetic orders with Poisson arrival times, a tick every ordersPerTick orders and
+    // a cancel of a random earlier order after roughly one order in five.
+    public static long generate(Path path, boolean compressed, long seed, int count, int ordersPerTick,
+                                double rate) throws IOException {
+        Instrument instrument = new Instrument("SIM", 0.01);
+        OrderGenerator generator = OrderGenerator.builder(100.0).seed(seed)
+                .arrivals(new PoissonArrivals(rate)).build();
+        OrderStream stream = generator.generateStream(instrument, count, ordersPerTick);
+        SplittableRandom random = new SplittableRandom(seed);
+        try (FlowWriter writer = new FlowWriter(path, compressed)) {
+            for (int i = 0; i < stream.size(); i++) {
+                long timestamp = stream.getArrivalNanos(i);
+                writer.onAdd(timestamp, i + 1, stream.isBuy(i), stream.getPriceTicks(i), stream.getQuantity(i),
+                        stream.isMarketOrder(i), stream.getAge(i));
+                if (random.nextDouble() < 0.2) {
+                    writer.onCancel(timestamp, 1 + random.nextInt(i + 1));
+                }
+                if ((i + 1) % ordersPerTick == 0) {
+                    writer.onTick(timestamp);
+                }
+            }
+            return writer.getWritten();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = null;
+        Path convertTo = null;
+        boolean compress = false;
+        double speed = 0;
+        int generate = 0;
+        int ordersPerTick = 1;
+        double rate = 100_000;
+        long seed = System.nanoTime();
+        int poolSize = 1 << 16;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--compress")) {
+                    compress = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[++i];
+                switch (args[i - 1]) {
+                    case "--file":
+                        file = Paths.get(value);
+                        break;
+                    case "--speed":
+                        speed = Double.parseDouble(value);
+                        break;
+                    case "--convert":
+                        convertTo = Paths.get(value);
+                        break;
+                    case "--generate":
+                        generate = Integer.parseInt(value);
+                        break;
+                    case "--orders-per-tick":
+                        ordersPerTick = Integer.parseInt(value);
+                        break;
+                    case "--rate":
+                        rate = Double.parseDouble(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--pool":
+                        poolSize = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i - 1]);
+                }
+            }
+            if (file == null) {
+                throw new IllegalArgumentException("--file is required");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        if (generate > 0) {
+            long written = generate(file, compress, seed, generate, ordersPerTick, rate);
+            System.out.printf("Wrote %,d events to %s (seed %d)%n", written, file, seed);
+            return;
+        }
+        if (convertTo != null) {
+            try (FlowReader reader = FlowReader.open(file);
+                 FlowWriter writer = new FlowWriter(convertTo, compress)) {
+                while (reader.read(writer, READ_CHUNK) > 0) {
+                    // copying
+                }
+                System.out.printf("Converted %,d events to %s%n", writer.getWritten(), convertTo);
+            }
+            return;
+        }
+
+        OrderBook orderBook = new OrderBook(new Instrument("SIM", 0.01), new OrderPool(poolSize));
+        FlowReplayer replayer = new FlowReplayer(orderBook, speed);
+        long start = System.nanoTime();
+        long events = replayer.replay(file);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Events:      %,d in %.3f s (%,.0f events/s, speed %s)%n", events, seconds,
+                events / seconds, speed == 0 ? "max" : speed + "x");
+        System.out.printf("Adds:        %,d  cancels %,d  modifies %,d  ticks %,d%n",
+                replayer.getAdds(), replayer.getCancels(), replayer.getModifies(), replayer.getTicks());
+        System.out.printf("Trades:      %,d%n", orderBook.getTradeCount());
+        System.out.printf("Resting:     %,d bids / %,d asks%n",
+                orderBook.getBuyOrdersCount(), orderBook.getSellOrdersCount());
+    }
+}
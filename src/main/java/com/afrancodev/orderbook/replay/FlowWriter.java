@@ -0,0 +1,111 @@
+package com.afrancodev.orderbook.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+
+// Writes the binary flow format, buffering a block of records and optionally deflating it.
+public class FlowWriter implements FlowHandler, Closeable {
+
+    private final FileChannel channel;
+    private final boolean compressed;
+    private final ByteBuffer block = ByteBuffer.allocate(FlowFormat.BLOCK_RECORDS * FlowFormat.RECORD_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private final Deflater deflater;
+    private final byte[] deflated;
+    private final ByteBuffer header = ByteBuffer.allocate(FlowFormat.BLOCK_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private int records = 0;
+    private long written = 0;
+
+    public FlowWriter(Path path, boolean compressed) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.compressed = compressed;
+        this.deflater = compressed ? new Deflater(Deflater.BEST_SPEED, true) : null;
+        this.deflated = compressed ? new byte[block.capacity() + block.capacity() / 8 + 64] : null;
+
+        ByteBuffer fileHeader = ByteBuffer.allocate(FlowFormat.FILE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        fileHeader.put(FlowFormat.MAGIC).putInt(FlowFormat.VERSION).putInt(compressed ? 1 : 0).flip();
+        writeFully(fileHeader);
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    @Override
+    public void onAdd(long timestampNanos, long orderId, boolean isBuy, long priceTicks, int quantity,
+                      boolean isMarketOrder, int age) {
+        put(FlowFormat.ADD, timestampNanos, orderId, priceTicks, quantity, age,
+                (isBuy ? FlowFormat.FLAG_BUY : 0) | (isMarketOrder ? FlowFormat.FLAG_MARKET : 0));
+    }
+
+    @Override
+    public void onCancel(long timestampNanos, long orderId) {
+        put(FlowFormat.CANCEL, timestampNanos, orderId, 0, 0, 0, 0);
+    }
+
+    @Override
+    public void onModify(long timestampNanos, long orderId, int quantity, long priceTicks) {
+        put(FlowFormat.MODIFY, timestampNanos, orderId, priceTicks, quantity, 0, 0);
+    }
+
+    @Override
+    public void onTick(long timestampNanos) {
+        put(FlowFormat.TICK, timestampNanos, 0, 0, 0, 0, 0);
+    }
+
+    private void put(byte type, long timestampNanos, long orderId, long priceTicks, int quantity, int age, int flags) {
+        block.putLong(timestampNanos).putLong(orderId).putLong(priceTicks).putInt(quantity).putInt(age)
+                .put(type).put((byte) flags);
+        written++;
+        if (++records == FlowFormat.BLOCK_RECORDS) {
+            flushBlock();
+        }
+    }
+
+    private void flushBlock() {
+        if (records == 0) {
+            return;
+        }
+        try {
+            block.flip();
+            ByteBuffer payload = block;
+            if (compressed) {
+                deflater.reset();
+                deflater.setInput(block.array(), 0, block.limit());
+                deflater.finish();
+                int length = deflater.deflate(deflated);
+                payload = ByteBuffer.wrap(deflated, 0, length);
+            }
+            header.clear();
+            header.putInt(records).putInt(payload.remaining()).flip();
+            writeFully(header);
+            writeFully(payload);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write flow block", e);
+        }
+        block.clear();
+        records = 0;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBlock();
+        if (deflater != null) {
+            deflater.end();
+        }
+        channel.close();
+    }
+}
@@ -0,0 +1,8 @@
+package com.afrancodev.orderbook.ui;
+
+interface FrameView {
+
+    // Called by the render loop off the EDT. Rebuilds the panel's cached paint data if its source
+    // changed and repaints only the regions that differ.
+    void prepareFrame();
+}
@@ -6,6 +6,8 @@ import com.afrancodev.orderbook.OrderBook;
 
 public class MainPanel extends JPanel {
 
+    private final RenderLoop renderLoop;
+
     public MainPanel(OrderBook orderBook) {
         
         setLayout(new BorderLayout());
@@ -28,6 +30,21 @@ public class MainPanel extends JPanel {
         splitPane.setDividerSize(0);    
 
         add(splitPane, BorderLayout.CENTER);
+
+        renderLoop = new RenderLoop(RenderLoop.DEFAULT_FPS, priceChartPanel, orderBookPanel);
+    }
+
+    // Frames are only prepared while the panel is displayed.
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        renderLoop.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        renderLoop.stop();
+        super.removeNotify();
     }
 
 }
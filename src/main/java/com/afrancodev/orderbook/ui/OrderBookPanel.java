@@ -2,12 +2,13 @@ package com.afrancodev.orderbook.ui;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.List;
+import java.util.Arrays;
 
 import com.afrancodev.orderbook.OrderBook;
-import com.afrancodev.orderbook.models.PriceLevelData;
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.LevelBuffer;
 
-public class OrderBookPanel extends JPanel {
+public class OrderBookPanel extends JPanel implements FrameView {
 
     private enum OrderType {
         BID, ASK
@@ -20,99 +21,170 @@ public class OrderBookPanel extends JPanel {
     private static final int MAX_QTY_FOR_FULL_BAR = 50;
     private static final int COLUMN_WIDTH = 175;
     private static final int MAX_ROWS = 20;
+    private static final long NO_ROW = Long.MIN_VALUE;
+
+    private static final Color BACKGROUND_COLOR = new Color(240, 240, 240);
+    private static final Color BID_BAR_COLOR = new Color(0, 0, 255, 100);
+    private static final Color ASK_BAR_COLOR = new Color(255, 0, 0, 100);
+    private static final Color BID_TEXT_COLOR = Color.BLUE.darker();
+    private static final Color ASK_TEXT_COLOR = Color.RED.darker();
+    private static final Font TITLE_FONT = new Font("SansSerif", Font.BOLD, 14);
+    private static final Font ROW_FONT = new Font("SansSerif", Font.PLAIN, 12);
 
     private final int panelWidth;
     private final int panelHeight;
 
+    // Rows as last prepared by the render loop; labels are only formatted when a row changes.
+    private final Object frameLock = new Object();
+    private final long[] bidTicks = new long[MAX_ROWS];
+    private final int[] bidQuantities = new int[MAX_ROWS];
+    private final String[] bidLabels = new String[MAX_ROWS];
+    private final long[] askTicks = new long[MAX_ROWS];
+    private final int[] askQuantities = new int[MAX_ROWS];
+    private final String[] askLabels = new String[MAX_ROWS];
+
+    // Render thread only: the visible levels as last published by the matcher, copied without the
+    // book lock and without allocating.
+    private final LevelBuffer levels = new LevelBuffer(MAX_ROWS);
+    private long lastSequence = -1;
+
     public OrderBookPanel(OrderBook orderBook, int width, int height) {
         this.orderBook = orderBook;
         this.panelWidth = width;
         this.panelHeight = height;
+        Arrays.fill(bidTicks, NO_ROW);
+        Arrays.fill(askTicks, NO_ROW);
         setPreferredSize(new Dimension(width, height));
     }
 
     @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-
-        orderBook.expireOldOrders();
-        orderBook.updatePrices();
+    public void prepareFrame() {
+        orderBook.getTopLevels(levels);
+        if (levels.getSequence() == lastSequence) {
+            return;
+        }
+        lastSequence = levels.getSequence();
+        Instrument instrument = orderBook.getInstrument();
+
+        int firstDirty = MAX_ROWS;
+        int lastDirty = -1;
+        synchronized (frameLock) {
+            for (int i = 0; i < MAX_ROWS; i++) {
+                boolean bid = i < levels.getBidCount();
+                boolean ask = i < levels.getAskCount();
+                boolean changed = updateRow(bidTicks, bidQuantities, bidLabels, i, bid,
+                        bid ? levels.getBidTicks(i) : NO_ROW, bid ? (int) levels.getBidQuantity(i) : 0,
+                        instrument, OrderType.BID);
+                changed |= updateRow(askTicks, askQuantities, askLabels, i, ask,
+                        ask ? levels.getAskTicks(i) : NO_ROW, ask ? (int) levels.getAskQuantity(i) : 0,
+                        instrument, OrderType.ASK);
+                if (changed) {
+                    firstDirty = Math.min(firstDirty, i);
+                    lastDirty = i;
+                }
+            }
+        }
+        if (lastDirty >= 0) {
+            repaint(0, PADDING_TOP + firstDirty * ROW_HEIGHT, panelWidth, (lastDirty - firstDirty + 1) * ROW_HEIGHT);
+        }
+    }
 
-        PriceLevelData bidLevels = orderBook.getBidLevels();
-        PriceLevelData askLevels = orderBook.getAskLevels();
+    private static boolean updateRow(long[] ticks, int[] quantities, String[] labels, int row, boolean present,
+                                     long tick, int quantity, Instrument instrument, OrderType type) {
+        if (tick == ticks[row] && quantity == quantities[row]) {
+            return false;
+        }
+        ticks[row] = tick;
+        quantities[row] = quantity;
+        if (!present) {
+            labels[row] = null;
+        } else if (type == OrderType.BID) {
+            labels[row] = String.format("%d | %.2f", quantity, instrument.toPrice(tick));
+        } else {
+            labels[row] = String.format("%.2f | %d", instrument.toPrice(tick), quantity);
+        }
+        return true;
+    }
 
-        List<Double> bidPrices = bidLevels.prices;
-        List<Integer> bidQuantities = bidLevels.quantities;
-        List<Double> askPrices = askLevels.prices;
-        List<Integer> askQuantities = askLevels.quantities;
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
 
         Graphics2D g2 = (Graphics2D) g;
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        paintBackground(g2);
-        paintTitles(g2);
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, panelWidth, panelHeight);
+        }
+        paintBackground(g2, clip);
+        if (clip.y < PADDING_TOP) {
+            paintTitles(g2);
+        }
 
-        g2.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        g2.setFont(ROW_FONT);
         FontMetrics fm = g2.getFontMetrics();
 
-        for (int i = 0; i < MAX_ROWS; i++) {
-            int y = PADDING_TOP + i * ROW_HEIGHT;
+        // Only the rows inside the repainted region.
+        int first = Math.max(0, (clip.y - PADDING_TOP) / ROW_HEIGHT);
+        int last = Math.min(MAX_ROWS - 1, (clip.y + clip.height - PADDING_TOP) / ROW_HEIGHT);
+        synchronized (frameLock) {
+            for (int i = first; i <= last; i++) {
+                int y = PADDING_TOP + i * ROW_HEIGHT;
 
-            if (i < bidPrices.size() && i < bidQuantities.size()) {
-                drawOrderBar(g2, fm, bidQuantities.get(i), bidPrices.get(i), y, OrderType.BID);
-            }
+                if (bidLabels[i] != null) {
+                    drawOrderBar(g2, fm, bidQuantities[i], bidLabels[i], y, OrderType.BID);
+                }
 
-            if (i < askPrices.size() && i < askQuantities.size()) {
-                drawOrderBar(g2, fm, askQuantities.get(i), askPrices.get(i), y, OrderType.ASK);
+                if (askLabels[i] != null) {
+                    drawOrderBar(g2, fm, askQuantities[i], askLabels[i], y, OrderType.ASK);
+                }
             }
         }
     }
 
-    private void paintBackground(Graphics2D g2) {
-        g2.setColor(new Color(240, 240, 240));
-        g2.fillRect(0, 0, panelWidth, panelHeight);
+    private void paintBackground(Graphics2D g2, Rectangle clip) {
+        g2.setColor(BACKGROUND_COLOR);
+        g2.fillRect(clip.x, clip.y, clip.width, clip.height);
     }
 
     private void paintTitles(Graphics2D g2) {
-        g2.setFont(new Font("SansSerif", Font.BOLD, 14));
+        g2.setFont(TITLE_FONT);
         FontMetrics fm = g2.getFontMetrics();
 
         String bidTitle = "Buy Orders";
         String askTitle = "Sell Orders";
 
         int bidTitleWidth = fm.stringWidth(bidTitle);
-        g2.setColor(Color.BLUE.darker());
+        g2.setColor(BID_TEXT_COLOR);
         g2.drawString(bidTitle, COLUMN_WIDTH - bidTitleWidth, 20);
 
-        g2.setColor(Color.RED.darker());
+        g2.setColor(ASK_TEXT_COLOR);
         g2.drawString(askTitle, COLUMN_WIDTH + 5, 20);
     }
 
-    private void drawOrderBar(Graphics2D g2, FontMetrics fm, int quantity, double price, int y, OrderType type) {
+    private void drawOrderBar(Graphics2D g2, FontMetrics fm, int quantity, String text, int y, OrderType type) {
         double normalizedQty = Math.min(quantity, MAX_QTY_FOR_FULL_BAR) / (double) MAX_QTY_FOR_FULL_BAR;
         int barWidth = (int) (normalizedQty * MAX_BAR_WIDTH);
         int minBarWidth = (type == OrderType.BID) ? 10 : 15;
         barWidth = Math.max(barWidth, minBarWidth);
 
         int barX, textX;
-        String text;
 
         if (type == OrderType.BID) {
             barX = COLUMN_WIDTH - barWidth;
-            g2.setColor(new Color(0, 0, 255, 100));
+            g2.setColor(BID_BAR_COLOR);
             g2.fillRect(barX, y + 4, barWidth, ROW_HEIGHT - 6);
 
-            g2.setColor(Color.BLUE.darker());
-            text = String.format("%d | %.2f", quantity, price);
+            g2.setColor(BID_TEXT_COLOR);
             int textWidth = fm.stringWidth(text);
             textX = barX - 5 - textWidth;
         } else {
             barX = COLUMN_WIDTH + 5;
-            g2.setColor(new Color(255, 0, 0, 100));
+            g2.setColor(ASK_BAR_COLOR);
             g2.fillRect(barX, y + 4, barWidth, ROW_HEIGHT - 6);
 
-            g2.setColor(Color.RED.darker());
-            text = String.format("%.2f | %d", price, quantity);
+            g2.setColor(ASK_TEXT_COLOR);
             textX = barX + 5 + barWidth;
         }
 
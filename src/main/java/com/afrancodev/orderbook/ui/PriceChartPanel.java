@@ -2,18 +2,23 @@ package com.afrancodev.orderbook.ui;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.util.Arrays;
 
 import com.afrancodev.orderbook.OrderBook;
+import com.afrancodev.orderbook.models.BookSnapshot;
+import com.afrancodev.orderbook.models.CandleData;
 
-public class PriceChartPanel extends JPanel {
+public class PriceChartPanel extends JPanel implements FrameView {
 
     private final OrderBook orderBook;
 
     private final int width;
     private final int height;
+    private final int plotWidth;
+    private final int plotHeight;
 
     private static final int PADDING_LEFT = 50;
     private static final int PADDING_BOTTOM = 40;
@@ -22,35 +27,210 @@ public class PriceChartPanel extends JPanel {
 
     private static final int GRID_LINES = 5;
     private static final int MIN_SPACING = 2;
+    private static final int CANDLE_SLOT = 8;
+    private static final int POINT_RADIUS = 5;
+    private static final int GAP = Integer.MIN_VALUE;
+
+    // Samples in view until the user zooms, the fewest a zoom can show, and the zoom per wheel notch.
+    private static final int DEFAULT_VIEW = 250;
+    private static final int MIN_VIEW = 8;
+    private static final double ZOOM_STEP = 1.25;
+
+    // Regions a frame can invalidate.
+    private static final int PLOT = 1;
+    private static final int PRICE_AXIS = 2;
+    private static final int SAMPLE_AXIS = 4;
+    private static final int LEGEND = 8;
 
     private final JCheckBox bidCheckbox;
     private final JCheckBox askCheckbox;
     private final JCheckBox midCheckbox;
+    private final JCheckBox candleCheckbox;
+    private final JComboBox<String> resolutionBox;
 
     private static final Color BACKGROUND_COLOR = new Color(245, 245, 245);
     private static final Color GRID_COLOR = new Color(200, 200, 200);
     private static final Color AXIS_LABEL_COLOR = Color.DARK_GRAY;
+    private static final Color BID_POINT_COLOR = new Color(0, 0, 255, 180);
+    private static final Color ASK_POINT_COLOR = new Color(0, 128, 0, 180);
+    private static final Color MID_POINT_COLOR = new Color(255, 0, 0, 180);
+    private static final Stroke SERIES_STROKE = new BasicStroke(2.5f);
+    private static final Stroke DENSE_STROKE = new BasicStroke(1.5f);
 
     private static final Font AXIS_LABEL_FONT = new Font("SansSerif", Font.PLAIN, 11);
     private static final Font SERIES_LABEL_FONT = new Font("SansSerif", Font.BOLD, 14);
     private static final Font SAMPLE_LABEL_FONT = new Font("SansSerif", Font.PLAIN, 10);
 
+    // Set on the EDT, picked up by the next frame.
+    private volatile boolean candleMode = false;
+    private volatile int resolution = 0;
+    private volatile boolean invalidated = true;
+
+    // Visible window, moved by zoom and pan on the EDT under frameLock. While following, the window
+    // ends at the latest sample; otherwise it starts at viewFirst (a sample number).
+    private boolean following = true;
+    private long viewCount = DEFAULT_VIEW;
+    private long viewFirst = 1;
+    private int dragX;
+    private long dragFirst;
+
+    // Window fetched from the book by the render thread: one min/max bucket per column, at most one
+    // column per pixel.
+    private long windowFirst;
+    private long windowCount;
+    private int windowColumns;
+    private final double[] bidMins;
+    private final double[] bidMaxs;
+    private final double[] askMins;
+    private final double[] askMaxs;
+    private final double[] midMins;
+    private final double[] midMaxs;
+
+    // Frame as last laid out by prepareFrame, in pixels, and read by paintComponent under frameLock.
+    // Arrays are reused and only grow.
+    private final Object frameLock = new Object();
+    private BookSnapshot lastSnapshot;
+    private boolean framedCandles = false;
+
+    private int columnCount = 0;
+    private boolean showPoints = true;
+    private long frameFirst = 1;
+    private long frameCount = 0;
+    private int[] columnXs = new int[0];
+    private int[] bidMinYs = new int[0];
+    private int[] bidMaxYs = new int[0];
+    private int[] askMinYs = new int[0];
+    private int[] askMaxYs = new int[0];
+    private int[] midMinYs = new int[0];
+    private int[] midMaxYs = new int[0];
+
+    private double axisMax = Double.NaN;
+    private double axisRange = Double.NaN;
+    private final String[] axisLabels = new String[GRID_LINES + 1];
+
+    private long labelFirst = Long.MIN_VALUE;
+    private long labelCount = 0;
+    private int sampleLabelCount = 0;
+    private int[] sampleLabelXs = new int[0];
+    private String[] sampleLabels = new String[0];
+
+    private long legendBidTicks = Long.MIN_VALUE;
+    private long legendAskTicks = Long.MIN_VALUE;
+    private String bidLegend = "";
+    private String midLegend = "";
+    private String askLegend = "";
+
+    private int candleCount = 0;
+    private int[] candleXs = new int[0];
+    private int[] highYs = new int[0];
+    private int[] lowYs = new int[0];
+    private int[] openYs = new int[0];
+    private int[] closeYs = new int[0];
+    private boolean[] rising = new boolean[0];
+
     public PriceChartPanel(OrderBook orderBook, int width, int height) {
         this.orderBook = orderBook;
         this.width = width;
         this.height = height;
+        this.plotWidth = width - PADDING_LEFT - PADDING_RIGHT;
+        this.plotHeight = height - PADDING_TOP - PADDING_BOTTOM;
+        int maxColumns = Math.max(1, plotWidth);
+        this.bidMins = new double[maxColumns];
+        this.bidMaxs = new double[maxColumns];
+        this.askMins = new double[maxColumns];
+        this.askMaxs = new double[maxColumns];
+        this.midMins = new double[maxColumns];
+        this.midMaxs = new double[maxColumns];
 
         bidCheckbox = new JCheckBox("Show Bids", true);
         askCheckbox = new JCheckBox("Show Asks", true);
         midCheckbox = new JCheckBox("Show Mids", true);
+        candleCheckbox = new JCheckBox("Candles", false);
+        resolutionBox = new JComboBox<>();
+        for (int i = 0; i < orderBook.getCandleResolutionCount(); i++) {
+            resolutionBox.addItem(formatResolution(orderBook.getCandleResolutionMillis(i)));
+        }
 
         bidCheckbox.addActionListener(e -> repaint());
         askCheckbox.addActionListener(e -> repaint());
         midCheckbox.addActionListener(e -> repaint());
+        candleCheckbox.addActionListener(e -> {
+            candleMode = candleCheckbox.isSelected();
+            invalidated = true;
+        });
+        resolutionBox.addActionListener(e -> {
+            resolution = Math.max(0, resolutionBox.getSelectedIndex());
+            invalidated = true;
+        });
 
         JPanel checkboxPanel = createCheckboxPanel();
         setLayout(new BorderLayout());
         add(checkboxPanel, BorderLayout.SOUTH);
+
+        // Wheel zooms around the cursor, dragging pans, double-click goes back to following the
+        // latest samples.
+        MouseAdapter navigation = new MouseAdapter() {
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoom(e.getX(), e.getPreciseWheelRotation());
+            }
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                synchronized (frameLock) {
+                    dragX = e.getX();
+                    dragFirst = frameFirst;
+                }
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                pan(e.getX());
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    synchronized (frameLock) {
+                        following = true;
+                        viewCount = DEFAULT_VIEW;
+                    }
+                    invalidated = true;
+                }
+            }
+        };
+        addMouseWheelListener(navigation);
+        addMouseListener(navigation);
+        addMouseMotionListener(navigation);
+    }
+
+    private void zoom(int x, double rotation) {
+        synchronized (frameLock) {
+            if (framedCandles || frameCount == 0) {
+                return;
+            }
+            long maxCount = orderBook.getHistoryCapacity();
+            long count = Math.round(frameCount * Math.pow(ZOOM_STEP, rotation));
+            count = Math.max(MIN_VIEW, Math.min(maxCount, count));
+            if (!following) {
+                double fraction = Math.max(0, Math.min(1, (x - PADDING_LEFT) / (double) plotWidth));
+                double anchor = frameFirst + fraction * frameCount;
+                viewFirst = Math.round(anchor - fraction * count);
+            }
+            viewCount = count;
+        }
+        invalidated = true;
+    }
+
+    private void pan(int x) {
+        synchronized (frameLock) {
+            if (framedCandles || frameCount == 0) {
+                return;
+            }
+            viewFirst = dragFirst - Math.round((x - dragX) * frameCount / (double) plotWidth);
+            following = false;
+        }
+        invalidated = true;
     }
 
     private JPanel createCheckboxPanel() {
@@ -58,75 +238,308 @@ public class PriceChartPanel extends JPanel {
         panel.add(bidCheckbox);
         panel.add(askCheckbox);
         panel.add(midCheckbox);
+        panel.add(candleCheckbox);
+        panel.add(resolutionBox);
         return panel;
     }
 
+    private static String formatResolution(long millis) {
+        if (millis % 3_600_000 == 0) return millis / 3_600_000 + "h";
+        if (millis % 60_000 == 0) return millis / 60_000 + "m";
+        if (millis % 1_000 == 0) return millis / 1_000 + "s";
+        return millis + "ms";
+    }
+
     @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+    public void prepareFrame() {
+        BookSnapshot snapshot = orderBook.getSnapshot();
+        boolean full = invalidated;
+        if (snapshot == lastSnapshot && !full) {
+            return;
+        }
+        invalidated = false;
+        lastSnapshot = snapshot;
+
+        boolean candles = candleMode;
+        // Read lock-free from the book's histories and candles, before taking the frame lock.
+        CandleData candleData = null;
+        if (candles) {
+            candleData = orderBook.getCandles(resolution, Math.max(1, plotWidth / CANDLE_SLOT));
+        } else {
+            fetchWindow();
+        }
 
-        List<Double> bids = orderBook.getBidHistory();
-        List<Double> asks = orderBook.getAskHistory();
-        List<Double> mids = orderBook.getMidHistory();
+        int dirty;
+        synchronized (frameLock) {
+            full |= candles != framedCandles;
+            framedCandles = candles;
+            dirty = candles ? layoutCandles(candleData) : layoutLines();
+            dirty |= updateLegend(snapshot);
+        }
 
-        if (mids.isEmpty()) {
-            return; 
+        if (full) {
+            repaint();
+            return;
+        }
+        if ((dirty & PLOT) != 0) {
+            repaint(PADDING_LEFT - POINT_RADIUS, PADDING_TOP - POINT_RADIUS,
+                    plotWidth + 2 * POINT_RADIUS, plotHeight + 2 * POINT_RADIUS);
+        }
+        if ((dirty & PRICE_AXIS) != 0) {
+            repaint(0, 0, PADDING_LEFT, PADDING_TOP + plotHeight + POINT_RADIUS);
+        }
+        if ((dirty & SAMPLE_AXIS) != 0) {
+            repaint(0, PADDING_TOP + plotHeight, width, PADDING_BOTTOM);
+        }
+        if ((dirty & LEGEND) != 0) {
+            repaint(0, 0, width, PADDING_TOP);
         }
+    }
 
-        Graphics2D g2 = (Graphics2D) g.create();
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    // Resolves the view against the samples the book still holds and downsamples it, so the work
+    // depends on the plot width rather than on how many samples are in view.
+    private void fetchWindow() {
+        long total = orderBook.getSampleCount();
+        long retained = Math.min(total, orderBook.getHistoryCapacity());
+        long first;
+        long count;
+        synchronized (frameLock) {
+            count = Math.min(viewCount, retained);
+            long latest = total - count + 1;
+            first = following ? latest : Math.max(total - retained + 1, Math.min(viewFirst, latest));
+            following = first == latest;
+        }
+
+        int columns = (int) Math.min(count, bidMins.length);
+        orderBook.downsampleBidHistory(first, count, columns, bidMins, bidMaxs);
+        orderBook.downsampleAskHistory(first, count, columns, askMins, askMaxs);
+        orderBook.downsampleMidHistory(first, count, columns, midMins, midMaxs);
+        windowFirst = first;
+        windowCount = count;
+        windowColumns = columns;
+    }
 
-        final int plotWidth = width - PADDING_LEFT - PADDING_RIGHT;
-        final int plotHeight = height - PADDING_TOP - PADDING_BOTTOM;
+    private int layoutLines() {
+        int n = windowColumns;
+        frameFirst = windowFirst;
+        frameCount = windowCount;
 
         // Combine all prices for min/max calculation
-        List<Double> allPrices = new ArrayList<>();
-        addNonNull(allPrices, bids);
-        addNonNull(allPrices, asks);
-        addNonNull(allPrices, mids);
+        double[] range = {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        includeRange(range, bidMins, bidMaxs, n);
+        includeRange(range, askMins, askMaxs, n);
+        includeRange(range, midMins, midMaxs, n);
+
+        if (n == 0 || range[0] > range[1]) {
+            columnCount = 0;
+            return PLOT | PRICE_AXIS | SAMPLE_AXIS;
+        }
 
-        if (allPrices.isEmpty()) {
-            g2.dispose();
-            return;
+        double minPrice = range[0] * 0.999;
+        double maxPrice = range[1] * 1.001;
+        double priceRange = maxPrice - minPrice;
+        if (priceRange == 0) priceRange = 1;
+
+        if (columnXs.length < n) {
+            columnXs = new int[n];
+            bidMinYs = new int[n];
+            bidMaxYs = new int[n];
+            askMinYs = new int[n];
+            askMaxYs = new int[n];
+            midMinYs = new int[n];
+            midMaxYs = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            columnXs[i] = PADDING_LEFT + (int) ((long) i * plotWidth / n);
+        }
+        scaleSeries(bidMins, bidMinYs, n, minPrice, priceRange);
+        scaleSeries(bidMaxs, bidMaxYs, n, minPrice, priceRange);
+        scaleSeries(askMins, askMinYs, n, minPrice, priceRange);
+        scaleSeries(askMaxs, askMaxYs, n, minPrice, priceRange);
+        scaleSeries(midMins, midMinYs, n, minPrice, priceRange);
+        scaleSeries(midMaxs, midMaxYs, n, minPrice, priceRange);
+        columnCount = n;
+        // One sample per column, spaced widely enough to mark each one.
+        showPoints = n == windowCount && plotWidth / n >= MIN_SPACING;
+
+        int dirty = PLOT | updateAxis(maxPrice, priceRange);
+        if (windowFirst != labelFirst || windowCount != labelCount) {
+            labelFirst = windowFirst;
+            labelCount = windowCount;
+            layoutSampleIndices();
+            dirty |= SAMPLE_AXIS;
+        }
+        return dirty;
+    }
+
+    private void scaleSeries(double[] series, int[] ys, int n, double min, double range) {
+        for (int i = 0; i < n; i++) {
+            ys[i] = Double.isNaN(series[i]) ? GAP : scaleY(series[i], min, range, plotHeight, PADDING_TOP);
+        }
+    }
+
+    // About three labels per window, at round sample numbers (1, 2 or 5 times a power of ten).
+    private void layoutSampleIndices() {
+        long step = 1;
+        while (step * 3 < labelCount) {
+            if (step * 2 * 3 >= labelCount) {
+                step *= 2;
+            } else if (step * 5 * 3 >= labelCount) {
+                step *= 5;
+            } else {
+                step *= 10;
+                continue;
+            }
+            break;
+        }
+
+        sampleLabelCount = 0;
+        long end = labelFirst + labelCount;
+        for (long sampleIndex = (labelFirst + step - 1) / step * step; sampleIndex < end; sampleIndex += step) {
+            if (sampleLabelCount == sampleLabels.length) {
+                sampleLabels = Arrays.copyOf(sampleLabels, sampleLabelCount * 2 + 4);
+                sampleLabelXs = Arrays.copyOf(sampleLabelXs, sampleLabelCount * 2 + 4);
+            }
+            sampleLabels[sampleLabelCount] = String.valueOf(sampleIndex);
+            sampleLabelXs[sampleLabelCount] = PADDING_LEFT + (int) ((sampleIndex - labelFirst) * plotWidth / labelCount) - 6;
+            sampleLabelCount++;
+        }
+    }
+
+    private int layoutCandles(CandleData candles) {
+        int n = candles.size();
+        if (n == 0) {
+            candleCount = 0;
+            return PLOT | PRICE_AXIS;
         }
 
-        double minPrice = Collections.min(allPrices) * 0.999;
-        double maxPrice = Collections.max(allPrices) * 1.001;
+        double minPrice = Double.POSITIVE_INFINITY;
+        double maxPrice = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minPrice = Math.min(minPrice, candles.getLow(i));
+            maxPrice = Math.max(maxPrice, candles.getHigh(i));
+        }
+        minPrice *= 0.999;
+        maxPrice *= 1.001;
         double priceRange = maxPrice - minPrice;
         if (priceRange == 0) priceRange = 1;
 
-        int spacing = Math.max(plotWidth / mids.size(), MIN_SPACING);
+        if (candleXs.length < n) {
+            candleXs = new int[n];
+            highYs = new int[n];
+            lowYs = new int[n];
+            openYs = new int[n];
+            closeYs = new int[n];
+            rising = new boolean[n];
+        }
+        for (int i = 0; i < n; i++) {
+            candleXs[i] = PADDING_LEFT + i * CANDLE_SLOT + CANDLE_SLOT / 2;
+            highYs[i] = scaleY(candles.getHigh(i), minPrice, priceRange, plotHeight, PADDING_TOP);
+            lowYs[i] = scaleY(candles.getLow(i), minPrice, priceRange, plotHeight, PADDING_TOP);
+            openYs[i] = scaleY(candles.getOpen(i), minPrice, priceRange, plotHeight, PADDING_TOP);
+            closeYs[i] = scaleY(candles.getClose(i), minPrice, priceRange, plotHeight, PADDING_TOP);
+            rising[i] = candles.closeTicks[i] >= candles.openTicks[i];
+        }
+        candleCount = n;
+        return PLOT | updateAxis(maxPrice, priceRange);
+    }
 
-        drawBackground(g2, plotWidth, plotHeight);
-        drawGridLinesAndLabels(g2, plotWidth, plotHeight, maxPrice, priceRange);
-        drawSampleIndices(g2, mids.size(), spacing, plotHeight);
+    // Axis labels are only formatted when the scale moves.
+    private int updateAxis(double maxPrice, double priceRange) {
+        if (maxPrice == axisMax && priceRange == axisRange) {
+            return 0;
+        }
+        axisMax = maxPrice;
+        axisRange = priceRange;
+        for (int i = 0; i <= GRID_LINES; i++) {
+            axisLabels[i] = String.format("%.2f", maxPrice - i * priceRange / GRID_LINES);
+        }
+        return PRICE_AXIS;
+    }
+
+    private int updateLegend(BookSnapshot snapshot) {
+        long bid = snapshot.hasBid() ? snapshot.getBestBidTicks() : Long.MIN_VALUE;
+        long ask = snapshot.hasAsk() ? snapshot.getBestAskTicks() : Long.MIN_VALUE;
+        if (bid == legendBidTicks && ask == legendAskTicks) {
+            return 0;
+        }
+        legendBidTicks = bid;
+        legendAskTicks = ask;
+        bidLegend = "Bid: " + (snapshot.hasBid() ? snapshot.getCurrentBid() : "—");
+        midLegend = "Mid: " + (snapshot.hasBid() && snapshot.hasAsk() ?
+                String.format("%.2f", snapshot.getCurrentMid()) : "—");
+        askLegend = "Ask: " + (snapshot.hasAsk() ? snapshot.getCurrentAsk() : "—");
+        return LEGEND;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        synchronized (frameLock) {
+            if (framedCandles) {
+                paintCandles(g2);
+            } else {
+                paintLines(g2);
+            }
+        }
+        g2.dispose();
+    }
+
+    private void paintLines(Graphics2D g2) {
+        if (columnCount == 0) {
+            return;
+        }
+
+        drawBackground(g2);
+        drawGridLinesAndLabels(g2);
+        drawSampleIndices(g2);
 
         // Draw price series conditionally
         if (bidCheckbox.isSelected()) {
-            drawSeries(g2, bids, spacing, plotHeight, minPrice, priceRange, PADDING_TOP, Color.BLUE, true);
-            drawPoints(g2, bids, spacing, plotHeight, minPrice, priceRange, PADDING_TOP, new Color(0, 0, 255, 180));
+            drawSeries(g2, bidMinYs, bidMaxYs, Color.BLUE);
+            drawPoints(g2, bidMinYs, BID_POINT_COLOR);
         }
         if (askCheckbox.isSelected()) {
-            drawSeries(g2, asks, spacing, plotHeight, minPrice, priceRange, PADDING_TOP, Color.GREEN.darker(), true);
-            drawPoints(g2, asks, spacing, plotHeight, minPrice, priceRange, PADDING_TOP, new Color(0, 128, 0, 180));
+            drawSeries(g2, askMinYs, askMaxYs, Color.GREEN.darker());
+            drawPoints(g2, askMinYs, ASK_POINT_COLOR);
         }
         if (midCheckbox.isSelected()) {
-            drawSeries(g2, mids, spacing, plotHeight, minPrice, priceRange, PADDING_TOP, Color.RED, true);
-            drawPoints(g2, mids, spacing, plotHeight, minPrice, priceRange, PADDING_TOP, new Color(255, 0, 0, 180));
+            drawSeries(g2, midMinYs, midMaxYs, Color.RED);
+            drawPoints(g2, midMinYs, MID_POINT_COLOR);
         }
 
         drawLegend(g2);
+    }
 
-        g2.dispose();
+    private void paintCandles(Graphics2D g2) {
+        if (candleCount == 0) {
+            return;
+        }
+
+        drawBackground(g2);
+        drawGridLinesAndLabels(g2);
+
+        int bodyWidth = CANDLE_SLOT - 2;
+        for (int i = 0; i < candleCount; i++) {
+            int x = candleXs[i];
+            g2.setColor(rising[i] ? Color.GREEN.darker() : Color.RED);
+            g2.drawLine(x, highYs[i], x, lowYs[i]);
+            g2.fillRect(x - bodyWidth / 2, Math.min(openYs[i], closeYs[i]), bodyWidth,
+                    Math.max(1, Math.abs(closeYs[i] - openYs[i])));
+        }
+
+        drawLegend(g2);
     }
 
-    private void drawBackground(Graphics2D g2, int plotWidth, int plotHeight) {
+    private void drawBackground(Graphics2D g2) {
         g2.setColor(BACKGROUND_COLOR);
         g2.fillRect(PADDING_LEFT, PADDING_TOP, plotWidth, plotHeight);
     }
 
-    private void drawGridLinesAndLabels(Graphics2D g2, int plotWidth, int plotHeight,
-                                        double maxPrice, double priceRange) {
+    private void drawGridLinesAndLabels(Graphics2D g2) {
         g2.setColor(GRID_COLOR);
         g2.setFont(AXIS_LABEL_FONT);
 
@@ -134,29 +547,19 @@ public class PriceChartPanel extends JPanel {
             int y = PADDING_TOP + i * plotHeight / GRID_LINES;
             g2.drawLine(PADDING_LEFT, y, PADDING_LEFT + plotWidth, y);
 
-            double priceLabel = maxPrice - i * priceRange / GRID_LINES;
-            String label = String.format("%.2f", priceLabel);
-
             g2.setColor(AXIS_LABEL_COLOR);
-            g2.drawString(label, 5, y + 5);
+            g2.drawString(axisLabels[i], 5, y + 5);
             g2.setColor(GRID_COLOR);
         }
     }
 
-    private void drawSampleIndices(Graphics2D g2, int dataSize, int spacing, int plotHeight) {
-        long firstSampleIndex = orderBook.getFirstSampleIndex();
-
+    private void drawSampleIndices(Graphics2D g2) {
         g2.setColor(AXIS_LABEL_COLOR);
         g2.setFont(SAMPLE_LABEL_FONT);
 
-        for (int i = 0; i < dataSize; i++) {
-            long sampleIndex = firstSampleIndex + i;
-            if (sampleIndex % 100 != 0) continue;
-
-            int x = PADDING_LEFT + i * spacing;
-            int y = PADDING_TOP + plotHeight + 15;
-
-            g2.drawString(String.valueOf(sampleIndex), x - 6, y);
+        int y = PADDING_TOP + plotHeight + 15;
+        for (int i = 0; i < sampleLabelCount; i++) {
+            g2.drawString(sampleLabels[i], sampleLabelXs[i], y);
         }
     }
 
@@ -164,60 +567,62 @@ public class PriceChartPanel extends JPanel {
         g2.setFont(SERIES_LABEL_FONT);
 
         g2.setColor(Color.BLUE);
-        String bidStr = "Bid: " + (orderBook.getCurrentBid() != null ? orderBook.getCurrentBid() : "—");
-        g2.drawString(bidStr, PADDING_LEFT, 20);
+        g2.drawString(bidLegend, PADDING_LEFT, 20);
 
         g2.setColor(Color.RED);
-        String midVal = orderBook.getCurrentMid() != null ?
-                String.format("%.2f", orderBook.getCurrentMid()) : "—";
-        g2.drawString("Mid: " + midVal, PADDING_LEFT + 90, 20);
+        g2.drawString(midLegend, PADDING_LEFT + 90, 20);
 
         g2.setColor(Color.GREEN.darker());
-        String askStr = "Ask: " + (orderBook.getCurrentAsk() != null ? orderBook.getCurrentAsk() : "—");
-        g2.drawString(askStr, PADDING_LEFT + 190, 20);
+        g2.drawString(askLegend, PADDING_LEFT + 190, 20);
     }
 
-    private void addNonNull(List<Double> target, List<Double> source) {
-        for (Double d : source) {
-            if (d != null) {
-                target.add(d);
+    private void includeRange(double[] range, double[] mins, double[] maxs, int n) {
+        for (int i = 0; i < n; i++) {
+            if (!Double.isNaN(mins[i])) {
+                range[0] = Math.min(range[0], mins[i]);
+                range[1] = Math.max(range[1], maxs[i]);
             }
         }
     }
 
-    private void drawSeries(Graphics2D g2, List<Double> series, int spacing, int plotHeight,
-                            double min, double range, int paddingTop, Color color, boolean thick) {
+    // At most two lines per column: from the previous column into the nearer end of this column's
+    // min/max span, then along the span. With one sample per column this is the plain polyline.
+    private void drawSeries(Graphics2D g2, int[] minYs, int[] maxYs, Color color) {
         g2.setColor(color);
-        g2.setStroke(new BasicStroke(thick ? 2.5f : 1f));
+        g2.setStroke(showPoints ? SERIES_STROKE : DENSE_STROKE);
 
         int prevX = -1, prevY = -1;
-        for (int i = 0; i < series.size(); i++) {
-            Double price = series.get(i);
-            if (price == null) continue;
-
-            int x = PADDING_LEFT + i * spacing;
-            int y = scaleY(price, min, range, plotHeight, paddingTop);
-
+        for (int i = 0; i < columnCount; i++) {
+            if (minYs[i] == GAP) continue;
+
+            int x = columnXs[i];
+            int enter = minYs[i];
+            int leave = maxYs[i];
+            if (prevX != -1 && Math.abs(prevY - leave) < Math.abs(prevY - enter)) {
+                enter = maxYs[i];
+                leave = minYs[i];
+            }
             if (prevX != -1) {
-                g2.drawLine(prevX, prevY, x, y);
+                g2.drawLine(prevX, prevY, x, enter);
+            }
+            if (enter != leave) {
+                g2.drawLine(x, enter, x, leave);
             }
             prevX = x;
-            prevY = y;
+            prevY = leave;
         }
     }
 
-    private void drawPoints(Graphics2D g2, List<Double> series, int spacing, int plotHeight,
-                            double min, double range, int paddingTop, Color color) {
+    private void drawPoints(Graphics2D g2, int[] ys, Color color) {
+        if (!showPoints) {
+            return;
+        }
         g2.setColor(color);
-        int radius = 5;
-        for (int i = 0; i < series.size(); i++) {
-            Double price = series.get(i);
-            if (price == null) continue;
-
-            int x = PADDING_LEFT + i * spacing;
-            int y = scaleY(price, min, range, plotHeight, paddingTop);
+        for (int i = 0; i < columnCount; i++) {
+            if (ys[i] == GAP) continue;
 
-            g2.fillOval(x - radius / 2, y - radius / 2, radius, radius);
+            int x = columnXs[i];
+            g2.fillOval(x - POINT_RADIUS / 2, ys[i] - POINT_RADIUS / 2, POINT_RADIUS, POINT_RADIUS);
         }
     }
 
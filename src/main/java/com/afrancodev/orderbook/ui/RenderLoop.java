@@ -0,0 +1,63 @@
+package com.afrancodev.orderbook.ui;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Prepares frames for its views on a daemon thread at a capped rate, whatever rate the engine runs
+// at. The EDT then only paints data that is already laid out.
+class RenderLoop {
+
+    static final int DEFAULT_FPS = 30;
+
+    private final FrameView[] views;
+    // Render thread only: views whose prepareFrame threw and are no longer called.
+    private final boolean[] failed;
+    private final long periodNanos;
+    private ScheduledExecutorService scheduler;
+
+    RenderLoop(int fps, FrameView... views) {
+        if (fps <= 0) {
+            throw new IllegalArgumentException("Frame rate must be positive: " + fps);
+        }
+        this.views = views.clone();
+        this.failed = new boolean[views.length];
+        this.periodNanos = TimeUnit.SECONDS.toNanos(1) / fps;
+    }
+
+    synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ui-render");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::frame, 0, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // A view that throws is reported once through the render thread's uncaught exception handler
+    // and then left alone; the others keep rendering and the schedule is not cancelled.
+    private void frame() {
+        for (int i = 0; i < views.length; i++) {
+            if (failed[i]) {
+                continue;
+            }
+            try {
+                views[i].prepareFrame();
+            } catch (RuntimeException e) {
+                failed[i] = true;
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+}
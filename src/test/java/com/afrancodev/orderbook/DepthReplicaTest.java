@@ -0,0 +1,84 @@
+package com.afrancodev.orderbook;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.Order;
+import com.afrancodev.orderbook.models.PriceLevelData;
+
+public class DepthReplicaTest extends TestCase {
+
+    private static void drive(OrderBook book, OrderGenerator generator, int orders) {
+        for (int i = 0; i < orders; i++) {
+            book.addOrder(generator.generateRandomOrder(book));
+            book.matchOrders();
+            Order resting = book.getOrder(i / 2 + 1);
+            if (i % 5 == 0 && resting != null) {
+                book.modifyOrder(resting.getId(), 3, resting.getPriceTicks() + (i % 3) - 1);
+            }
+            if (i % 10 == 9) {
+                generator.updateFairPrice();
+                book.expireOldOrders();
+                book.updatePrices();
+            }
+        }
+    }
+
+    private static void assertSameLevels(PriceLevelData expected, PriceLevelData actual) {
+        assertTrue(Arrays.equals(expected.priceTicks, actual.priceTicks));
+        assertTrue(Arrays.equals(expected.quantities, actual.quantities));
+    }
+
+    public void testReplicaTracksTheBookFromDeltas() {
+        OrderBook book = new OrderBook(new Instrument("TEST", 0.01));
+        OrderGenerator generator = new OrderGenerator(100.0);
+        drive(book, generator, 2_000);
+
+        DepthReplica replica = new DepthReplica(book);
+        replica.start();
+        long startSequence = replica.getSequence();
+        drive(book, generator, 20_000);
+
+        assertEquals(book.getDepthSequence(), replica.getSequence());
+        assertEquals(book.getDepthSequence() - startSequence, replica.getAppliedUpdates());
+        assertEquals(0, replica.getResyncCount());
+        assertSameLevels(book.getBidLevels(), replica.getBidLevels(Integer.MAX_VALUE));
+        assertSameLevels(book.getAskLevels(), replica.getAskLevels(Integer.MAX_VALUE));
+    }
+
+    public void testUpdatesCarryOnlyTheChangedLevel() {
+        OrderBook book = new OrderBook(new Instrument("TEST", 0.01));
+        StringBuilder events = new StringBuilder();
+        book.subscribe((sequence, action, isBuy, priceTicks, quantity) ->
+                events.append(sequence).append(' ').append(action).append(' ')
+                        .append(isBuy ? "B" : "S").append(' ').append(priceTicks).append('x').append(quantity).append(';'));
+
+        long first = book.addOrder(new Order(true, 100, 10, false, 50));
+        book.addOrder(new Order(true, 100, 5, false, 50));
+        book.addOrder(new Order(false, 100, 12, false, 50));
+        book.matchOrders();
+        book.cancelOrder(first + 1);
+
+        assertEquals("1 ADD B 100x10;2 CHANGE B 100x15;3 ADD S 100x12;"
+                + "4 CHANGE B 100x5;5 CHANGE S 100x2;6 CHANGE B 100x3;7 DELETE S 100x0;8 DELETE B 100x0;",
+                events.toString());
+    }
+
+    public void testGapTriggersASnapshotResync() {
+        OrderBook book = new OrderBook(new Instrument("TEST", 0.01));
+        book.addOrder(new Order(true, 100, 10, false, 50));
+        DepthReplica replica = new DepthReplica(book);
+        replica.start();
+
+        book.addOrder(new Order(false, 105, 7, false, 50));
+        replica.onLevelUpdate(replica.getSequence() + 5, DepthListener.Action.ADD, true, 90, 1);
+
+        assertEquals(1, replica.getResyncCount());
+        assertEquals(book.getDepthSequence(), replica.getSequence());
+        assertEquals(100, replica.getBestBidTicks());
+        assertEquals(105, replica.getBestAskTicks());
+        assertSameLevels(book.getBidLevels(), replica.getBidLevels(10));
+    }
+}
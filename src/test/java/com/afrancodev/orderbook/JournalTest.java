@@ -0,0 +1,106 @@
+package com.afrancodev.orderbook;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import junit.framework.TestCase;
+
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.OrderPool;
+
+public class JournalTest extends TestCase {
+
+    private Path path;
+
+    @Override
+    protected void setUp() throws IOException {
+        File file = File.createTempFile("orderbook", ".journal");
+        file.delete();
+        path = file.toPath();
+    }
+
+    @Override
+    protected void tearDown() {
+        path.toFile().delete();
+    }
+
+    private static OrderBook newBook() {
+        return new OrderBook(new Instrument("TEST", 0.01), new OrderPool(1024));
+    }
+
+    private static void drive(OrderBook book, OrderGenerator generator, int orders) {
+        for (int i = 0; i < orders; i++) {
+            book.addOrder(generator.generateRandomOrder(book));
+            book.matchOrders();
+            if (i % 7 == 0) {
+                book.modifyOrder(i / 2 + 1, 5, 10_000);
+            }
+            if (i % 11 == 0) {
+                book.cancelOrder(i / 3 + 1);
+            }
+            if (i % 10 == 9) {
+                generator.updateFairPrice();
+                book.expireOldOrders();
+                book.updatePrices();
+            }
+        }
+    }
+
+    private static void assertSameState(OrderBook expected, OrderBook actual) {
+        assertEquals(expected.getTradeCount(), actual.getTradeCount());
+        assertEquals(expected.getTradeHistory().toString(), actual.getTradeHistory().toString());
+        assertEquals(expected.getBuyOrdersCount(), actual.getBuyOrdersCount());
+        assertEquals(expected.getSellOrdersCount(), actual.getSellOrdersCount());
+        assertEquals(expected.getTotalBuyOrdersQuantity(), actual.getTotalBuyOrdersQuantity());
+        assertEquals(expected.getTotalSellOrdersQuantity(), actual.getTotalSellOrdersQuantity());
+        assertEquals(expected.getCurrentTick(), actual.getCurrentTick());
+        assertEquals(expected.getBestBidTicks(), actual.getBestBidTicks());
+        assertEquals(expected.getBestAskTicks(), actual.getBestAskTicks());
+        assertEquals(expected.getMidHistory(), actual.getMidHistory());
+    }
+
+    public void testReplayRebuildsTheBookAtAnySequence() throws IOException {
+        OrderBook book = newBook();
+        OrderGenerator generator = new OrderGenerator(100.0);
+        OrderBook midway = newBook();
+        long midSequence;
+        try (Journal journal = new Journal(path, 4096, 512)) {
+            book.setJournal(journal);
+            drive(book, generator, 20_000);
+            midSequence = journal.getSequence();
+            assertEquals(midSequence, Journal.replay(path, midway, midSequence));
+            assertSameState(book, midway);
+            drive(book, generator, 20_000);
+        }
+
+        OrderBook replayed = newBook();
+        long last = Journal.replay(path, replayed, Long.MAX_VALUE);
+        assertTrue(last > midSequence);
+        assertSameState(book, replayed);
+
+        OrderBook partial = newBook();
+        assertEquals(midSequence, Journal.replay(path, partial, midSequence));
+        assertSameState(midway, partial);
+    }
+
+    public void testReopenedJournalContinuesAfterTheLastRecord() throws IOException {
+        OrderBook book = newBook();
+        OrderGenerator generator = new OrderGenerator(100.0);
+        long first;
+        try (Journal journal = new Journal(path, 1024, 64)) {
+            book.setJournal(journal);
+            drive(book, generator, 1_000);
+            first = journal.getSequence();
+        }
+        try (Journal journal = new Journal(path, 1024, 64)) {
+            assertEquals(first, journal.getSequence());
+            book.setJournal(journal);
+            drive(book, generator, 1_000);
+        }
+
+        OrderBook replayed = newBook();
+        Journal.replay(path, replayed, Long.MAX_VALUE);
+        assertSameState(book, replayed);
+    }
+}
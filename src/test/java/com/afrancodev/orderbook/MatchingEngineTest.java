@@ -0,0 +1,106 @@
+package com.afrancodev.orderbook;
+
+import junit.framework.TestCase;
+
+import com.afrancodev.orderbook.models.BookSnapshot;
+import com.afrancodev.orderbook.models.Instrument;
+
+public class MatchingEngineTest extends TestCase {
+
+    private static final int PRODUCERS = 4;
+    private static final int ORDERS_PER_PRODUCER = 50_000;
+
+    public void testCommandsFromManyProducersAreAllApplied() throws InterruptedException {
+        OrderBook book = new OrderBook(new Instrument("TEST", 0.01));
+        MatchingEngine engine = new MatchingEngine(book, 1024);
+        Thread matcher = new Thread(engine);
+        matcher.start();
+
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            final boolean isBuy = p % 2 == 0;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < ORDERS_PER_PRODUCER; i++) {
+                    engine.submitOrder(isBuy, isBuy ? 9_000 + i % 500 : 10_000 + i % 500, 1, false, 1_000_000);
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        engine.submitTick();
+
+        engine.stop();
+        matcher.join();
+
+        long total = PRODUCERS * ORDERS_PER_PRODUCER + 1;
+        assertEquals(total, engine.getProcessedCommands());
+        assertEquals(PRODUCERS * ORDERS_PER_PRODUCER, book.getBuyOrdersCount() + book.getSellOrdersCount());
+
+        BookSnapshot snapshot = book.getSnapshot();
+        assertEquals(total - 1, snapshot.getSequence());
+        assertEquals(9_499, snapshot.getBestBidTicks());
+        assertEquals(10_000, snapshot.getBestAskTicks());
+        assertEquals(1, snapshot.getHistorySize());
+    }
+
+    public void testCancelAndModifyAddressOrdersBySubmittedId() throws InterruptedException {
+        OrderBook book = new OrderBook(new Instrument("TEST", 0.01));
+        MatchingEngine engine = new MatchingEngine(book);
+        Thread matcher = new Thread(engine);
+        matcher.start();
+
+        long kept = engine.submitOrder(true, 9_990, 10, false, 100);
+        long cancelled = engine.submitOrder(true, 9_995, 10, false, 100);
+        engine.submitCancel(cancelled);
+        engine.submitModify(kept, 3, 9_990);
+        engine.submitCancel(cancelled);
+        engine.stop();
+        matcher.join();
+
+        assertEquals(1, engine.getRejectedCommands());
+        assertNull(book.getOrder(cancelled));
+        assertEquals(3, book.getOrder(kept).getQuantity());
+    }
+
+    public void testCrossingOrdersMatchOnArrival() throws InterruptedException {
+        OrderBook book = new OrderBook(new Instrument("TEST", 0.01));
+        MatchingEngine engine = new MatchingEngine(book);
+        Thread matcher = new Thread(engine);
+        matcher.start();
+
+        engine.submitOrder(false, 10_000, 10, false, 100);
+        engine.submitOrder(true, 10_001, 4, false, 100);
+        engine.stop();
+        matcher.join();
+
+        assertEquals(1, book.getTradeHistory().size());
+        assertEquals(6, book.getTotalSellOrdersQuantity());
+        assertEquals(0, book.getBuyOrdersCount());
+    }
+
+    public void testBatchIsAppliedInOrderWithOnePriceSample() throws InterruptedException {
+        OrderBook book = new OrderBook(new Instrument("TEST", 0.01));
+        MatchingEngine engine = new MatchingEngine(book, 64);
+        Thread matcher = new Thread(engine);
+        matcher.start();
+
+        OrderBatch batch = new OrderBatch(50);
+        for (int i = 0; i < 50; i++) {
+            batch.add(i % 2 == 0, i % 2 == 0 ? 9_990 - i : 10_010 + i, 5, false, 100);
+        }
+        long firstId = engine.submitBatch(batch);
+        long nextId = engine.submitBatch(batch);
+        engine.stop();
+        matcher.join();
+
+        assertEquals(firstId + 50, nextId);
+        assertEquals(100, engine.getProcessedCommands());
+        assertEquals(100, book.getBuyOrdersCount() + book.getSellOrdersCount());
+        assertEquals(10_011, book.getOrder(nextId + 1).getPriceTicks());
+        assertEquals(2, book.getHistorySize());
+        assertEquals(9_990, book.getBestBidTicks());
+        assertEquals(10_011, book.getBestAskTicks());
+    }
+}
@@ -0,0 +1,116 @@
+package com.afrancodev.orderbook;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.Order;
+import com.afrancodev.orderbook.models.OrderPool;
+import com.afrancodev.orderbook.models.TimeInForce;
+
+public class OffHeapOrderBookTest extends TestCase {
+
+    private static final Instrument INSTRUMENT = new Instrument("TEST", 0.01);
+
+    public void testMatchesHeapBookOnTheSameFlow() {
+        OrderStream stream = new OrderGenerator(100.0, 11).generateStream(INSTRUMENT, 50_000, 10);
+        OrderBook heap = new OrderBook(INSTRUMENT, new OrderPool(4096));
+        OffHeapOrderBook offHeap = new OffHeapOrderBook(INSTRUMENT, 50_000);
+
+        for (int i = 0; i < stream.size(); i++) {
+            heap.addOrder(stream.createOrder(heap, i));
+            offHeap.addOrder(stream.isBuy(i), stream.getPriceTicks(i), stream.getQuantity(i),
+                    stream.isMarketOrder(i), stream.getAge(i));
+            heap.matchOrders();
+            offHeap.matchOrders();
+            if (i % 7 == 0) {
+                assertEquals(heap.modifyOrder(i / 2 + 1, 5, 10_000), offHeap.modifyOrder(i / 2 + 1, 5, 10_000));
+            }
+            if (i % 11 == 0) {
+                assertEquals(heap.cancelOrder(i / 3 + 1), offHeap.cancelOrder(i / 3 + 1));
+            }
+            if (i % 10 == 9) {
+                heap.expireOldOrders();
+                offHeap.expireOldOrders();
+                heap.updatePrices();
+                offHeap.updatePrices();
+            }
+        }
+
+        assertTrue(heap.getTradeCount() > 0);
+        assertEquals(heap.getTradeHistory().toString(), offHeap.getTradeHistory().toString());
+        assertEquals(heap.getBuyOrdersCount(), offHeap.getBuyOrdersCount());
+        assertEquals(heap.getSellOrdersCount(), offHeap.getSellOrdersCount());
+        assertEquals(heap.getTotalBuyOrdersQuantity(), offHeap.getTotalBuyOrdersQuantity());
+        assertEquals(heap.getTotalSellOrdersQuantity(), offHeap.getTotalSellOrdersQuantity());
+        assertEquals(heap.getMidHistory(), offHeap.getMidHistory());
+        assertEquals(heap.getCurrentTick(), offHeap.getCurrentTick());
+        assertTrue(Arrays.equals(heap.getBidLevels().priceTicks, offHeap.getBidLevels().priceTicks));
+        assertTrue(Arrays.equals(heap.getAskLevels().quantities, offHeap.getAskLevels().quantities));
+    }
+
+    public void testHandlesAreRecycledAndCapacityIsEnforced() {
+        OffHeapOrderBook book = new OffHeapOrderBook(INSTRUMENT, 2);
+        book.addOrder(false, 10_000, 5, false, 100);
+        book.addOrder(true, 10_000, 5, false, 100);
+        book.matchOrders();
+        assertEquals(0, book.getBuyOrdersCount() + book.getSellOrdersCount());
+
+        long first = book.addOrder(true, 9_990, 1, false, 100);
+        book.addOrder(true, 9_980, 1, false, 100);
+        assertEquals(9_990, book.getOrder(first).getPriceTicks());
+        try {
+            book.addOrder(true, 9_970, 1, false, 100);
+            fail("Expected the store to be full");
+        } catch (IllegalStateException expected) {
+            // capacity is fixed at construction
+        }
+        assertTrue(book.cancelOrder(first));
+        assertNull(book.getOrder(first));
+        book.addOrder(true, 9_970, 1, false, 100);
+        assertEquals(2, book.getBuyOrdersCount());
+    }
+
+    public void testEveryOrderTypeMatchesTheHeapBook() {
+        OrderBook heap = new OrderBook(INSTRUMENT);
+        OffHeapOrderBook offHeap = new OffHeapOrderBook(INSTRUMENT, 10_000);
+        Random random = new Random(19);
+
+        for (int i = 0; i < 20_000; i++) {
+            boolean isBuy = random.nextBoolean();
+            long priceTicks = 10_000 + random.nextInt(41) - 20;
+            int quantity = 1 + random.nextInt(20);
+            int type = random.nextInt(8);
+            int display = type == 3 ? 1 + random.nextInt(5) : 0;
+            long stopTicks = type == 4 ? priceTicks + (isBuy ? 5 : -5) : 0;
+            for (OrderBook book : new OrderBook[] { heap, offHeap }) {
+                Order order = book.createOrder(isBuy, priceTicks, quantity, type == 7, 50);
+                if (type == 1 || type == 2) {
+                    order.setTimeInForce(type == 1 ? TimeInForce.IOC : TimeInForce.FOK);
+                }
+                order.setPostOnly(type == 5);
+                if (type == 4) {
+                    order.setStop(stopTicks);
+                }
+                order.setDisplayQuantity(display);
+                book.addOrder(order);
+                book.matchOrders();
+                if (i % 13 == 0) {
+                    book.modifyOrder(i / 2 + 1, 1 + i % 30, priceTicks);
+                }
+                if (i % 10 == 9) {
+                    book.expireOldOrders();
+                }
+            }
+        }
+
+        assertTrue(heap.getPendingStopCount() > 0);
+        assertEquals(heap.getTradeHistory().toString(), offHeap.getTradeHistory().toString());
+        assertEquals(heap.getPendingStopCount(), offHeap.getPendingStopCount());
+        assertEquals(heap.getTotalBuyOrdersQuantity(), offHeap.getTotalBuyOrdersQuantity());
+        assertEquals(heap.getTotalSellOrdersQuantity(), offHeap.getTotalSellOrdersQuantity());
+        assertTrue(Arrays.equals(heap.getBidLevels().quantities, offHeap.getBidLevels().quantities));
+    }
+}
@@ -0,0 +1,304 @@
+package com.afrancodev.orderbook;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.LevelBuffer;
+import com.afrancodev.orderbook.models.Order;
+import com.afrancodev.orderbook.models.OrderBuffer;
+import com.afrancodev.orderbook.models.OrderPool;
+import com.afrancodev.orderbook.models.PriceLevelData;
+import com.afrancodev.orderbook.models.Trade;
+
+public class OrderBookTest extends TestCase {
+
+    private OrderBook book;
+
+    @Override
+    protected void setUp() {
+        book = new OrderBook(new Instrument("TEST", 0.01));
+    }
+
+    public void testLevelsAreAggregatedBestFirst() {
+        book.addOrder(limit(true, 9998, 10));
+        book.addOrder(limit(true, 10000, 5));
+        book.addOrder(limit(true, 9998, 7));
+        book.addOrder(limit(false, 10005, 3));
+        book.addOrder(limit(false, 10002, 4));
+
+        PriceLevelData bids = book.getBidLevels();
+        assertTrue(Arrays.equals(new long[] {10000, 9998}, bids.priceTicks));
+        assertTrue(Arrays.equals(new int[] {5, 17}, bids.quantities));
+        assertEquals(99.98, bids.getPrice(1));
+
+        PriceLevelData asks = book.getAskLevels();
+        assertTrue(Arrays.equals(new long[] {10002, 10005}, asks.priceTicks));
+        assertTrue(Arrays.equals(new int[] {4, 3}, asks.quantities));
+
+        assertEquals(22, book.getTotalBuyOrdersQuantity());
+        assertEquals(3, book.getBuyOrdersCount());
+    }
+
+    public void testDepthLimitedSnapshotsFillReusableBuffers() {
+        Order first = limit(true, 10000, 5);
+        Order second = limit(true, 10000, 6);
+        book.addOrder(first);
+        book.addOrder(limit(true, 9998, 10));
+        book.addOrder(second);
+        book.addOrder(limit(true, 9990, 1));
+        book.addOrder(limit(false, 10002, 4));
+
+        LevelBuffer levels = new LevelBuffer(4);
+        book.snapshot(2, levels);
+        assertEquals(book.getDepthSequence(), levels.getSequence());
+        assertEquals(2, levels.getBidCount());
+        assertEquals(10000, levels.getBidTicks(0));
+        assertEquals(11, levels.getBidQuantity(0));
+        assertEquals(2, levels.getBidOrderCount(0));
+        assertEquals(9998, levels.getBidTicks(1));
+        assertEquals(1, levels.getAskCount());
+        assertEquals(4, levels.getAskQuantity(0));
+
+        OrderBuffer orders = new OrderBuffer(2);
+        book.snapshot(10, orders);
+        assertEquals(2, orders.getBidCount());
+        assertEquals(first.getId(), orders.getBidOrderId(0));
+        assertEquals(second.getId(), orders.getBidOrderId(1));
+        assertEquals(6, orders.getBidQuantity(1));
+        assertEquals(10002, orders.getAskTicks(0));
+
+        // Refilling replaces the previous contents.
+        book.cancelOrder(first.getId());
+        book.snapshot(10, orders);
+        assertEquals(second.getId(), orders.getBidOrderId(0));
+        assertEquals(9998, orders.getBidTicks(1));
+    }
+
+    public void testPriceTooFarFromTheLadderIsRejectedWithoutSideEffects() {
+        OrderBook[] books = {book, new OffHeapOrderBook(new Instrument("TEST", 0.01), 16)};
+        for (OrderBook book : books) {
+            long resting = book.addOrder(limit(true, 10000, 5));
+            long far = 10000 + (1 << 23);
+            assertFalse(book.canRest(true, far));
+            assertTrue(book.canRest(false, far));
+
+            Order order = limit(true, far, 3);
+            order.assignId(2);
+            assertEquals(OrderBook.REJECTED, book.addOrder(order));
+            assertNull(book.getOrder(2));
+            assertFalse(book.cancelOrder(2));
+            assertEquals(1, book.getBuyOrdersCount());
+            assertEquals(5, book.getTotalBuyOrdersQuantity());
+
+            Order stop = limit(false, 9990, 3);
+            stop.setStop(9995);
+            assertEquals(2, book.addOrder(stop));
+            Order farStop = limit(false, 9990, 3);
+            farStop.setStop(9995 - (1 << 23));
+            assertEquals(OrderBook.REJECTED, book.addOrder(farStop));
+
+            // A reprice out of reach leaves the order where it was.
+            assertFalse(book.modifyOrder(resting, 5, far));
+            assertEquals(10000, book.getBestBidTicks());
+
+            for (int i = 0; i < 200; i++) {
+                book.expireOldOrders();
+            }
+            assertEquals(0, book.getBuyOrdersCount());
+            assertEquals(3, book.addOrder(limit(true, 10001, 1)));
+        }
+    }
+
+    public void testDuplicateIdIsRejectedWithoutSideEffects() {
+        OrderPool pool = new OrderPool(4);
+        OrderBook[] books = {new OrderBook(new Instrument("TEST", 0.01), pool),
+                new OffHeapOrderBook(new Instrument("TEST", 0.01), 2)};
+        for (OrderBook book : books) {
+            Order first = book.createOrder(true, 10000, 5, false, 100);
+            first.assignId(7);
+            assertEquals(7, book.addOrder(first));
+            Order second = book.createOrder(false, 10010, 3, false, 100);
+            second.assignId(7);
+            assertEquals(OrderBook.REJECTED, book.addOrder(second));
+
+            assertEquals(0, book.getSellOrdersCount());
+            assertEquals(10000, book.getOrder(7).getPriceTicks());
+            assertTrue(book.cancelOrder(7));
+            // The rejected order's slot was handed back: both slots take orders again.
+            book.addOrder(book.createOrder(true, 10000, 5, false, 100));
+            book.addOrder(book.createOrder(true, 9990, 5, false, 100));
+            assertEquals(2, book.getBuyOrdersCount());
+        }
+        assertEquals(2, pool.getAvailable());
+        assertEquals(0, pool.getMisses());
+    }
+
+    public void testSamePriceFillsInTimePriority() {
+        Order first = limit(false, 10000, 5);
+        Order second = limit(false, 10000, 5);
+        book.addOrder(first);
+        book.addOrder(second);
+        book.addOrder(limit(true, 10000, 7));
+
+        book.matchOrders();
+
+        assertEquals(0, first.getQuantity());
+        assertEquals(3, second.getQuantity());
+        assertEquals(1, book.getSellOrdersCount());
+        assertEquals(0, book.getBuyOrdersCount());
+    }
+
+    public void testCrossingLimitTradesAtRestingAskAndUpdatesTopOfBook() {
+        book.addOrder(limit(false, 10001, 5));
+        book.addOrder(limit(false, 10003, 5));
+        book.addOrder(limit(true, 10002, 8));
+
+        book.matchOrders();
+        book.updatePrices();
+
+        List<Trade> trades = book.getTradeHistory();
+        assertEquals(1, trades.size());
+        assertEquals(10001, trades.get(0).getPriceTicks());
+        assertEquals(5, trades.get(0).getQuantity());
+
+        assertEquals(10002, book.getBestBidTicks());
+        assertEquals(10003, book.getBestAskTicks());
+        assertEquals(100.02, book.getCurrentBid());
+        assertEquals(100.025, book.getCurrentMid(), 1e-9);
+    }
+
+    public void testExpiredOrdersLeaveTheBook() {
+        book.addOrder(new Order(true, 9900, 10, false, 1));
+        book.addOrder(new Order(true, 9800, 10, false, 2));
+
+        book.expireOldOrders();
+        book.updatePrices();
+
+        assertEquals(1, book.getBuyOrdersCount());
+        assertEquals(9800, book.getBestBidTicks());
+    }
+
+    public void testDistantPricesStayOrdered() {
+        book.addOrder(limit(true, 10000, 1));
+        book.addOrder(limit(true, 500000, 2));
+        book.addOrder(limit(true, 100, 3));
+
+        assertTrue(Arrays.equals(new long[] {500000, 10000, 100}, book.getBidLevels().priceTicks));
+    }
+
+    public void testLadderStretchedByAnOutlierIsReleasedOnceEmpty() {
+        long near = book.addOrder(limit(true, 10000, 1));
+        long outlier = book.addOrder(limit(true, 5_000_000, 1));
+        book.cancelOrder(near);
+        book.cancelOrder(outlier);
+
+        // Still anchored around the old prices, this would need more than the maximum ladder span.
+        book.addOrder(limit(true, 20_000_000, 4));
+        assertTrue(Arrays.equals(new long[] {20_000_000}, book.getBidLevels().priceTicks));
+    }
+
+    public void testTickConversionIsExact() {
+        Instrument instrument = book.getInstrument();
+        assertEquals(10007, instrument.toTicks(100.07));
+        assertEquals(100.07, instrument.toPrice(10007));
+        assertEquals(10007, instrument.toTicks(instrument.toPrice(10007)));
+    }
+
+    public void testAddAssignsIdsAndCancelRemovesOrder() {
+        long first = book.addOrder(limit(true, 10000, 5));
+        long second = book.addOrder(limit(true, 10000, 7));
+        assertTrue(first > 0 && second > first);
+
+        assertTrue(book.cancelOrder(first));
+        assertFalse(book.cancelOrder(first));
+        assertNull(book.getOrder(first));
+
+        assertEquals(1, book.getBuyOrdersCount());
+        assertEquals(7, book.getTotalBuyOrdersQuantity());
+        assertTrue(Arrays.equals(new int[] {7}, book.getBidLevels().quantities));
+
+        assertTrue(book.cancelOrder(second));
+        assertEquals(0, book.getBidLevels().size());
+    }
+
+    public void testQuantityDownModifyKeepsTimePriority() {
+        long first = book.addOrder(limit(false, 10000, 10));
+        long second = book.addOrder(limit(false, 10000, 10));
+
+        assertTrue(book.modifyOrder(first, 4, 10000));
+        assertTrue(Arrays.equals(new int[] {14}, book.getAskLevels().quantities));
+
+        book.addOrder(limit(true, 10000, 4));
+        book.matchOrders();
+
+        assertNull(book.getOrder(first));
+        assertEquals(10, book.getOrder(second).getQuantity());
+    }
+
+    public void testQuantityUpOrRepriceLosesTimePriority() {
+        long first = book.addOrder(limit(false, 10000, 5));
+        long second = book.addOrder(limit(false, 10000, 5));
+
+        assertTrue(book.modifyOrder(first, 6, 10000));
+        book.addOrder(limit(true, 10000, 5));
+        book.matchOrders();
+        assertNull(book.getOrder(second));
+        assertEquals(6, book.getOrder(first).getQuantity());
+
+        assertTrue(book.modifyOrder(first, 6, 10010));
+        assertTrue(Arrays.equals(new long[] {10010}, book.getAskLevels().priceTicks));
+        assertFalse(book.modifyOrder(12345, 1, 10000));
+    }
+
+    public void testBatchMatchesLikeSequentialAdds() {
+        OrderBook sequential = new OrderBook(new Instrument("TEST", 0.01));
+        Order[] batch = new Order[6];
+        for (int i = 0; i < batch.length; i++) {
+            boolean isBuy = i % 2 == 0;
+            long price = isBuy ? 10_000 + i : 10_004 - i;
+            batch[i] = limit(isBuy, price, 3 + i);
+            sequential.addOrder(limit(isBuy, price, 3 + i));
+            sequential.matchOrders();
+        }
+        book.addOrders(batch, 0, batch.length);
+
+        assertEquals(sequential.getTradeHistory().toString(), book.getTradeHistory().toString());
+        assertTrue(Arrays.equals(sequential.getBidQuantities(), book.getBidQuantities()));
+        assertTrue(Arrays.equals(sequential.getAskQuantities(), book.getAskQuantities()));
+        assertEquals(1, book.getHistorySize());
+        assertEquals(OrderBook.NO_PRICE, book.getBestBidTicks());
+        assertEquals(book.getAskLevels().priceTicks[0], book.getBestAskTicks());
+    }
+
+    public void testBatchPublishesTopOfBookOnce() {
+        int[] quotes = new int[1];
+        book.subscribe(new MarketDataListener() {
+            @Override
+            public void onTrade(long sequence, long timestampNanos, boolean isBuy, long priceTicks, int quantity,
+                    long makerOrderId, long takerOrderId) {
+            }
+
+            @Override
+            public void onQuote(long sequence, long timestampNanos, long bidTicks, long bidQuantity, long askTicks,
+                    long askQuantity) {
+                quotes[0]++;
+            }
+        });
+        Order[] batch = new Order[8];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = limit(i % 2 == 0, i % 2 == 0 ? 10_000 - i : 10_010 + i, 5);
+        }
+        book.addOrders(batch, 0, batch.length);
+
+        assertEquals(1, quotes[0]);
+        assertEquals(10_000, book.getBestBidTicks());
+        assertEquals(10_011, book.getBestAskTicks());
+    }
+
+    private static Order limit(boolean isBuy, long priceTicks, int quantity) {
+        return new Order(isBuy, priceTicks, quantity, false, 100);
+    }
+}
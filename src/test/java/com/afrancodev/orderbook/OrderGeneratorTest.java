@@ -0,0 +1,107 @@
+package com.afrancodev.orderbook;
+
+import java.util.SplittableRandom;
+
+import junit.framework.TestCase;
+
+import com.afrancodev.orderbook.flow.Distribution;
+import com.afrancodev.orderbook.flow.Distributions;
+import com.afrancodev.orderbook.flow.HawkesArrivals;
+import com.afrancodev.orderbook.flow.PoissonArrivals;
+import com.afrancodev.orderbook.models.Instrument;
+
+public class OrderGeneratorTest extends TestCase {
+
+    private static final Instrument INSTRUMENT = new Instrument("TEST", 0.01);
+
+    public void testSameSeedReproducesTheSameFlow() {
+        OrderStream first = new OrderGenerator(100.0, 42).generateStream(INSTRUMENT, 10_000, 10);
+        OrderStream second = new OrderGenerator(100.0, 42).generateStream(INSTRUMENT, 10_000, 10);
+        OrderStream other = new OrderGenerator(100.0, 43).generateStream(INSTRUMENT, 10_000, 10);
+
+        boolean differs = false;
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.isBuy(i), second.isBuy(i));
+            assertEquals(first.getPriceTicks(i), second.getPriceTicks(i));
+            assertEquals(first.getQuantity(i), second.getQuantity(i));
+            assertEquals(first.isMarketOrder(i), second.isMarketOrder(i));
+            assertEquals(first.getAge(i), second.getAge(i));
+            differs |= first.getPriceTicks(i) != other.getPriceTicks(i);
+        }
+        assertTrue(differs);
+
+        OrderBook left = new OrderBook(INSTRUMENT);
+        OrderBook right = new OrderBook(INSTRUMENT);
+        OrderGenerator a = new OrderGenerator(100.0, 7);
+        OrderGenerator b = new OrderGenerator(100.0, 7);
+        for (int i = 0; i < 5_000; i++) {
+            left.addOrder(a.generateRandomOrder(left));
+            left.matchOrders();
+            right.addOrder(b.generateRandomOrder(right));
+            right.matchOrders();
+        }
+        assertEquals(left.getTradeHistory().toString(), right.getTradeHistory().toString());
+    }
+
+    public void testDistributionsArePluggable() {
+        OrderGenerator generator = OrderGenerator.builder(100.0)
+                .seed(1)
+                .buyProbability(1.0)
+                .marketOrderProbability(0.0)
+                .sizes(Distributions.pareto(10, 1.5))
+                .priceOffsets(Distributions.constant(0.25))
+                .lifetimes(Distributions.constant(33))
+                .fairPriceSteps(Distributions.constant(0))
+                .build();
+        OrderStream stream = generator.generateStream(INSTRUMENT, 20_000, 1);
+
+        int large = 0;
+        for (int i = 0; i < stream.size(); i++) {
+            assertTrue(stream.isBuy(i));
+            assertFalse(stream.isMarketOrder(i));
+            assertEquals(9_975, stream.getPriceTicks(i));
+            assertEquals(33, stream.getAge(i));
+            assertTrue(stream.getQuantity(i) >= 10);
+            if (stream.getQuantity(i) >= 1_000) {
+                large++;
+            }
+        }
+        // P(X >= 100 * scale) = 100^-1.5 = 0.1%, so about 20 of 20k; a thin tail would give none
+        assertTrue("large orders: " + large, large > 5 && large < 60);
+    }
+
+    public void testHawkesArrivalsAreBurstierThanPoisson() {
+        SplittableRandom random = new SplittableRandom(3);
+        HawkesArrivals hawkes = new HawkesArrivals(100, 80, 100);
+        double hawkesDispersion = dispersion(hawkes::nextInterval, random);
+        double poissonDispersion = dispersion(new PoissonArrivals(hawkes.getMeanRate())::nextInterval, random);
+
+        assertEquals(1.0, poissonDispersion, 0.1);
+        assertTrue("index of dispersion " + hawkesDispersion, hawkesDispersion > 2 * poissonDispersion);
+    }
+
+    // Variance over mean of arrival counts per 100ms window; 1 for a Poisson process.
+    private static double dispersion(Distribution intervals, SplittableRandom random) {
+        int windows = 2_000;
+        int[] counts = new int[windows];
+        double t = 0;
+        while (true) {
+            t += intervals.sample(random);
+            int window = (int) (t / 0.1);
+            if (window >= windows) {
+                break;
+            }
+            counts[window]++;
+        }
+        double mean = 0;
+        for (int count : counts) {
+            mean += count;
+        }
+        mean /= windows;
+        double variance = 0;
+        for (int count : counts) {
+            variance += (count - mean) * (count - mean);
+        }
+        return variance / windows / mean;
+    }
+}
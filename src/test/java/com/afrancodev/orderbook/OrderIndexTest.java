@@ -0,0 +1,33 @@
+package com.afrancodev.orderbook;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import com.afrancodev.orderbook.models.Order;
+
+public class OrderIndexTest extends TestCase {
+
+    public void testMatchesHashMapUnderChurn() {
+        OrderIndex index = new OrderIndex(16);
+        Map<Long, Order> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long id = 1 + random.nextInt(5_000);
+            if (random.nextBoolean() && !expected.containsKey(id)) {
+                Order order = new Order(true, id, 1, false, 1);
+                index.put(id, order);
+                expected.put(id, order);
+            } else {
+                assertSame(expected.remove(id), index.remove(id));
+            }
+            assertEquals(expected.size(), index.size());
+        }
+        for (Map.Entry<Long, Order> entry : expected.entrySet()) {
+            assertSame(entry.getValue(), index.get(entry.getKey()));
+        }
+    }
+}
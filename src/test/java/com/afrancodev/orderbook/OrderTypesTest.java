@@ -0,0 +1,191 @@
+package com.afrancodev.orderbook;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import junit.framework.TestCase;
+
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.Order;
+import com.afrancodev.orderbook.models.OrderPool;
+import com.afrancodev.orderbook.models.TimeInForce;
+
+public class OrderTypesTest extends TestCase {
+
+    private OrderBook book;
+
+    @Override
+    protected void setUp() {
+        book = new OrderBook(new Instrument("TEST", 0.01), new OrderPool(64));
+    }
+
+    private long limit(boolean isBuy, long priceTicks, int quantity) {
+        long id = book.addOrder(book.createOrder(isBuy, priceTicks, quantity, false, 100));
+        book.matchOrders();
+        return id;
+    }
+
+    private long submit(Order order) {
+        long id = book.addOrder(order);
+        book.matchOrders();
+        return id;
+    }
+
+    public void testMarketOrdersNeverRestAndDoNotStallTheBook() {
+        submit(book.createOrder(true, 0, 5, true, 100));
+        submit(book.createOrder(false, 0, 5, true, 100));
+        assertEquals(0, book.getBuyOrdersCount() + book.getSellOrdersCount());
+
+        limit(false, 10_010, 3);
+        limit(false, 10_020, 3);
+        long market = submit(book.createOrder(true, 0, 10, true, 100));
+        assertEquals(2, book.getTradeCount());
+        assertNull(book.getOrder(market));
+        assertEquals(0, book.getSellOrdersCount());
+
+        limit(true, 10_000, 2);
+        limit(false, 10_000, 2);
+        assertEquals(3, book.getTradeCount());
+    }
+
+    public void testImmediateOrCancelAndFillOrKill() {
+        limit(false, 10_010, 3);
+        limit(false, 10_020, 3);
+
+        Order ioc = book.createOrder(true, 10_010, 5, false, 100);
+        ioc.setTimeInForce(TimeInForce.IOC);
+        assertNull(book.getOrder(submit(ioc)));
+        assertEquals(1, book.getTradeCount());
+        assertEquals(0, book.getBuyOrdersCount());
+
+        Order tooBig = book.createOrder(true, 10_020, 4, false, 100);
+        tooBig.setTimeInForce(TimeInForce.FOK);
+        submit(tooBig);
+        assertEquals(1, book.getTradeCount());
+        assertEquals(3, book.getTotalSellOrdersQuantity());
+
+        Order exact = book.createOrder(true, 10_020, 3, false, 100);
+        exact.setTimeInForce(TimeInForce.FOK);
+        submit(exact);
+        assertEquals(2, book.getTradeCount());
+        assertEquals(0, book.getSellOrdersCount());
+    }
+
+    public void testPostOnlyIsRejectedWhenItWouldCross() {
+        limit(false, 10_010, 3);
+
+        Order crossing = book.createOrder(true, 10_010, 1, false, 100);
+        crossing.setPostOnly(true);
+        assertNull(book.getOrder(submit(crossing)));
+        assertEquals(0, book.getTradeCount());
+
+        Order passive = book.createOrder(true, 10_000, 1, false, 100);
+        passive.setPostOnly(true);
+        assertNotNull(book.getOrder(submit(passive)));
+        assertEquals(1, book.getBuyOrdersCount());
+    }
+
+    public void testPostOnlyCannotBeRepricedAcrossTheSpread() {
+        long ask = limit(false, 10_010, 3);
+        Order bid = book.createOrder(true, 10_000, 5, false, 100);
+        bid.setPostOnly(true);
+        long id = submit(bid);
+
+        assertFalse(book.modifyOrder(id, 5, 10_010));
+        book.matchOrders();
+        assertEquals(0, book.getTradeCount());
+        assertEquals(10_000, book.getOrder(id).getPriceTicks());
+        assertEquals(3, book.getOrder(ask).getQuantity());
+
+        assertTrue(book.modifyOrder(id, 5, 10_005));
+        book.matchOrders();
+        assertEquals(0, book.getTradeCount());
+        assertEquals(10_005, book.getBestBidTicks());
+    }
+
+    public void testStopsTriggerOnTradePriceAndCanBeCancelled() {
+        Order stopMarket = book.createOrder(true, 0, 2, true, 100);
+        stopMarket.setStop(10_010);
+        long stopId = submit(stopMarket);
+        Order stopLimit = book.createOrder(false, 9_990, 2, false, 100);
+        stopLimit.setStop(9_995);
+        long stopLimitId = submit(stopLimit);
+        Order cancelled = book.createOrder(true, 0, 1, true, 100);
+        cancelled.setStop(10_005);
+        long cancelledId = submit(cancelled);
+        assertEquals(3, book.getPendingStopCount());
+        assertTrue(book.cancelOrder(cancelledId));
+        assertEquals(2, book.getPendingStopCount());
+
+        limit(false, 10_010, 1);
+        limit(false, 10_020, 5);
+        limit(true, 10_010, 1);
+        // the trade at 10,010 fires the buy stop, which lifts 2 at 10,020
+        assertEquals(2, book.getTradeCount());
+        assertNull(book.getOrder(stopId));
+        assertEquals(3, book.getTotalSellOrdersQuantity());
+
+        limit(true, 9_995, 1);
+        limit(false, 9_995, 1);
+        // the trade at 9,995 fires the sell stop-limit, which rests at 9,990
+        assertEquals(0, book.getPendingStopCount());
+        assertEquals(9_990, book.getOrder(stopLimitId).getPriceTicks());
+        assertTrue(book.getOrder(stopLimitId).isResting());
+    }
+
+    public void testIcebergShowsOneSliceAndRefillsAtTheBack() {
+        Order iceberg = book.createOrder(false, 10_010, 10, false, 100);
+        iceberg.setDisplayQuantity(4);
+        long icebergId = submit(iceberg);
+        long behind = limit(false, 10_010, 3);
+        assertEquals(7, book.getTotalSellOrdersQuantity());
+
+        limit(true, 10_010, 5);
+        // 4 from the first slice, then 1 from the order that is now ahead of the refill
+        assertEquals(2, book.getTradeCount());
+        assertEquals(2, book.getOrder(behind).getQuantity());
+        assertEquals(4, book.getOrder(icebergId).getQuantity());
+        assertEquals(2, book.getOrder(icebergId).getHiddenQuantity());
+
+        Order fok = book.createOrder(true, 10_010, 8, false, 100);
+        fok.setTimeInForce(TimeInForce.FOK);
+        submit(fok);
+        assertEquals(0, book.getSellOrdersCount());
+    }
+
+    public void testJournalReplaysOrderTypes() throws IOException {
+        File file = File.createTempFile("orderbook", ".journal");
+        file.delete();
+        Path path = file.toPath();
+        try {
+            Journal journal = new Journal(path);
+            book.setJournal(journal);
+            Order stop = book.createOrder(true, 0, 2, true, 100);
+            stop.setStop(10_010);
+            submit(stop);
+            Order pendingStop = book.createOrder(false, 9_900, 2, false, 100);
+            pendingStop.setStop(9_950);
+            submit(pendingStop);
+            Order iceberg = book.createOrder(false, 10_020, 10, false, 100);
+            iceberg.setDisplayQuantity(3);
+            submit(iceberg);
+            limit(false, 10_010, 1);
+            limit(true, 10_010, 1);
+            Order ioc = book.createOrder(true, 10_030, 5, false, 100);
+            ioc.setTimeInForce(TimeInForce.IOC);
+            submit(ioc);
+            journal.close();
+            assertTrue(book.getTradeCount() >= 4);
+
+            OrderBook replayed = new OrderBook(new Instrument("TEST", 0.01), new OrderPool(64));
+            Journal.replay(path, replayed, Long.MAX_VALUE);
+            assertEquals(book.getTradeHistory().toString(), replayed.getTradeHistory().toString());
+            assertEquals(book.getBuyOrdersCount(), replayed.getBuyOrdersCount());
+            assertEquals(book.getTotalSellOrdersQuantity(), replayed.getTotalSellOrdersQuantity());
+            assertEquals(book.getPendingStopCount(), replayed.getPendingStopCount());
+        } finally {
+            path.toFile().delete();
+        }
+    }
+}
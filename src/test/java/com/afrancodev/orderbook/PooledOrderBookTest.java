@@ -0,0 +1,67 @@
+package com.afrancodev.orderbook;
+
+import java.lang.management.ManagementFactory;
+
+import junit.framework.TestCase;
+
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.Order;
+import com.afrancodev.orderbook.models.OrderPool;
+
+public class PooledOrderBookTest extends TestCase {
+
+    private static final int WARMUP_ORDERS = 300_000;
+    private static final int MEASURED_ORDERS = 200_000;
+
+    public void testFilledAndExpiredOrdersReturnToThePool() {
+        OrderPool pool = new OrderPool(4);
+        OrderBook book = new OrderBook(new Instrument("TEST", 0.01), pool);
+
+        book.addOrder(book.createOrder(false, 10000, 5, false, 100));
+        book.addOrder(book.createOrder(true, 10000, 5, false, 100));
+        book.addOrder(book.createOrder(true, 9990, 5, false, 1));
+        assertEquals(1, pool.getAvailable());
+
+        book.matchOrders();
+        assertEquals(3, pool.getAvailable());
+
+        book.expireOldOrders();
+        assertEquals(4, pool.getAvailable());
+        assertEquals(0, pool.getMisses());
+    }
+
+    public void testSteadyStateMatchingLoopDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        OrderPool pool = new OrderPool(16_384);
+        OrderBook book = new OrderBook(new Instrument("TEST", 0.01), pool);
+        // Seeded so the flow, and with it the allocation bound, is the same on every run.
+        OrderGenerator generator = new OrderGenerator(100.0, 3);
+
+        run(book, generator, WARMUP_ORDERS);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        run(book, generator, MEASURED_ORDERS);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(0, pool.getMisses());
+        assertTrue("Allocated " + allocated + " bytes for " + MEASURED_ORDERS + " orders",
+                allocated < 1024);
+    }
+
+    private static void run(OrderBook book, OrderGenerator generator, int orders) {
+        for (int i = 0; i < orders; i++) {
+            Order order = generator.generateRandomOrder(book);
+            book.addOrder(order);
+            book.matchOrders();
+            book.updatePrices();
+            book.expireOldOrders();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.afrancodev.orderbook;
+
+import junit.framework.TestCase;
+
+import com.afrancodev.orderbook.models.Instrument;
+
+public class ShardedEngineTest extends TestCase {
+
+    private static Instrument[] instruments(int count) {
+        Instrument[] instruments = new Instrument[count];
+        for (int i = 0; i < count; i++) {
+            instruments[i] = new Instrument("SYM" + i, 0.01);
+        }
+        return instruments;
+    }
+
+    public void testCommandsAreRoutedToTheirInstrumentsBook() throws InterruptedException {
+        ShardedEngine engine = new ShardedEngine(instruments(5), 2);
+        engine.start();
+
+        long[] ids = new long[5];
+        for (int i = 0; i < 5; i++) {
+            ids[i] = engine.submitOrder(i, true, 1_000 + i, 10 + i, false, 100);
+        }
+        engine.submitOrder(3, false, 1_003, 4, false, 100);
+        engine.submitCancel(4, ids[4]);
+        engine.submitModify(0, ids[0], 7, 1_000);
+        engine.stop();
+
+        assertEquals(8, engine.getProcessedCommands());
+        assertEquals(7, engine.getOrderBook(0).getTotalBuyOrdersQuantity());
+        assertEquals(11, engine.getOrderBook(1).getTotalBuyOrdersQuantity());
+        assertEquals(1, engine.getOrderBook(3).getTradeCount());
+        assertEquals(9, engine.getOrderBook(3).getTotalBuyOrdersQuantity());
+        assertEquals(0, engine.getOrderBook(4).getBuyOrdersCount());
+        assertEquals(1_002, engine.getOrderBook(2).getSnapshot().getBestBidTicks());
+    }
+
+    public void testLocalFlowRunsEveryBookOnItsOwnShard() throws InterruptedException {
+        ShardedEngine engine = new ShardedEngine(instruments(6), 3);
+        OrderGenerator[] generators = new OrderGenerator[6];
+        for (int i = 0; i < generators.length; i++) {
+            generators[i] = new OrderGenerator(100.0);
+        }
+        engine.enableLocalFlow(generators, 10);
+        engine.start();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (engine.getGeneratedOrders() < 60_000 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        engine.stop();
+
+        assertTrue(engine.getGeneratedOrders() >= 60_000);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(engine.getOrderBook(i).getTradeCount() > 0);
+            assertTrue(engine.getOrderBook(i).getCurrentTick() > 0);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.afrancodev.orderbook.analytics;
+
+import com.afrancodev.orderbook.OrderBook;
+import com.afrancodev.orderbook.models.Order;
+
+import junit.framework.TestCase;
+
+public class MarketAnalyticsTest extends TestCase {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    public void testWindowsRollAndSummariseTradesAndQuotes() {
+        MarketAnalytics analytics = new MarketAnalytics(10, SECOND, 10 * SECOND);
+        WindowStats stats = new WindowStats();
+
+        analytics.onQuote(1, 0, 100, 10, 102, 5);
+        analytics.onTrade(1, 100, true, 100, 10, 1, 2);
+        analytics.onTrade(2, 200, false, 110, 30, 3, 4);
+        // Bid steps up with more size: buying pressure.
+        analytics.onQuote(2, SECOND / 2, 101, 7, 102, 5);
+
+        analytics.sample(0, SECOND / 2, stats);
+        assertEquals(2, stats.getTradeCount());
+        assertEquals(40, stats.getVolume());
+        assertEquals(10, stats.getBuyVolume());
+        assertEquals((100.0 * 10 + 110.0 * 30) / 40, stats.getVwapTicks(), 1e-9);
+        assertEquals(-0.5, stats.getTradeImbalance(), 1e-9);
+        assertEquals(Math.abs(Math.log(1.1)), stats.getRealizedVolatility(), 1e-12);
+        assertEquals(1, stats.getReturnCount());
+        // First quote from an empty book: +10 bid, -5 ask; then the bid improves: +7.
+        assertEquals(12, stats.getOrderFlowImbalance());
+        assertEquals(2, stats.getQuoteCount());
+        assertEquals(1, stats.getMinSpreadTicks());
+        assertEquals(2, stats.getMaxSpreadTicks());
+        assertEquals(2.0, stats.getAverageSpreadTicks(), 1e-9);
+
+        // Half a second later the window starts at 0.1s: the spread of 2 counts for 0.4s of its 0.5s,
+        // the spread of 1 for 0.5s.
+        analytics.sample(0, SECOND, stats);
+        assertEquals((2 * 0.4 + 1 * 0.5) / 0.9, stats.getAverageSpreadTicks(), 1e-9);
+
+        analytics.onTrade(3, 5 * SECOND, true, 110, 5, 5, 6);
+        analytics.sample(0, stats);
+        assertEquals(1, stats.getTradeCount());
+        assertEquals(5, stats.getVolume());
+        analytics.sample(1, stats);
+        assertEquals(3, stats.getTradeCount());
+        assertEquals(45, stats.getVolume());
+
+        analytics.sample(1, 20 * SECOND, stats);
+        assertEquals(0, stats.getTradeCount());
+        assertTrue(Double.isNaN(stats.getVwapTicks()));
+        assertEquals(1.0, stats.getAverageSpreadTicks(), 1e-9);
+    }
+
+    public void testSpreadHeldLongerThanTheWindowOnlyCountsInsideIt() {
+        MarketAnalytics analytics = new MarketAnalytics(10, SECOND);
+        WindowStats stats = new WindowStats();
+
+        analytics.onQuote(1, 0, 100, 5, 110, 5);
+        analytics.onQuote(2, 5 * SECOND, 100, 5, 101, 5);
+
+        // Window buckets cover [4.6s, 5.5s): the spread of 10 for 0.4s, then the spread of 1 for 0.5s.
+        analytics.sample(0, 5 * SECOND + SECOND / 2, stats);
+        assertEquals((10 * 0.4 + 1 * 0.5) / 0.9, stats.getAverageSpreadTicks(), 1e-9);
+        assertEquals(1, stats.getMinSpreadTicks());
+        assertEquals(10, stats.getMaxSpreadTicks());
+    }
+
+    public void testBookFeedsTradesAndQuotes() {
+        OrderBook book = new OrderBook();
+        long[] now = {SECOND};
+        book.setNanoClock(() -> now[0]);
+        MarketAnalytics analytics = new MarketAnalytics();
+        book.subscribe(analytics);
+
+        book.addOrder(new Order(true, 9_990, 10, false, 100));
+        book.addOrder(new Order(false, 10_010, 10, false, 100));
+        now[0] += 1_000;
+        book.addOrder(new Order(true, 10_010, 4, false, 100));
+        book.matchOrders();
+        now[0] += 1_000;
+        book.addOrder(new Order(false, 0, 3, true, 100));
+
+        WindowStats stats = new WindowStats();
+        analytics.sample(0, stats);
+        assertEquals(2, stats.getTradeCount());
+        assertEquals(7, stats.getVolume());
+        assertEquals(4, stats.getBuyVolume());
+        assertEquals((10_010.0 * 4 + 9_990 * 3) / 7, stats.getVwapTicks(), 1e-9);
+        assertEquals(20, stats.getMaxSpreadTicks());
+        assertTrue(stats.getQuoteCount() >= 3);
+
+        book.unsubscribe(analytics);
+        book.addOrder(new Order(false, 0, 1, true, 100));
+        analytics.sample(0, stats);
+        assertEquals(2, stats.getTradeCount());
+    }
+}
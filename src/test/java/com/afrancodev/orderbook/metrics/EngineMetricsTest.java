@@ -0,0 +1,90 @@
+package com.afrancodev.orderbook.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import junit.framework.TestCase;
+
+import com.afrancodev.orderbook.OrderBook;
+import com.afrancodev.orderbook.metrics.EngineMetrics.Counter;
+import com.afrancodev.orderbook.metrics.EngineMetrics.Stage;
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.OrderPool;
+
+public class EngineMetricsTest extends TestCase {
+
+    private static OrderBook newBook() {
+        return new OrderBook(new Instrument("TEST", 0.01), new OrderPool(64));
+    }
+
+    public void testStagesAndCountersAreRecordedPerInterval() {
+        OrderBook book = newBook();
+        MetricsSnapshot snapshot = new MetricsSnapshot();
+        assertFalse(book.sampleMetrics(snapshot));
+
+        book.setMetrics(new EngineMetrics());
+        book.addOrder(book.createOrder(false, 10000, 5, false, 100));
+        book.addOrder(book.createOrder(true, 10000, 3, false, 100));
+        book.matchOrders();
+        book.addOrder(book.createOrder(true, 9990, 4, false, 1));
+        book.cancelOrder(1);
+        book.updatePrices();
+        book.expireOldOrders();
+
+        assertTrue(book.sampleMetrics(snapshot));
+        assertEquals(3, snapshot.getCount(Counter.ORDERS));
+        assertEquals(1, snapshot.getCount(Counter.FILLS));
+        assertEquals(3, snapshot.getCount(Counter.FILLED_QUANTITY));
+        assertEquals(1, snapshot.getCount(Counter.CANCELS));
+        assertEquals(1, snapshot.getCount(Counter.EXPIRATIONS));
+        assertEquals(3, snapshot.getLatency(Stage.INGEST).getTotalCount());
+        assertEquals(1, snapshot.getLatency(Stage.MATCH).getTotalCount());
+        assertEquals(1, snapshot.getLatency(Stage.SAMPLE).getTotalCount());
+        assertEquals(1, snapshot.getLatency(Stage.EXPIRE).getTotalCount());
+        assertEquals(7, snapshot.getLatency(Stage.LOCK_WAIT).getTotalCount());
+        assertTrue(snapshot.getIntervalNanos() > 0);
+
+        book.addOrder(book.createOrder(true, 9980, 1, false, 10));
+        assertTrue(book.sampleMetrics(snapshot));
+        assertEquals(1, snapshot.getCount(Counter.ORDERS));
+        assertEquals(4, snapshot.getTotal(Counter.ORDERS));
+        assertEquals(0, snapshot.getLatency(Stage.MATCH).getTotalCount());
+        assertEquals(2, snapshot.getIntervals());
+    }
+
+    public void testModifyToZeroCountsOnceAsAModify() {
+        OrderBook book = newBook();
+        book.setMetrics(new EngineMetrics());
+        long id = book.addOrder(book.createOrder(true, 10000, 5, false, 100));
+        assertTrue(book.modifyOrder(id, 0, 10000));
+        assertNull(book.getOrder(id));
+
+        MetricsSnapshot snapshot = new MetricsSnapshot();
+        assertTrue(book.sampleMetrics(snapshot));
+        assertEquals(1, snapshot.getCount(Counter.MODIFIES));
+        assertEquals(0, snapshot.getCount(Counter.CANCELS));
+        assertEquals(2, snapshot.getLatency(Stage.LOCK_WAIT).getTotalCount());
+    }
+
+    public void testPublisherFeedsReportersAndFlushesOnClose() {
+        OrderBook book = newBook();
+        book.setMetrics(new EngineMetrics());
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+        long[] reportedOrders = new long[1];
+
+        MetricsPublisher publisher = new MetricsPublisher(book::sampleMetrics, 60_000,
+                new ConsoleReporter(new PrintStream(console, true)),
+                snapshot -> reportedOrders[0] += snapshot.getCount(Counter.ORDERS));
+        publisher.start();
+        for (int i = 0; i < 10; i++) {
+            book.addOrder(book.createOrder(i % 2 == 0, 10000 + i, 1, false, 100));
+            book.matchOrders();
+        }
+        publisher.close();
+
+        assertEquals(10, reportedOrders[0]);
+        String output = console.toString();
+        assertTrue(output, output.contains("orders"));
+        assertTrue(output, output.contains("ingest"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.afrancodev.orderbook.models;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class CandleAggregatorTest extends TestCase {
+
+    private static final Instrument INSTRUMENT = new Instrument("TEST", 0.01);
+
+    public void testTradesBuildBarsAtEveryResolution() {
+        CandleAggregator candles = new CandleAggregator(new long[] {1_000, 10_000}, 64);
+        candles.onTrade(500, 100, 1);
+        candles.onTrade(900, 105, 2);
+        candles.onTrade(1_200, 98, 3);
+        candles.onTrade(3_100, 101, 4);
+        candles.onTrade(10_050, 110, 5);
+
+        CandleData seconds = candles.getCandles(0, 10, INSTRUMENT);
+        assertTrue(Arrays.equals(new long[] {0, 1_000, 3_000, 10_000}, seconds.startMillis));
+        assertTrue(Arrays.equals(new long[] {100, 98, 101, 110}, seconds.openTicks));
+        assertTrue(Arrays.equals(new long[] {105, 98, 101, 110}, seconds.highTicks));
+        assertTrue(Arrays.equals(new long[] {3, 3, 4, 5}, seconds.volumes));
+
+        CandleData tens = candles.getCandles(1, 10, INSTRUMENT);
+        assertTrue(Arrays.equals(new long[] {0, 10_000}, tens.startMillis));
+        assertTrue(Arrays.equals(new long[] {100, 110}, tens.openTicks));
+        assertTrue(Arrays.equals(new long[] {105, 110}, tens.highTicks));
+        assertTrue(Arrays.equals(new long[] {98, 110}, tens.lowTicks));
+        assertTrue(Arrays.equals(new long[] {101, 110}, tens.closeTicks));
+        assertTrue(Arrays.equals(new long[] {10, 5}, tens.volumes));
+        assertTrue(Arrays.equals(new int[] {4, 1}, tens.tradeCounts));
+    }
+
+    public void testOpenCoarseBarIncludesUnfoldedFinerTrades() {
+        CandleAggregator candles = new CandleAggregator(new long[] {1_000, 60_000}, 64);
+        candles.onTrade(100, 50, 1);
+        candles.onTrade(1_500, 55, 1);
+        candles.advance(1_999);
+
+        CandleData minute = candles.getCandles(1, 5, INSTRUMENT);
+        assertEquals(1, minute.size());
+        assertEquals(50, minute.openTicks[0]);
+        assertEquals(55, minute.closeTicks[0]);
+        assertEquals(2, minute.volumes[0]);
+
+        candles.advance(2_000);
+        assertEquals(2, candles.getCandles(0, 5, INSTRUMENT).size());
+        assertEquals(2, candles.getCandles(1, 5, INSTRUMENT).volumes[0]);
+    }
+
+    public void testResolutionsMustNest() {
+        try {
+            new CandleAggregator(new long[] {1_000, 1_500}, 8);
+            fail("1.5s is not built from whole 1s bars");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.afrancodev.orderbook.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class ExpiryWheelTest extends TestCase {
+
+    public void testOrdersExpireExactlyAtTheirTickAcrossLevels() {
+        ExpiryWheel wheel = new ExpiryWheel();
+        Random random = new Random(7);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            Order order = new Order(true, 0, 1, false, 1 + random.nextInt(70_000));
+            wheel.schedule(order, wheel.getNow() + order.getAge());
+            orders.add(order);
+        }
+
+        List<Order> fired = new ArrayList<>();
+        int expired = 0;
+        while (wheel.size() > 0) {
+            fired.clear();
+            expired += wheel.advance(fired::add);
+            for (Order order : fired) {
+                assertEquals(order.getAge(), wheel.getNow());
+            }
+        }
+        assertEquals(orders.size(), expired);
+    }
+
+    public void testCancelledOrdersNeverFire() {
+        ExpiryWheel wheel = new ExpiryWheel();
+        Order kept = new Order(true, 0, 1, false, 300);
+        Order cancelled = new Order(true, 0, 1, false, 300);
+        wheel.schedule(kept, 300);
+        wheel.schedule(cancelled, 300);
+        wheel.cancel(cancelled);
+
+        List<Order> fired = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            wheel.advance(fired::add);
+        }
+        assertEquals(1, fired.size());
+        assertSame(kept, fired.get(0));
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,154 @@
+package com.afrancodev.orderbook.models;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import junit.framework.TestCase;
+
+public class PriceHistoryTest extends TestCase {
+
+    public void testRingKeepsTheLatestSamplesInOrder() {
+        PriceHistory history = new PriceHistory(4);
+        for (int i = 1; i <= 6; i++) {
+            history.add(i);
+        }
+        history.add(Double.NaN);
+
+        assertEquals(4, history.size());
+        assertEquals(3, history.firstIndex());
+        assertTrue(Arrays.equals(new double[] {4, 5, 6, Double.NaN}, history.toArray()));
+        assertTrue(Arrays.equals(new double[] {6, Double.NaN}, history.tail(2)));
+        assertEquals(Arrays.asList(4.0, 5.0, 6.0, null), history.toList());
+    }
+
+    public void testCopyRangeAcrossTheWrapPoint() {
+        PriceHistory history = new PriceHistory(5);
+        for (int i = 0; i < 8; i++) {
+            history.add(i);
+        }
+        double[] dest = new double[6];
+        history.copyRange(1, 4, dest, 2);
+        assertTrue(Arrays.equals(new double[] {0, 0, 4, 5, 6, 7}, dest));
+
+        try {
+            history.copyRange(2, 4, dest, 0);
+            fail("range past the end must be rejected");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    public void testViewReadsInPlaceUntilOverwritten() {
+        PriceHistory history = new PriceHistory(4);
+        history.add(1);
+        history.add(2);
+        PriceHistory.View view = history.view();
+        history.add(3);
+        history.add(4);
+
+        assertEquals(2, view.size());
+        assertEquals(2.0, view.get(1));
+        assertFalse(view.isStale());
+
+        history.add(5);
+        assertTrue(view.isStale());
+    }
+
+    public void testDownsampleMatchesBruteForceMinMax() {
+        PriceHistory history = new PriceHistory(10_000);
+        SplittableRandom random = new SplittableRandom(7);
+        int total = 25_000;
+        double[] all = new double[total];
+        for (int i = 0; i < total; i++) {
+            all[i] = random.nextInt(50) == 0 ? Double.NaN : random.nextDouble() * 100;
+            history.add(all[i]);
+        }
+
+        // Aligned buckets of 64 samples map exactly onto pyramid blocks.
+        double[] mins = new double[100];
+        double[] maxs = new double[100];
+        assertEquals(100, history.downsample(16_000, 6_400, 100, mins, maxs));
+        for (int bucket = 0; bucket < 100; bucket++) {
+            double[] expected = minMax(all, 16_000 + bucket * 64, 16_000 + bucket * 64 + 64);
+            assertEquals(expected[0], mins[bucket]);
+            assertEquals(expected[1], maxs[bucket]);
+        }
+
+        // Unaligned windows still cover exactly the requested samples overall; samples no longer
+        // retained come out as missing.
+        int columns = history.downsample(14_321, 9_999, 37, mins, maxs);
+        assertEquals(37, columns);
+        double[] expected = minMax(all, 15_000, 14_321 + 9_999);
+        double[] actual = {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int bucket = 0; bucket < columns; bucket++) {
+            if (!Double.isNaN(mins[bucket])) {
+                actual[0] = Math.min(actual[0], mins[bucket]);
+                actual[1] = Math.max(actual[1], maxs[bucket]);
+            }
+        }
+        assertEquals(expected[0], actual[0]);
+        assertEquals(expected[1], actual[1]);
+        assertTrue(Double.isNaN(mins[0]));
+
+        // Fewer samples than columns: one bucket per sample.
+        assertEquals(3, history.downsample(total - 3, 3, 100, mins, maxs));
+        assertEquals(all[total - 1], mins[2]);
+        assertEquals(all[total - 1], maxs[2]);
+    }
+
+    public void testDownsampleMultiMillionSampleWindow() {
+        PriceHistory history = new PriceHistory(1 << 22);
+        for (int i = 0; i < 1 << 22; i++) {
+            history.add(i % 1000 == 0 ? -i : i);
+        }
+        double[] mins = new double[640];
+        double[] maxs = new double[640];
+        history.downsample(0, 1 << 22, 640, mins, maxs);
+        assertEquals(-4_194_000.0, mins[639]);
+        assertEquals((double) ((1 << 22) - 1), maxs[639]);
+        // Blocks are credited to the bucket they start in, so a bucket reaches at most one block
+        // (4096 samples here) past its own span.
+        assertTrue(mins[0] <= -6_000 && mins[0] >= -8_191);
+    }
+
+    public void testDownsampleWhileTheWriterWrapsTheRing() throws InterruptedException {
+        PriceHistory history = new PriceHistory(4096);
+        int samples = 2_000_000;
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < samples; i++) {
+                history.add(i);
+            }
+        });
+        writer.start();
+
+        double[] mins = new double[10];
+        double[] maxs = new double[10];
+        long reads = 0;
+        while (writer.isAlive() || reads == 0) {
+            long total = history.getTotalAdded();
+            long from = Math.max(0, total - 4000);
+            int buckets = history.downsample(from, 3000, 10, mins, maxs);
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                // A sample overwritten mid-read would be 4096 or more past its slot's old value.
+                if (!Double.isNaN(mins[bucket])) {
+                    assertTrue(mins[bucket] >= from);
+                    assertTrue(maxs[bucket] < from + 3000 + 256);
+                    assertTrue(mins[bucket] <= maxs[bucket]);
+                }
+            }
+            reads++;
+        }
+        writer.join();
+        assertEquals(samples, history.getTotalAdded());
+    }
+
+    private static double[] minMax(double[] values, int from, int to) {
+        double[] range = {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = from; i < to; i++) {
+            if (!Double.isNaN(values[i])) {
+                range[0] = Math.min(range[0], values[i]);
+                range[1] = Math.max(range[1], values[i]);
+            }
+        }
+        return range;
+    }
+}
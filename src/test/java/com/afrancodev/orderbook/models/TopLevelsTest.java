@@ -0,0 +1,79 @@
+package com.afrancodev.orderbook.models;
+
+import com.afrancodev.orderbook.OrderBook;
+
+import junit.framework.TestCase;
+
+public class TopLevelsTest extends TestCase {
+
+    public void testBookPublishesLevelsWithEachSnapshot() {
+        OrderBook book = new OrderBook();
+        book.addOrder(new Order(true, 10_000, 5, false, 100));
+        book.addOrder(new Order(true, 10_000, 6, false, 100));
+        book.addOrder(new Order(true, 9_998, 10, false, 100));
+        book.addOrder(new Order(false, 10_002, 4, false, 100));
+
+        // Nothing is visible until the next publish.
+        LevelBuffer levels = new LevelBuffer(2);
+        book.getTopLevels(levels);
+        assertEquals(0, levels.getBidCount());
+        assertEquals(0, levels.getAskCount());
+
+        book.publishSnapshot(1);
+        book.addOrder(new Order(true, 9_990, 1, false, 100));
+        book.getTopLevels(levels);
+        assertEquals(2, levels.getBidCount());
+        assertEquals(10_000, levels.getBidTicks(0));
+        assertEquals(11, levels.getBidQuantity(0));
+        assertEquals(2, levels.getBidOrderCount(0));
+        assertEquals(9_998, levels.getBidTicks(1));
+        assertEquals(1, levels.getAskCount());
+        assertEquals(4, levels.getAskQuantity(0));
+        assertEquals(book.getDepthSequence() - 1, levels.getSequence());
+
+        book.publishSnapshot(2);
+        book.getTopLevels(levels);
+        assertEquals(book.getDepthSequence(), levels.getSequence());
+    }
+
+    public void testReadersNeverSeeTornLevels() throws InterruptedException {
+        TopLevels top = new TopLevels(8);
+        int publishes = 500_000;
+        Thread writer = new Thread(() -> {
+            for (long i = 1; i <= publishes; i++) {
+                LevelBuffer levels = top.begin(i);
+                int count = (int) (i % 9);
+                for (int level = 0; level < count; level++) {
+                    levels.addLevel(true, i - level, i * 3, level);
+                    levels.addLevel(false, i + level, i * 5, level);
+                }
+                top.end();
+            }
+        });
+        writer.start();
+
+        LevelBuffer levels = new LevelBuffer(8);
+        long reads = 0;
+        long lastSequence = 0;
+        while (writer.isAlive() || reads == 0) {
+            top.read(levels);
+            long i = levels.getSequence();
+            int count = (int) (i % 9);
+            assertEquals(count, levels.getBidCount());
+            assertEquals(count, levels.getAskCount());
+            for (int level = 0; level < count; level++) {
+                assertEquals(i - level, levels.getBidTicks(level));
+                assertEquals(i * 3, levels.getBidQuantity(level));
+                assertEquals(i + level, levels.getAskTicks(level));
+                assertEquals(i * 5, levels.getAskQuantity(level));
+            }
+            assertTrue(i >= lastSequence);
+            lastSequence = i;
+            reads++;
+        }
+        writer.join();
+        top.read(levels);
+        assertEquals(publishes, levels.getSequence());
+        assertEquals(publishes, top.getVersion());
+    }
+}
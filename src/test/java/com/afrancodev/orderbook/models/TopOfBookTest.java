@@ -0,0 +1,74 @@
+package com.afrancodev.orderbook.models;
+
+import com.afrancodev.orderbook.OrderBook;
+
+import junit.framework.TestCase;
+
+public class TopOfBookTest extends TestCase {
+
+    public void testBookPublishesTopAfterEachChange() {
+        OrderBook book = new OrderBook();
+        Quote quote = new Quote();
+        book.getTopOfBook(quote);
+        assertFalse(quote.hasBid());
+        assertFalse(quote.hasAsk());
+
+        book.addOrder(new Order(true, 9_990, 10, false, 100));
+        long ask = book.addOrder(new Order(false, 10_010, 7, false, 100));
+        book.addOrder(new Order(false, 10_010, 3, false, 100));
+        book.getTopOfBook(quote);
+        assertEquals(9_990, quote.getBidTicks());
+        assertEquals(10, quote.getBidQuantity());
+        assertEquals(10_010, quote.getAskTicks());
+        assertEquals(10, quote.getAskQuantity());
+        assertEquals(20, quote.getSpreadTicks());
+        assertEquals(book.getDepthSequence(), quote.getSequence());
+
+        book.cancelOrder(ask);
+        book.getTopOfBook(quote);
+        assertEquals(3, quote.getAskQuantity());
+
+        // A crossing add is only visible once it has been matched.
+        book.addOrder(new Order(true, 10_010, 5, false, 100));
+        book.getTopOfBook(quote);
+        assertEquals(9_990, quote.getBidTicks());
+        assertEquals(3, quote.getAskQuantity());
+        book.matchOrders();
+        book.getTopOfBook(quote);
+        assertEquals(10_010, quote.getBidTicks());
+        assertEquals(2, quote.getBidQuantity());
+        assertFalse(quote.hasAsk());
+        assertEquals(book.getDepthSequence(), quote.getSequence());
+    }
+
+    public void testReadersNeverSeeTornQuotes() throws InterruptedException {
+        TopOfBook top = new TopOfBook();
+        top.publish(0, 0, 1, 0, 0);
+        int publishes = 2_000_000;
+        Thread writer = new Thread(() -> {
+            for (long i = 1; i <= publishes; i++) {
+                top.publish(i, i * 3, i + 1, i * 5, i);
+            }
+        });
+        writer.start();
+
+        Quote quote = new Quote();
+        long reads = 0;
+        long lastSequence = 0;
+        while (writer.isAlive() || reads == 0) {
+            top.read(quote);
+            long i = quote.getSequence();
+            assertEquals(i, quote.getBidTicks());
+            assertEquals(i + 1, quote.getAskTicks());
+            assertEquals(i * 3, quote.getBidQuantity());
+            assertEquals(i * 5, quote.getAskQuantity());
+            assertTrue(i >= lastSequence);
+            lastSequence = i;
+            reads++;
+        }
+        writer.join();
+        top.read(quote);
+        assertEquals(publishes, quote.getSequence());
+        assertEquals(publishes + 1, top.getVersion());
+    }
+}
@@ -0,0 +1,119 @@
+package com.afrancodev.orderbook.models;
+
+import java.util.List;
+
+import com.afrancodev.orderbook.OrderBook;
+
+import junit.framework.TestCase;
+
+public class TradeHistoryTest extends TestCase {
+
+    public void testBookRecordsAggressorMakerTakerAndTime() {
+        OrderBook book = new OrderBook();
+        long[] now = {1_000};
+        book.setNanoClock(() -> now[0]);
+
+        long ask = book.addOrder(new Order(false, 10_001, 5, false, 100));
+        long bid = book.addOrder(new Order(true, 10_002, 8, false, 100));
+        book.matchOrders();
+        now[0] = 2_000;
+        long sell = book.addOrder(new Order(false, 0, 2, true, 100));
+
+        List<Trade> trades = book.getTradeHistory();
+        assertEquals(2, trades.size());
+        Trade first = trades.get(0);
+        assertTrue(first.isBuy());
+        assertEquals(ask, first.getMakerOrderId());
+        assertEquals(bid, first.getTakerOrderId());
+        assertEquals(1_000, first.getTimestampNanos());
+        assertEquals(1, first.getSequence());
+
+        Trade second = trades.get(1);
+        assertFalse(second.isBuy());
+        assertEquals(10_002, second.getPriceTicks());
+        assertEquals(bid, second.getMakerOrderId());
+        assertEquals(sell, second.getTakerOrderId());
+        assertEquals(2_000, second.getTimestampNanos());
+    }
+
+    public void testAggressorIsTheLaterArrivalWhateverItsId() {
+        OrderBook book = new OrderBook();
+        Order ask = new Order(false, 10_001, 5, false, 100);
+        ask.assignId(10);
+        Order bid = new Order(true, 10_003, 5, false, 100);
+        bid.assignId(5);
+        book.addOrder(ask);
+        book.addOrder(bid);
+        book.matchOrders();
+
+        Trade trade = book.getTradeHistory().get(0);
+        assertTrue(trade.isBuy());
+        assertEquals(10, trade.getMakerOrderId());
+        assertEquals(5, trade.getTakerOrderId());
+        assertEquals(10_001, trade.getPriceTicks());
+    }
+
+    public void testSellTakingAHigherBidFillsAtTheBid() {
+        OrderBook book = new OrderBook();
+        long bid = book.addOrder(new Order(true, 10_002, 5, false, 100));
+        long sell = book.addOrder(new Order(false, 10_001, 3, false, 100));
+        book.matchOrders();
+
+        Trade trade = book.getTradeHistory().get(0);
+        assertFalse(trade.isBuy());
+        assertEquals(10_002, trade.getPriceTicks());
+        assertEquals(bid, trade.getMakerOrderId());
+        assertEquals(sell, trade.getTakerOrderId());
+    }
+
+    public void testOldChunksAreDroppedAndCursorsQueryRanges() {
+        TradeHistory history = new TradeHistory(4, 3);
+        for (int i = 1; i <= 14; i++) {
+            assertEquals(i, history.recordTrade(i % 2 == 0, 100 + i, i, i, 100 + i, i * 10L));
+        }
+        // Chunks hold trades 1-4, 5-8, 9-12, 13-14; the first one was reused for 13 onwards.
+        assertEquals(5, history.getFirstSequence());
+        assertEquals(14, history.getLastSequence());
+        assertEquals(10, history.size());
+
+        TradeHistory.Cursor cursor = history.cursor();
+        long sum = 0;
+        int count = 0;
+        while (cursor.next()) {
+            assertEquals(cursor.getSequence(), cursor.getQuantity());
+            assertEquals(100 + cursor.getSequence(), cursor.getPriceTicks());
+            sum += cursor.getSequence();
+            count++;
+        }
+        assertEquals(10, count);
+        assertEquals(95, sum);
+
+        // A cursor left open follows new trades.
+        history.recordTrade(true, 115, 15, 15, 115, 150);
+        assertTrue(cursor.next());
+        assertEquals(15, cursor.getSequence());
+        assertFalse(cursor.next());
+
+        assertEquals(7, history.sequenceAtOrAfter(65));
+        assertEquals(5, history.sequenceAtOrAfter(0));
+        assertEquals(16, history.sequenceAtOrAfter(1_000));
+        cursor.seekTime(70, 100);
+        count = 0;
+        while (cursor.next()) {
+            assertTrue(cursor.getTimestampNanos() >= 70 && cursor.getTimestampNanos() < 100);
+            count++;
+        }
+        assertEquals(3, count);
+
+        cursor.seek(9, 11);
+        assertTrue(cursor.next());
+        assertEquals(9, cursor.toTrade().getSequence());
+        assertTrue(cursor.next());
+        assertFalse(cursor.next());
+
+        history.clear();
+        assertEquals(0, history.size());
+        assertEquals(16, history.recordTrade(true, 1, 1, 1, 1, 160));
+        assertEquals(1, history.getAllTrades().size());
+    }
+}
@@ -0,0 +1,114 @@
+package com.afrancodev.orderbook.replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import com.afrancodev.orderbook.OrderBook;
+import com.afrancodev.orderbook.models.Instrument;
+import com.afrancodev.orderbook.models.OrderPool;
+
+public class FlowReplayerTest extends TestCase {
+
+    private final List<Path> paths = new ArrayList<>();
+
+    private Path tempFile(String suffix) throws IOException {
+        File file = File.createTempFile("orderflow", suffix);
+        file.deleteOnExit();
+        paths.add(file.toPath());
+        return file.toPath();
+    }
+
+    @Override
+    protected void tearDown() {
+        for (Path path : paths) {
+            path.toFile().delete();
+        }
+    }
+
+    private static OrderBook newBook() {
+        return new OrderBook(new Instrument("TEST", 0.01), new OrderPool(1024));
+    }
+
+    private static void assertSameState(OrderBook expected, OrderBook actual) {
+        assertEquals(expected.getTradeHistory().toString(), actual.getTradeHistory().toString());
+        assertEquals(expected.getBuyOrdersCount(), actual.getBuyOrdersCount());
+        assertEquals(expected.getSellOrdersCount(), actual.getSellOrdersCount());
+        assertEquals(expected.getTotalBuyOrdersQuantity(), actual.getTotalBuyOrdersQuantity());
+        assertEquals(expected.getTotalSellOrdersQuantity(), actual.getTotalSellOrdersQuantity());
+        assertEquals(expected.getMidHistory(), actual.getMidHistory());
+    }
+
+    public void testCompressedAndRawFilesReplayIdentically() throws IOException {
+        Path raw = tempFile(".obf");
+        Path compressed = tempFile(".obf");
+        long written = FlowReplayer.generate(raw, false, 42, 20_000, 10, 50_000);
+        assertEquals(written, FlowReplayer.generate(compressed, true, 42, 20_000, 10, 50_000));
+        assertTrue(Files.size(compressed) < Files.size(raw));
+
+        OrderBook fromRaw = newBook();
+        OrderBook fromCompressed = newBook();
+        FlowReplayer rawReplayer = new FlowReplayer(fromRaw, 0);
+        assertEquals(written, rawReplayer.replay(raw));
+        assertEquals(written, new FlowReplayer(fromCompressed, 0).replay(compressed));
+
+        assertEquals(20_000, rawReplayer.getAdds());
+        assertEquals(2_000, rawReplayer.getTicks());
+        assertTrue(rawReplayer.getCancels() > 0);
+        assertTrue(fromRaw.getTradeCount() > 0);
+        assertSameState(fromRaw, fromCompressed);
+    }
+
+    public void testCsvMatchesBinary() throws IOException {
+        Path csv = tempFile(".csv");
+        Files.write(csv, Arrays.asList(
+                "timestamp_nanos,type,order_id,side,price_ticks,quantity,market,age",
+                "1000,ADD,1,S,10010,5,0,50",
+                "2000,ADD,2,S,10020,5,0,50",
+                "# resting bid that gets re-priced",
+                "3000,ADD,3,B,9990,4,0,50",
+                "4000,MODIFY,3,,10010,4",
+                "5000,TICK",
+                "6000,CANCEL,2",
+                "7000,ADD,4,B,10010,3,1,50",
+                "8000,TICK"), StandardCharsets.US_ASCII);
+
+        Path binary = tempFile(".obf");
+        try (FlowReader reader = FlowReader.open(csv); FlowWriter writer = new FlowWriter(binary, true)) {
+            assertTrue(reader instanceof CsvFlowReader);
+            assertEquals(8, reader.read(writer, 100));
+            assertEquals(0, reader.read(writer, 100));
+        }
+
+        OrderBook fromCsv = newBook();
+        OrderBook fromBinary = newBook();
+        new FlowReplayer(fromCsv, 0).replay(csv);
+        new FlowReplayer(fromBinary, 0).replay(binary);
+
+        assertEquals(2, fromCsv.getTradeCount());
+        assertEquals(OrderBook.NO_PRICE, fromCsv.getBestAskTicks());
+        assertNull(fromCsv.getOrder(2));
+        assertSameState(fromCsv, fromBinary);
+    }
+
+    public void testSpeedFactorScalesCaptureTime() throws IOException {
+        Path binary = tempFile(".obf");
+        try (FlowWriter writer = new FlowWriter(binary, false)) {
+            for (int i = 0; i <= 10; i++) {
+                writer.onTick(i * 20_000_000L);
+            }
+        }
+
+        long start = System.nanoTime();
+        new FlowReplayer(newBook(), 2.0).replay(binary);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("took " + elapsedMillis + " ms", elapsedMillis >= 100);
+    }
+}